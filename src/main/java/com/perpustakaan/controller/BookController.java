@@ -4,7 +4,6 @@ import com.perpustakaan.model.Book;
 import com.perpustakaan.model.LibraryManager;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import javafx.collections.transformation.FilteredList;
 import javafx.collections.transformation.SortedList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -44,8 +43,8 @@ public class BookController implements NeedsLibraryManager {
     private Button deleteButton;
 
     private LibraryManager libraryManager;
-    private ObservableList<Book> bookData = FXCollections.observableArrayList();
-    private FilteredList<Book> filteredData;
+    private ObservableList<Book> bookData = FXCollections.observableArrayList(); // Hasil pencarian saat ini
+    private boolean filterListenerInstalled;
 
     @Override
     public void setLibraryManager(LibraryManager libraryManager) {
@@ -72,20 +71,16 @@ public class BookController implements NeedsLibraryManager {
             return;
         }
         
-        bookData.clear();
-        bookData.addAll(libraryManager.getAllBooks());
-        
-        if (filteredData == null) {
-            filteredData = new FilteredList<>(bookData, _book -> true); // Parameter tidak digunakan, ganti nama jadi _book
+        applyFilter(filterField.getText());
 
+        if (!filterListenerInstalled) {
             filterField.textProperty().addListener((_observable, _oldValue, newValue) -> { // Parameter tidak digunakan, ganti nama
                 applyFilter(newValue);
             });
-        } else {
-            applyFilter(filterField.getText());
+            filterListenerInstalled = true;
         }
 
-        SortedList<Book> sortedData = new SortedList<>(filteredData);
+        SortedList<Book> sortedData = new SortedList<>(bookData);
         sortedData.comparatorProperty().bind(bookTableView.comparatorProperty());
         bookTableView.setItems(sortedData);
         
@@ -100,16 +95,11 @@ public class BookController implements NeedsLibraryManager {
         manageButtonState(newValue != null);
     }
 
+    /**
+     * Menampilkan hasil pencarian indeks katalog (semua buku jika teks kosong).
+     */
     private void applyFilter(String filterText) {
-        filteredData.setPredicate(book -> {
-            if (filterText == null || filterText.isEmpty() || filterText.isBlank()) {
-                return true;
-            }
-            String lowerCaseFilter = filterText.toLowerCase();
-            return book.getIsbn().toLowerCase().contains(lowerCaseFilter) ||
-                   book.getTitle().toLowerCase().contains(lowerCaseFilter) ||
-                   book.getAuthor().toLowerCase().contains(lowerCaseFilter);
-        });
+        bookData.setAll(libraryManager.searchBooks(filterText));
     }
 
     private void manageButtonState(boolean isItemSelected) {
@@ -4,7 +4,6 @@ import com.perpustakaan.model.Book;
 import com.perpustakaan.model.LibraryManager;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import javafx.collections.transformation.FilteredList;
 import javafx.collections.transformation.SortedList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -16,6 +15,8 @@ import javafx.scene.control.TableView;
 import javafx.scene.control.TextField;
 import javafx.scene.control.cell.PropertyValueFactory;
 
+import java.util.List;
+
 public class BorrowBookController implements NeedsLibraryManager, NeedsUserContext {
 
     @FXML
@@ -34,6 +35,8 @@ public class BorrowBookController implements NeedsLibraryManager, NeedsUserConte
     private TableColumn<Book, Integer> quantityColumn;
     @FXML
     private Button borrowButton;
+    @FXML
+    private Label alsoBorrowedLabel;
     // Tidak ada @FXML untuk refreshButton di kode Anda, tapi ada di FXML. Jika ada, tambahkan:
     // @FXML private Button refreshButton; 
 
@@ -42,8 +45,10 @@ public class BorrowBookController implements NeedsLibraryManager, NeedsUserConte
     private String currentUserRole;       // Peran pengguna (MEMBER)
     private String currentUserDisplayName; // Nama tampilan pengguna
 
-    private ObservableList<Book> masterBookData = FXCollections.observableArrayList(); // Daftar utama semua buku
-    private FilteredList<Book> filteredBookData; // Untuk data yang sudah difilter
+    private static final int SEARCH_RESULT_LIMIT = 200; // Hasil pencarian yang ditampilkan
+    private static final int SUGGESTION_LIMIT = 5;
+
+    private ObservableList<Book> masterBookData = FXCollections.observableArrayList(); // Hasil pencarian saat ini
     private SortedList<Book> sortedBookData;     // Untuk data yang bisa diurutkan
 
     /**
@@ -92,17 +97,13 @@ public class BorrowBookController implements NeedsLibraryManager, NeedsUserConte
         authorColumn.setCellValueFactory(new PropertyValueFactory<>("author"));
         quantityColumn.setCellValueFactory(new PropertyValueFactory<>("quantity"));
 
-        // 2. Inisialisasi list untuk data tabel dan filter
-        // masterBookData sudah diinisialisasi sebagai ObservableList
-        filteredBookData = new FilteredList<>(masterBookData, p -> true); // Awalnya tampilkan semua
-
-        // Listener untuk filterField agar filter diterapkan saat teks berubah
+        // 2. Listener untuk filterField agar pencarian dijalankan saat teks berubah
         filterField.textProperty().addListener((observable, oldValue, newValue) -> {
             applyBookFilter(newValue);
         });
         
         // Bungkus FilteredList dengan SortedList agar tabel bisa di-sort
-        sortedBookData = new SortedList<>(filteredBookData);
+        sortedBookData = new SortedList<>(masterBookData);
         // Hubungkan comparator SortedList dengan comparator TableView
         sortedBookData.comparatorProperty().bind(bookTableView.comparatorProperty());
         
@@ -111,7 +112,10 @@ public class BorrowBookController implements NeedsLibraryManager, NeedsUserConte
         
         // Listener untuk seleksi item di tabel untuk mengatur status tombol Pinjam
         bookTableView.getSelectionModel().selectedItemProperty().addListener(
-            (obs, oldSelection, newSelection) -> manageBorrowButtonState(newSelection)
+            (obs, oldSelection, newSelection) -> {
+                manageBorrowButtonState(newSelection);
+                showAlsoBorrowed(newSelection);
+            }
         );
         
         manageBorrowButtonState(null); // Awalnya tombol pinjam nonaktif
@@ -127,11 +131,8 @@ public class BorrowBookController implements NeedsLibraryManager, NeedsUserConte
             masterBookData.clear(); // Bersihkan data jika libraryManager tidak ada
             return;
         }
-        masterBookData.clear();
-        // Member bisa melihat semua buku yang tersedia (stok > 0 atau tidak, akan di-handle oleh manageBorrowButtonState)
-        masterBookData.addAll(libraryManager.getAllBooks());
-        
-        // Filter mungkin sudah memiliki teks, jadi panggil applyBookFilter untuk memperbarui tampilan
+        // Member bisa melihat semua buku yang tersedia (stok > 0 atau tidak, akan di-handle oleh manageBorrowButtonState).
+        // Filter mungkin sudah memiliki teks, jadi hasil pencarian langsung dipakai.
         applyBookFilter(filterField.getText());
 
         // Status tombol pinjam juga perlu di-update setelah data baru dimuat dan seleksi mungkin berubah
@@ -141,22 +142,19 @@ public class BorrowBookController implements NeedsLibraryManager, NeedsUserConte
     }
     
     /**
-     * Menerapkan filter pada daftar buku berdasarkan teks input.
+     * Menampilkan buku yang cocok dengan teks input, lewat indeks pencarian katalog
+     * (awalan kata judul, pengarang, atau ISBN), urut dari yang paling relevan dan
+     * sering dipinjam belakangan ini. Jika teks kosong, seluruh katalog ditampilkan.
      * @param filterText Teks untuk filter.
      */
     private void applyBookFilter(String filterText) {
-        if (filteredBookData == null) return; // Guard clause jika filteredBookData belum siap
+        if (libraryManager == null) return; // Guard clause jika LibraryManager belum siap
 
-        filteredBookData.setPredicate(book -> {
-            if (filterText == null || filterText.isEmpty() || filterText.isBlank()) {
-                return true; // Tampilkan semua jika filter kosong
-            }
-            String lowerCaseFilter = filterText.toLowerCase();
-            // Filter berdasarkan judul, pengarang, atau ISBN
-            return (book.getTitle() != null && book.getTitle().toLowerCase().contains(lowerCaseFilter)) ||
-                   (book.getAuthor() != null && book.getAuthor().toLowerCase().contains(lowerCaseFilter)) ||
-                   (book.getIsbn() != null && book.getIsbn().toLowerCase().contains(lowerCaseFilter));
-        });
+        if (filterText == null || filterText.isBlank()) {
+            masterBookData.setAll(libraryManager.searchBooks(filterText));
+        } else {
+            masterBookData.setAll(libraryManager.searchBooksRanked(filterText, SEARCH_RESULT_LIMIT));
+        }
     }
 
     /**
@@ -171,6 +169,30 @@ public class BorrowBookController implements NeedsLibraryManager, NeedsUserConte
         }
     }
 
+    /**
+     * Menampilkan saran "peminjam buku ini juga meminjam" untuk buku yang dipilih,
+     * tanpa buku yang sudah pernah dipinjam pengguna ini.
+     * @param selectedBook Buku yang sedang dipilih.
+     */
+    private void showAlsoBorrowed(Book selectedBook) {
+        if (alsoBorrowedLabel == null) return;
+        if (selectedBook == null || libraryManager == null) {
+            alsoBorrowedLabel.setText("");
+            return;
+        }
+        List<Book> suggestions = libraryManager.getAlsoBorrowed(selectedBook.getIsbn(), currentLoggedInMemberId, SUGGESTION_LIMIT);
+        if (suggestions.isEmpty()) {
+            alsoBorrowedLabel.setText("Belum ada saran untuk buku ini.");
+            return;
+        }
+        StringBuilder text = new StringBuilder("Peminjam buku ini juga meminjam: ");
+        for (int i = 0; i < suggestions.size(); i++) {
+            if (i > 0) text.append("; ");
+            text.append(suggestions.get(i).getTitle()).append(" (").append(suggestions.get(i).getAuthor()).append(")");
+        }
+        alsoBorrowedLabel.setText(text.toString());
+    }
+
     /**
      * Menangani aksi ketika tombol "Pinjam Buku Terpilih" ditekan.
      */
@@ -85,6 +85,7 @@ public class BorrowedBooksReportController implements NeedsLibraryManager {
             return;
         }
         reportData.clear();
+        libraryManager.updateOverdueStatuses(LocalDate.now());
         reportData.addAll(libraryManager.getBorrowedBooksReport());
         reportTableView.refresh();
         System.out.println(reportData.size() + " data buku dipinjam dimuat ke laporan.");
@@ -0,0 +1,109 @@
+package com.perpustakaan.controller;
+
+import com.perpustakaan.model.LibraryManager;
+import com.perpustakaan.model.RollupGroup;
+import com.perpustakaan.model.RollupRow;
+import com.perpustakaan.model.TimeGrain;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.scene.control.Alert;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
+import javafx.scene.control.cell.PropertyValueFactory;
+import java.time.LocalDate;
+
+public class CirculationRollupController implements NeedsLibraryManager {
+
+    @FXML
+    private DatePicker fromDatePicker;
+    @FXML
+    private DatePicker toDatePicker;
+    @FXML
+    private ComboBox<TimeGrain> grainComboBox;
+    @FXML
+    private ComboBox<RollupGroup> groupComboBox;
+    @FXML
+    private TextField majorFilterField;
+    @FXML
+    private TextField authorFilterField;
+    @FXML
+    private Label summaryLabel;
+
+    @FXML
+    private TableView<RollupRow> rollupTableView;
+    @FXML
+    private TableColumn<RollupRow, String> periodColumn;
+    @FXML
+    private TableColumn<RollupRow, String> majorColumn;
+    @FXML
+    private TableColumn<RollupRow, String> authorColumn;
+    @FXML
+    private TableColumn<RollupRow, Long> totalBorrowsColumn;
+    @FXML
+    private TableColumn<RollupRow, Double> totalFinesColumn;
+
+    private LibraryManager libraryManager;
+    private ObservableList<RollupRow> rollupData = FXCollections.observableArrayList();
+
+    @Override
+    public void setLibraryManager(LibraryManager libraryManager) {
+        this.libraryManager = libraryManager;
+        loadRollupData();
+    }
+
+    @FXML
+    private void initialize() {
+        grainComboBox.getItems().setAll(TimeGrain.values());
+        grainComboBox.setValue(TimeGrain.MONTH);
+        groupComboBox.getItems().setAll(RollupGroup.values());
+        groupComboBox.setValue(RollupGroup.MAJOR);
+        toDatePicker.setValue(LocalDate.now());
+        fromDatePicker.setValue(LocalDate.now().withDayOfYear(1));
+
+        periodColumn.setCellValueFactory(new PropertyValueFactory<>("periodFormatted"));
+        majorColumn.setCellValueFactory(new PropertyValueFactory<>("major"));
+        authorColumn.setCellValueFactory(new PropertyValueFactory<>("author"));
+        totalBorrowsColumn.setCellValueFactory(new PropertyValueFactory<>("totalBorrows"));
+        totalFinesColumn.setCellValueFactory(new PropertyValueFactory<>("totalFines"));
+        totalFinesColumn.setCellFactory(column -> MonthlyStatisticsController.TableCellHelper.getFormattedCurrencyCell());
+
+        rollupTableView.setItems(rollupData);
+        System.out.println("CirculationRollupController initialized.");
+    }
+
+    private void loadRollupData() {
+        if (libraryManager == null) {
+            System.err.println("LibraryManager belum di-set di CirculationRollupController.");
+            rollupData.clear();
+            return;
+        }
+        LocalDate from = fromDatePicker.getValue();
+        LocalDate to = toDatePicker.getValue();
+        if (from == null || to == null || from.isAfter(to)) {
+            Alert alert = new Alert(Alert.AlertType.WARNING);
+            alert.setTitle("Rentang Tanggal Tidak Valid");
+            alert.setHeaderText(null);
+            alert.setContentText("Pilih tanggal awal yang tidak melewati tanggal akhir.");
+            alert.showAndWait();
+            return;
+        }
+        long start = System.nanoTime();
+        rollupData.setAll(libraryManager.getCirculationRollup(from, to, grainComboBox.getValue(),
+                groupComboBox.getValue(), majorFilterField.getText(), authorFilterField.getText()));
+        long elapsedMicros = (System.nanoTime() - start) / 1000;
+        summaryLabel.setText(rollupData.size() + " baris (" + elapsedMicros / 1000.0 + " ms)");
+        System.out.println(rollupData.size() + " baris rollup sirkulasi dimuat.");
+    }
+
+    @FXML
+    private void handleShowRollupAction(ActionEvent event) {
+        System.out.println("Tombol Tampilkan Rollup diklik.");
+        loadRollupData();
+    }
+}
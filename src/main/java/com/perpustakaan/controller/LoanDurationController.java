@@ -0,0 +1,96 @@
+package com.perpustakaan.controller;
+
+import com.perpustakaan.model.LibraryManager;
+import com.perpustakaan.model.LoanDurationStat;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.scene.control.Alert;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.cell.PropertyValueFactory;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+public class LoanDurationController implements NeedsLibraryManager {
+
+    @FXML
+    private DatePicker fromDatePicker;
+    @FXML
+    private DatePicker toDatePicker;
+    @FXML
+    private CheckBox byMajorCheckBox;
+
+    @FXML
+    private TableView<LoanDurationStat> durationTableView;
+    @FXML
+    private TableColumn<LoanDurationStat, String> monthYearColumn;
+    @FXML
+    private TableColumn<LoanDurationStat, String> majorColumn;
+    @FXML
+    private TableColumn<LoanDurationStat, Long> returnedLoansColumn;
+    @FXML
+    private TableColumn<LoanDurationStat, Integer> p50Column;
+    @FXML
+    private TableColumn<LoanDurationStat, Integer> p90Column;
+    @FXML
+    private TableColumn<LoanDurationStat, Integer> p99Column;
+    @FXML
+    private TableColumn<LoanDurationStat, Long> overflowColumn;
+
+    private LibraryManager libraryManager;
+    private ObservableList<LoanDurationStat> durationData = FXCollections.observableArrayList();
+
+    @Override
+    public void setLibraryManager(LibraryManager libraryManager) {
+        this.libraryManager = libraryManager;
+        loadDurationData();
+    }
+
+    @FXML
+    private void initialize() {
+        toDatePicker.setValue(LocalDate.now());
+        fromDatePicker.setValue(LocalDate.now().minusMonths(11).withDayOfMonth(1));
+
+        monthYearColumn.setCellValueFactory(new PropertyValueFactory<>("monthYearFormatted"));
+        majorColumn.setCellValueFactory(new PropertyValueFactory<>("major"));
+        returnedLoansColumn.setCellValueFactory(new PropertyValueFactory<>("returnedLoans"));
+        p50Column.setCellValueFactory(new PropertyValueFactory<>("p50Days"));
+        p90Column.setCellValueFactory(new PropertyValueFactory<>("p90Days"));
+        p99Column.setCellValueFactory(new PropertyValueFactory<>("p99Days"));
+        overflowColumn.setCellValueFactory(new PropertyValueFactory<>("overflowLoans"));
+
+        durationTableView.setItems(durationData);
+        System.out.println("LoanDurationController initialized.");
+    }
+
+    private void loadDurationData() {
+        if (libraryManager == null) {
+            System.err.println("LibraryManager belum di-set di LoanDurationController.");
+            durationData.clear();
+            return;
+        }
+        LocalDate from = fromDatePicker.getValue();
+        LocalDate to = toDatePicker.getValue();
+        if (from == null || to == null || from.isAfter(to)) {
+            Alert alert = new Alert(Alert.AlertType.WARNING);
+            alert.setTitle("Rentang Bulan Tidak Valid");
+            alert.setHeaderText(null);
+            alert.setContentText("Pilih bulan awal yang tidak melewati bulan akhir.");
+            alert.showAndWait();
+            return;
+        }
+        durationData.setAll(libraryManager.getLoanDurationPercentiles(YearMonth.from(from), YearMonth.from(to),
+                byMajorCheckBox.isSelected()));
+        System.out.println(durationData.size() + " baris persentil lama peminjaman dimuat.");
+    }
+
+    @FXML
+    private void handleShowDurationsAction(ActionEvent event) {
+        System.out.println("Tombol Tampilkan Durasi diklik.");
+        loadDurationData();
+    }
+}
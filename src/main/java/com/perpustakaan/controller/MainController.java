@@ -1,6 +1,8 @@
 package com.perpustakaan.controller;
 
+import com.perpustakaan.model.DurabilityPolicy;
 import com.perpustakaan.model.LibraryManager;
+import com.perpustakaan.model.PersistenceMode;
 import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -43,7 +45,10 @@ public class MainController {
 
 
     public MainController() {
-        this.libraryManager = new LibraryManager();
+        // Meja sirkulasi memakai mode jurnal agar setiap peminjaman/pengembalian
+        // tidak menulis ulang seluruh file CSV, dan record jurnal di-fsync bersama
+        // oleh thread latar belakang setiap 100 ms agar UI tidak menunggu disk.
+        this.libraryManager = new LibraryManager(PersistenceMode.JOURNAL, DurabilityPolicy.everyMillis(100));
         System.out.println("LibraryManager instance created in MainController constructor.");
     }
 
@@ -186,6 +191,36 @@ public class MainController {
         loadView("/com/perpustakaan/view/MonthlyStatisticsView.fxml", "Laporan Statistik Bulanan");
     }
 
+    @FXML
+    private void handleRollupSirkulasiAction(ActionEvent event) {
+        if (!"ADMIN".equals(currentUserRole)) {
+            showErrorAlert("Akses Ditolak", "Hanya Admin yang dapat mengakses statistik.", null);
+            return;
+        }
+        System.out.println("Menu Rollup Sirkulasi diklik oleh " + currentUserRole);
+        loadView("/com/perpustakaan/view/CirculationRollupView.fxml", "Rollup Sirkulasi");
+    }
+
+    @FXML
+    private void handleDurasiPeminjamanAction(ActionEvent event) {
+        if (!"ADMIN".equals(currentUserRole)) {
+            showErrorAlert("Akses Ditolak", "Hanya Admin yang dapat mengakses statistik.", null);
+            return;
+        }
+        System.out.println("Menu Lama Peminjaman diklik oleh " + currentUserRole);
+        loadView("/com/perpustakaan/view/LoanDurationView.fxml", "Lama Peminjaman");
+    }
+
+    @FXML
+    private void handleTerpopulerAction(ActionEvent event) {
+        if (!"ADMIN".equals(currentUserRole)) {
+            showErrorAlert("Akses Ditolak", "Hanya Admin yang dapat mengakses statistik.", null);
+            return;
+        }
+        System.out.println("Menu Terpopuler diklik oleh " + currentUserRole);
+        loadView("/com/perpustakaan/view/PopularityView.fxml", "Buku dan Anggota Terpopuler");
+    }
+
     @FXML
     private void handleRiwayatPeminjamanAction(ActionEvent event) {
         if (!"MEMBER".equals(currentUserRole)) {
@@ -4,7 +4,6 @@ import com.perpustakaan.model.Member;
 import com.perpustakaan.model.LibraryManager;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import javafx.collections.transformation.FilteredList;
 import javafx.collections.transformation.SortedList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -45,8 +44,11 @@ public class MemberController implements NeedsLibraryManager {
     private Button deleteButton;
 
     private LibraryManager libraryManager;
-    private ObservableList<Member> memberData = FXCollections.observableArrayList();
-    private FilteredList<Member> filteredData;
+    private ObservableList<Member> memberData = FXCollections.observableArrayList(); // Hasil pencarian saat ini
+    private boolean filterListenerInstalled;
+
+    // Batas hasil pencarian agar tabel tetap responsif pada direktori anggota yang besar
+    private static final int SEARCH_RESULT_LIMIT = 1000;
 
     @Override
     public void setLibraryManager(LibraryManager libraryManager) {
@@ -74,19 +76,16 @@ public class MemberController implements NeedsLibraryManager {
             return;
         }
 
-        memberData.clear();
-        memberData.addAll(libraryManager.getAllMembers());
+        applyFilter(filterField.getText());
 
-        if (filteredData == null) {
-            filteredData = new FilteredList<>(memberData, _member -> true);
+        if (!filterListenerInstalled) {
             filterField.textProperty().addListener((_observable, _oldValue, newValue) -> {
                 applyFilter(newValue);
             });
-        } else {
-            applyFilter(filterField.getText());
+            filterListenerInstalled = true;
         }
 
-        SortedList<Member> sortedData = new SortedList<>(filteredData);
+        SortedList<Member> sortedData = new SortedList<>(memberData);
         sortedData.comparatorProperty().bind(memberTableView.comparatorProperty());
         memberTableView.setItems(sortedData);
 
@@ -102,21 +101,12 @@ public class MemberController implements NeedsLibraryManager {
         manageButtonState(newValue != null);
     }
 
+    /**
+     * Menampilkan hasil pencarian anggota (toleran salah ketik, urut dari yang paling
+     * mirip); semua anggota jika teks kosong.
+     */
     private void applyFilter(String filterText) {
-        filteredData.setPredicate(member -> {
-            if (filterText == null || filterText.isEmpty() || filterText.isBlank()) {
-                return true;
-            }
-            String lowerCaseFilter = filterText.toLowerCase();
-            return member.getId().toLowerCase().contains(lowerCaseFilter) ||
-                    member.getFullName().toLowerCase().contains(lowerCaseFilter) ||
-                    (member.getMajor() != null && member.getMajor().toLowerCase().contains(lowerCaseFilter)) || // Tambah
-                                                                                                                // null
-                                                                                                                // check
-                                                                                                                // untuk
-                                                                                                                // major
-                    member.getEmail().toLowerCase().contains(lowerCaseFilter);
-        });
+        memberData.setAll(libraryManager.searchMembers(filterText, SEARCH_RESULT_LIMIT));
     }
 
     private void manageButtonState(boolean isItemSelected) {
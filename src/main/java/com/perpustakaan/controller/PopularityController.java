@@ -0,0 +1,107 @@
+package com.perpustakaan.controller;
+
+import com.perpustakaan.model.HeavyHitter;
+import com.perpustakaan.model.LibraryManager;
+import com.perpustakaan.model.TimeGrain;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.cell.PropertyValueFactory;
+
+public class PopularityController implements NeedsLibraryManager {
+
+    private static final int TOP_K = 100;
+    private static final String ALL_TIME = "Sepanjang Waktu";
+
+    @FXML
+    private ComboBox<String> windowComboBox;
+
+    @FXML
+    private TableView<HeavyHitter> topBooksTableView;
+    @FXML
+    private TableColumn<HeavyHitter, String> bookTitleColumn;
+    @FXML
+    private TableColumn<HeavyHitter, String> bookIsbnColumn;
+    @FXML
+    private TableColumn<HeavyHitter, Long> bookCountColumn;
+
+    @FXML
+    private TableView<HeavyHitter> topMembersTableView;
+    @FXML
+    private TableColumn<HeavyHitter, String> memberNameColumn;
+    @FXML
+    private TableColumn<HeavyHitter, String> memberIdColumn;
+    @FXML
+    private TableColumn<HeavyHitter, Long> memberCountColumn;
+
+    private LibraryManager libraryManager;
+    private ObservableList<HeavyHitter> topBooksData = FXCollections.observableArrayList();
+    private ObservableList<HeavyHitter> topMembersData = FXCollections.observableArrayList();
+
+    @Override
+    public void setLibraryManager(LibraryManager libraryManager) {
+        this.libraryManager = libraryManager;
+        loadPopularityData();
+    }
+
+    @FXML
+    private void initialize() {
+        windowComboBox.getItems().add(ALL_TIME);
+        for (TimeGrain grain : TimeGrain.values()) {
+            windowComboBox.getItems().add(grain.toString());
+        }
+        windowComboBox.setValue(TimeGrain.SEMESTER.toString());
+
+        bookTitleColumn.setCellValueFactory(new PropertyValueFactory<>("label"));
+        bookIsbnColumn.setCellValueFactory(new PropertyValueFactory<>("key"));
+        bookCountColumn.setCellValueFactory(new PropertyValueFactory<>("count"));
+        memberNameColumn.setCellValueFactory(new PropertyValueFactory<>("label"));
+        memberIdColumn.setCellValueFactory(new PropertyValueFactory<>("key"));
+        memberCountColumn.setCellValueFactory(new PropertyValueFactory<>("count"));
+
+        topBooksTableView.setItems(topBooksData);
+        topMembersTableView.setItems(topMembersData);
+        System.out.println("PopularityController initialized.");
+    }
+
+    private void loadPopularityData() {
+        if (libraryManager == null) {
+            System.err.println("LibraryManager belum di-set di PopularityController.");
+            topBooksData.clear();
+            topMembersData.clear();
+            return;
+        }
+        TimeGrain window = selectedWindow();
+        if (window == null) {
+            topBooksData.setAll(libraryManager.getTopBooks(TOP_K));
+            topMembersData.setAll(libraryManager.getTopMembers(TOP_K));
+        } else {
+            topBooksData.setAll(libraryManager.getTopBooks(window, TOP_K));
+            topMembersData.setAll(libraryManager.getTopMembers(window, TOP_K));
+        }
+        System.out.println("Data terpopuler dimuat: " + topBooksData.size() + " buku, " + topMembersData.size()
+                + " anggota.");
+    }
+
+    /**
+     * @return periode berjalan yang dipilih, atau null untuk sepanjang waktu.
+     */
+    private TimeGrain selectedWindow() {
+        for (TimeGrain grain : TimeGrain.values()) {
+            if (grain.toString().equals(windowComboBox.getValue())) {
+                return grain;
+            }
+        }
+        return null;
+    }
+
+    @FXML
+    private void handleRefreshPopularityAction(ActionEvent event) {
+        System.out.println("Tombol Refresh Terpopuler diklik.");
+        loadPopularityData();
+    }
+}
@@ -0,0 +1,264 @@
+package com.perpustakaan.model;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Indeks terbalik (inverted index) untuk pencarian katalog: setiap kata dari judul,
+ * pengarang dan ISBN buku dipetakan ke buku-buku yang memuatnya. Kata disimpan
+ * terurut dalam TreeMap sehingga pencarian awalan ("pemro" menemukan "Pemrograman")
+ * cukup membaca rentang kata yang berawalan sama.
+ *
+ * Normalisasi mengikuti kebiasaan penulisan Indonesia: huruf kecil (locale id) dan
+ * diakritik dibuang, sehingga "Pramoedya" dan "Prámoedya" setara. ISBN
+ * juga diindeks tanpa tanda hubung agar "9786027" cocok dengan "978-602-7...".
+ *
+ * Buku cocok jika setiap kata di query adalah awalan dari salah satu kata buku.
+ * {@link #search} mengembalikan hasil dalam urutan buku ditambahkan ke indeks;
+ * {@link #searchRanked} hanya K hasil terbaik menurut relevansi teks dan popularitas,
+ * dipilih dengan heap berukuran K tanpa mengurutkan semua hasil. Dipakai di bawah
+ * lock LibraryManager.
+ */
+final class BookSearchIndex {
+
+    private static final Locale INDONESIAN = Locale.forLanguageTag("id");
+    private static final double NON_TITLE_MATCH_WEIGHT = 0.8;
+
+    private final TreeMap<String, Set<Book>> booksByToken = new TreeMap<>();
+    private final Map<Book, Entry> entries = new HashMap<>(); // Book tidak meng-override equals
+
+    private long nextSequence;
+
+    private static final class Entry {
+        final long sequence;
+        List<String> tokens;
+        int titleTokens; // Kata-kata judul berada di awal tokens
+
+        Entry(long sequence, List<String> tokens, int titleTokens) {
+            this.sequence = sequence;
+            this.tokens = tokens;
+            this.titleTokens = titleTokens;
+        }
+    }
+
+    private static final class Scored {
+        final Book book;
+        final double score;
+        final long sequence;
+
+        Scored(Book book, double score, long sequence) {
+            this.book = book;
+            this.score = score;
+            this.sequence = sequence;
+        }
+    }
+
+    // Hasil terburuk lebih dulu: skor lebih kecil, lalu buku yang ditambahkan belakangan
+    private static final Comparator<Scored> WORST_FIRST = Comparator.<Scored>comparingDouble(scored -> scored.score)
+            .thenComparing(Comparator.<Scored>comparingLong(scored -> scored.sequence).reversed());
+
+    void add(Book book) {
+        if (entries.containsKey(book)) {
+            reindex(book);
+            return;
+        }
+        List<String> tokens = tokensOf(book);
+        entries.put(book, new Entry(nextSequence++, tokens, titleTokenCount(book)));
+        for (String token : tokens) {
+            booksByToken.computeIfAbsent(token, key -> new HashSet<>()).add(book);
+        }
+    }
+
+    void remove(Book book) {
+        Entry entry = entries.remove(book);
+        if (entry != null) {
+            unlink(book, entry.tokens);
+        }
+    }
+
+    /**
+     * Memperbarui kata-kata buku setelah judul/pengarang/ISBN-nya berubah; urutan buku tetap.
+     */
+    void reindex(Book book) {
+        Entry entry = entries.get(book);
+        if (entry == null) {
+            add(book);
+            return;
+        }
+        unlink(book, entry.tokens);
+        entry.tokens = tokensOf(book);
+        entry.titleTokens = titleTokenCount(book);
+        for (String token : entry.tokens) {
+            booksByToken.computeIfAbsent(token, key -> new HashSet<>()).add(book);
+        }
+    }
+
+    /**
+     * @return buku yang cocok dengan semua kata di query (sebagai awalan), atau null jika
+     *         query tidak berisi kata apa pun (pemanggil menampilkan semua buku).
+     */
+    List<Book> search(String query) {
+        List<String> queryTokens = tokenize(query);
+        if (queryTokens.isEmpty()) {
+            return null;
+        }
+        List<Book> result = new ArrayList<>(booksMatching(queryTokens));
+        result.sort(Comparator.comparingLong(book -> entries.get(book).sequence));
+        return result;
+    }
+
+    /**
+     * @param popularity popularitas buku (misalnya jumlah peminjaman terbaru yang diluruhkan), >= 0.
+     * @return paling banyak limit buku yang cocok, urut dari skor tertinggi; skor adalah
+     *         relevansi teks dikali (1 + ln(1 + popularitas)). Query kosong memberi
+     *         buku terpopuler dari seluruh katalog.
+     */
+    List<Book> searchRanked(String query, int limit, ToDoubleFunction<Book> popularity) {
+        List<String> queryTokens = tokenize(query);
+        Collection<Book> matches = queryTokens.isEmpty() ? entries.keySet() : booksMatching(queryTokens);
+        PriorityQueue<Scored> best = new PriorityQueue<>(WORST_FIRST);
+        for (Book book : matches) {
+            Entry entry = entries.get(book);
+            double relevance = queryTokens.isEmpty() ? 1.0 : relevance(queryTokens, entry);
+            Scored scored = new Scored(book, relevance * (1 + Math.log1p(popularity.applyAsDouble(book))),
+                    entry.sequence);
+            if (best.size() < limit) {
+                best.add(scored);
+            } else if (limit > 0 && WORST_FIRST.compare(scored, best.peek()) > 0) {
+                best.poll();
+                best.add(scored);
+            }
+        }
+        List<Book> result = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            result.add(best.poll().book);
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    /**
+     * Rata-rata kecocokan setiap kata query: 1 untuk kata yang sama persis, panjang
+     * query / panjang kata untuk awalan, dikurangi bobotnya jika kata tersebut bukan
+     * dari judul.
+     */
+    private static double relevance(List<String> queryTokens, Entry entry) {
+        double total = 0;
+        for (String queryToken : queryTokens) {
+            double best = 0;
+            for (int i = 0; i < entry.tokens.size(); i++) {
+                String token = entry.tokens.get(i);
+                if (token.startsWith(queryToken)) {
+                    double match = (double) queryToken.length() / token.length();
+                    best = Math.max(best, i < entry.titleTokens ? match : match * NON_TITLE_MATCH_WEIGHT);
+                }
+            }
+            total += best;
+        }
+        return total / queryTokens.size();
+    }
+
+    private Set<Book> booksMatching(List<String> queryTokens) {
+        // Kata terpanjang biasanya paling selektif: mulai dari sana lalu persempit.
+        List<String> bySelectivity = new ArrayList<>(queryTokens);
+        bySelectivity.sort(Comparator.comparingInt(String::length).reversed());
+        Set<Book> matches = booksWithPrefix(bySelectivity.get(0));
+        for (int i = 1; i < bySelectivity.size() && !matches.isEmpty(); i++) {
+            matches.retainAll(booksWithPrefix(bySelectivity.get(i)));
+        }
+        return matches;
+    }
+
+    private Set<Book> booksWithPrefix(String prefix) {
+        Set<Book> books = new HashSet<>();
+        SortedMap<String, Set<Book>> range = booksByToken.subMap(prefix, prefix + Character.MAX_VALUE);
+        for (Set<Book> posting : range.values()) {
+            books.addAll(posting);
+        }
+        return books;
+    }
+
+    private void unlink(Book book, List<String> tokens) {
+        for (String token : tokens) {
+            Set<Book> posting = booksByToken.get(token);
+            if (posting != null && posting.remove(book) && posting.isEmpty()) {
+                booksByToken.remove(token);
+            }
+        }
+    }
+
+    private static int titleTokenCount(Book book) {
+        return new HashSet<>(tokenize(book.getTitle())).size();
+    }
+
+    private static List<String> tokensOf(Book book) {
+        List<String> tokens = new ArrayList<>();
+        addTokens(tokens, book.getTitle());
+        addTokens(tokens, book.getAuthor());
+        String isbn = book.getIsbn();
+        addTokens(tokens, isbn);
+        if (isbn != null) {
+            String compact = normalize(isbn).replaceAll("[^\\p{L}\\p{N}]", "");
+            if (!compact.isEmpty() && !tokens.contains(compact)) {
+                tokens.add(compact);
+            }
+        }
+        return tokens;
+    }
+
+    private static void addTokens(List<String> tokens, String text) {
+        for (String token : tokenize(text)) {
+            if (!tokens.contains(token)) {
+                tokens.add(token);
+            }
+        }
+    }
+
+    /**
+     * Memecah teks menjadi kata-kata ternormalisasi (huruf/angka saja).
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String normalized = normalize(text);
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean wordChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Huruf kecil tanpa diakritik (é -> e, ñ -> n); teks ASCII cukup diubah ke huruf kecil.
+     */
+    static String normalize(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) {
+                String decomposed = Normalizer.normalize(text, Normalizer.Form.NFKD);
+                return decomposed.replaceAll("\\p{M}+", "").toLowerCase(INDONESIAN);
+            }
+        }
+        return text.toLowerCase(INDONESIAN);
+    }
+}
@@ -0,0 +1,136 @@
+package com.perpustakaan.model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Buku dan anggota dengan peminjaman terbanyak, sepanjang waktu dan untuk periode
+ * berjalan (minggu, bulan, semester, ...), masing-masing sebagai sketsa
+ * {@link SpaceSaving} berukuran tetap. Setiap jendela hanya menyimpan periode terbaru
+ * yang pernah dilihatnya dan dikosongkan ketika peminjaman pertama di periode
+ * berikutnya masuk; peminjaman dari periode yang lebih lama diabaikan.
+ *
+ * Untuk peringkat pencarian juga disimpan popularitas setiap buku: jumlah peminjaman
+ * yang meluruh secara eksponensial (waktu paruh {@value #POPULARITY_HALF_LIFE_DAYS}
+ * hari). Bobot setiap peminjaman dihitung relatif terhadap satu hari acuan, sehingga
+ * peminjaman baru cukup menambah satu nilai, dan peluruhan ke hari ini hanyalah satu
+ * faktor yang sama untuk semua buku.
+ *
+ * Diisi oleh {@link TransactionStore} untuk setiap baris baru (peminjaman, pemuatan
+ * data dan replay jurnal). Space-Saving tidak bisa mengurangi hitungan, sehingga
+ * koreksi tanggal pinjam atau anggota/ISBN setelahnya tidak tercermin sampai data
+ * dimuat ulang.
+ */
+final class BorrowTrends {
+
+    static final int COUNTERS_PER_SKETCH = 1000;
+    static final int POPULARITY_HALF_LIFE_DAYS = 30;
+    private static final double MAX_EXPONENT = 500; // 2^500 masih jauh dari batas double
+
+    private final SpaceSaving allTimeBooks = new SpaceSaving(COUNTERS_PER_SKETCH);
+    private final SpaceSaving allTimeMembers = new SpaceSaving(COUNTERS_PER_SKETCH);
+    private final Map<TimeGrain, Window> windows = new EnumMap<>(TimeGrain.class);
+    private final Map<String, Double> popularityAtReference = new HashMap<>();
+    private int referenceDay = TransactionStore.NO_DATE;
+
+    BorrowTrends() {
+        for (TimeGrain grain : TimeGrain.values()) {
+            windows.put(grain, new Window(grain));
+        }
+    }
+
+    void offer(int borrowDay, String memberId, String isbn) {
+        allTimeBooks.offer(isbn);
+        allTimeMembers.offer(memberId);
+        if (borrowDay == TransactionStore.NO_DATE) {
+            return;
+        }
+        LocalDate borrowDate = LocalDate.ofEpochDay(borrowDay);
+        for (Window window : windows.values()) {
+            window.offer(borrowDate, memberId, isbn);
+        }
+        if (isbn != null) {
+            addPopularity(borrowDay, isbn);
+        }
+    }
+
+    /**
+     * @return jumlah peminjaman buku yang diluruhkan ke hari today (peminjaman hari itu bernilai 1).
+     */
+    double popularity(String isbn, int today) {
+        Double value = popularityAtReference.get(isbn);
+        if (value == null) {
+            return 0;
+        }
+        return value * Math.pow(2, (double) (referenceDay - today) / POPULARITY_HALF_LIFE_DAYS);
+    }
+
+    private void addPopularity(int borrowDay, String isbn) {
+        if (referenceDay == TransactionStore.NO_DATE) {
+            referenceDay = borrowDay;
+        }
+        double exponent = (double) (borrowDay - referenceDay) / POPULARITY_HALF_LIFE_DAYS;
+        if (exponent > MAX_EXPONENT) {
+            // Geser hari acuan agar bobot peminjaman baru tidak meluap
+            double scale = Math.pow(2, -exponent);
+            popularityAtReference.replaceAll((key, value) -> value * scale);
+            referenceDay = borrowDay;
+            exponent = 0;
+        }
+        popularityAtReference.merge(isbn, Math.pow(2, exponent), Double::sum);
+    }
+
+    List<HeavyHitter> topBooks(int k) {
+        return allTimeBooks.top(k);
+    }
+
+    List<HeavyHitter> topMembers(int k) {
+        return allTimeMembers.top(k);
+    }
+
+    /**
+     * @return buku terpopuler pada periode yang memuat tanggal today (kosong jika belum ada peminjaman).
+     */
+    List<HeavyHitter> topBooks(TimeGrain grain, LocalDate today, int k) {
+        Window window = windows.get(grain);
+        return window.isCurrent(today) ? window.books.top(k) : new ArrayList<>();
+    }
+
+    List<HeavyHitter> topMembers(TimeGrain grain, LocalDate today, int k) {
+        Window window = windows.get(grain);
+        return window.isCurrent(today) ? window.members.top(k) : new ArrayList<>();
+    }
+
+    private static final class Window {
+        final TimeGrain grain;
+        final SpaceSaving books = new SpaceSaving(COUNTERS_PER_SKETCH);
+        final SpaceSaving members = new SpaceSaving(COUNTERS_PER_SKETCH);
+        LocalDate periodStart;
+
+        Window(TimeGrain grain) {
+            this.grain = grain;
+        }
+
+        void offer(LocalDate borrowDate, String memberId, String isbn) {
+            LocalDate start = grain.periodStart(borrowDate);
+            if (periodStart != null && start.isBefore(periodStart)) {
+                return; // Periode lama
+            }
+            if (!start.equals(periodStart)) {
+                books.clear();
+                members.clear();
+                periodStart = start;
+            }
+            books.offer(isbn);
+            members.offer(memberId);
+        }
+
+        boolean isCurrent(LocalDate today) {
+            return periodStart != null && periodStart.equals(grain.periodStart(today));
+        }
+    }
+}
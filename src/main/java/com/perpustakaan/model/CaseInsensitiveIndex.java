@@ -0,0 +1,121 @@
+package com.perpustakaan.model;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Indeks hash untuk pencarian yang sebelumnya memakai equalsIgnoreCase secara linear
+ * (ID anggota, email). Kunci dinormalisasi dengan {@link #fold(String)} sehingga dua
+ * String dianggap sama persis seperti {@link String#equalsIgnoreCase(String)}.
+ *
+ * Kunci yang dipakai saat mengindeks setiap objek diingat, sehingga objek yang
+ * atributnya diubah langsung (misalnya email diubah oleh form sebelum
+ * updateMember) tetap bisa diindeks ulang dengan {@link #reindex(Object)}.
+ * Jika ada beberapa objek dengan kunci sama, yang pertama ditambahkan yang
+ * ditemukan, sama seperti pencarian linear atas list.
+ */
+final class CaseInsensitiveIndex<T> {
+
+    private final Function<T, String> keyOf;
+    private final Map<String, T> byKey = new HashMap<>();
+    private final Map<T, String> indexedKeys = new IdentityHashMap<>();
+
+    CaseInsensitiveIndex(Function<T, String> keyOf) {
+        this.keyOf = keyOf;
+    }
+
+    T get(String key) {
+        if (key == null) {
+            return null;
+        }
+        T value = byKey.get(fold(key));
+        // Objek yang diubah tanpa reindex tidak lagi cocok dengan kunci lamanya.
+        return value != null && key.equalsIgnoreCase(keyOf.apply(value)) ? value : null;
+    }
+
+    void add(T value) {
+        String key = keyOf.apply(value);
+        if (key == null) {
+            return;
+        }
+        String folded = fold(key);
+        indexedKeys.put(value, folded);
+        byKey.putIfAbsent(folded, value);
+    }
+
+    /**
+     * Menghapus objek dari indeks. Jika masih ada objek lain di list dengan kunci yang
+     * sama (data duplikat), objek itu yang kemudian ditemukan.
+     */
+    void remove(T value, List<T> remaining) {
+        String folded = indexedKeys.remove(value);
+        if (folded == null || byKey.get(folded) != value) {
+            return;
+        }
+        byKey.remove(folded);
+        for (T other : remaining) {
+            if (other != value && folded.equals(indexedKeys.get(other))) {
+                byKey.put(folded, other);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Mengindeks ulang objek setelah kuncinya berubah.
+     */
+    void reindex(T value) {
+        String folded = indexedKeys.remove(value);
+        if (folded != null && byKey.get(folded) == value) {
+            byKey.remove(folded);
+        }
+        add(value);
+    }
+
+    void clear() {
+        byKey.clear();
+        indexedKeys.clear();
+    }
+
+    /**
+     * Bentuk kanonis untuk perbandingan tanpa membedakan huruf besar/kecil: setiap
+     * code point diubah ke huruf besar lalu ke huruf kecil, aturan yang sama dengan
+     * equalsIgnoreCase.
+     */
+    static String fold(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80 || (c >= 'A' && c <= 'Z')) {
+                return foldFrom(value, i);
+            }
+        }
+        return value; // ASCII tanpa huruf besar: sudah kanonis
+    }
+
+    /**
+     * Hash dari {@link #fold(String)} tanpa membuat String baru.
+     */
+    static int foldedHash(String value) {
+        int hash = 0;
+        for (int i = 0; i < value.length();) {
+            int codePoint = value.codePointAt(i);
+            hash = 31 * hash + Character.toLowerCase(Character.toUpperCase(codePoint));
+            i += Character.charCount(codePoint);
+        }
+        return hash;
+    }
+
+    private static String foldFrom(String value, int start) {
+        StringBuilder folded = new StringBuilder(value.length());
+        folded.append(value, 0, start);
+        for (int i = start; i < value.length();) {
+            int codePoint = value.codePointAt(i);
+            folded.appendCodePoint(Character.toLowerCase(Character.toUpperCase(codePoint)));
+            i += Character.charCount(codePoint);
+        }
+        return folded.toString();
+    }
+}
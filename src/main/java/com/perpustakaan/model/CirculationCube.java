@@ -0,0 +1,351 @@
+package com.perpustakaan.model;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Kubus rollup sirkulasi (waktu x jurusan x pengarang) yang diagregasi lebih dulu:
+ * jumlah peminjaman per tanggal pinjam dan denda per tanggal kembali (baris
+ * "Returned"), dikelompokkan per jurusan anggota dan pengarang buku.
+ *
+ * Setiap sel (jurusan, pengarang), setiap jurusan, setiap pengarang dan totalnya
+ * menyimpan deret prefix sum yang jarang ({@link Series}): hanya hari yang pernah
+ * berisi transaksi, dengan jumlah kumulatifnya. Jumlah untuk rentang tanggal apa pun
+ * cukup dua binary search, sehingga slice-and-dice per hari/minggu/bulan/tahun tidak
+ * memindai transaksi. Transaksi hari ini selalu jatuh di ujung deret.
+ *
+ * Untuk setiap jurusan juga disimpan {@link DurationHistogram} lama peminjaman per
+ * bulan kembali; persentil semua jurusan diperoleh dengan menggabungkannya.
+ *
+ * Jurusan dan pengarang selalu mengikuti data anggota/buku saat ini, dibaca lewat
+ * resolver dari LibraryManager dan diingat per baris. Saat anggota atau buku
+ * ditambah, diubah atau dihapus (termasuk saat replay jurnal), baris miliknya
+ * diatribusikan ulang oleh {@link TransactionStore}; baris yang anggota/ISBN-nya
+ * diganti juga dibaca ulang. Karena itu hasilnya sama setelah restart, berapa pun
+ * urutan data dimuat. Diperbarui oleh {@link TransactionStore} di bawah lock
+ * LibraryManager, bersama {@link MonthlyStatsIndex}.
+ */
+final class CirculationCube {
+
+    static final String UNKNOWN = "(Tidak diketahui)";
+
+    private Function<String, String> majorOfMember = memberId -> null;
+    private Function<String, String> authorOfIsbn = isbn -> null;
+
+    private final Map<String, Integer> majorCodes = new HashMap<>();
+    private final Map<String, Integer> authorCodes = new HashMap<>();
+    private final List<String> majors = new ArrayList<>();
+    private final List<String> authors = new ArrayList<>();
+    private final Map<Long, Integer> cellCodes = new HashMap<>();
+    private final List<Measures> cells = new ArrayList<>();
+    private final List<Measures> byMajor = new ArrayList<>();
+    private final List<Measures> byAuthor = new ArrayList<>();
+    private final Measures total = new Measures(-1, -1);
+
+    private int[] cellOfRow = new int[1024]; // -1: belum diatribusikan
+
+    CirculationCube() {
+        Arrays.fill(cellOfRow, -1);
+    }
+
+    void setResolvers(Function<String, String> majorOfMember, Function<String, String> authorOfIsbn) {
+        this.majorOfMember = majorOfMember;
+        this.authorOfIsbn = authorOfIsbn;
+    }
+
+    void add(int row, String memberId, String isbn, int borrowDay, int returnDay, boolean returned, long fineCents) {
+        if (row >= cellOfRow.length) {
+            int oldLength = cellOfRow.length;
+            cellOfRow = Arrays.copyOf(cellOfRow, Math.max(row + 1, oldLength * 2));
+            Arrays.fill(cellOfRow, oldLength, cellOfRow.length, -1);
+        }
+        if (cellOfRow[row] < 0) {
+            cellOfRow[row] = cellCode(majorCode(majorOfMember.apply(memberId)), authorCode(authorOfIsbn.apply(isbn)));
+        }
+        apply(cells.get(cellOfRow[row]), borrowDay, returnDay, returned, fineCents, 1);
+    }
+
+    void remove(int row, int borrowDay, int returnDay, boolean returned, long fineCents) {
+        if (row < cellOfRow.length && cellOfRow[row] >= 0) {
+            apply(cells.get(cellOfRow[row]), borrowDay, returnDay, returned, fineCents, -1);
+        }
+    }
+
+    /**
+     * Melupakan jurusan/pengarang baris (setelah anggota atau ISBN-nya diganti); dipanggil
+     * setelah {@link #remove} dan sebelum {@link #add}.
+     */
+    void forget(int row) {
+        if (row < cellOfRow.length) {
+            cellOfRow[row] = -1;
+        }
+    }
+
+    /**
+     * @param majorFilter  hanya jurusan ini (tanpa membedakan huruf besar/kecil), atau null.
+     * @param authorFilter hanya pengarang ini, atau null.
+     * @return baris rollup per periode (urut waktu) lalu per jurusan/pengarang (urut
+     *         abjad); kombinasi tanpa peminjaman maupun denda tidak disertakan.
+     */
+    List<RollupRow> query(LocalDate from, LocalDate to, TimeGrain grain, RollupGroup group, String majorFilter,
+            String authorFilter) {
+        List<RollupRow> result = new ArrayList<>();
+        if (from == null || to == null || from.isAfter(to)) {
+            return result;
+        }
+        // Rentang dipersempit ke hari yang berisi data, agar batas seperti LocalDate.MIN/MAX
+        // tidak membuat perulangan periode yang hampir tak berujung.
+        int firstDay = Math.min(total.borrows.firstDay(), total.fineCents.firstDay());
+        int lastDay = Math.max(total.borrows.lastDay(), total.fineCents.lastDay());
+        if (firstDay > lastDay
+                || TransactionStore.toBoundDay(to) < firstDay || TransactionStore.toBoundDay(from) > lastDay) {
+            return result;
+        }
+        if (TransactionStore.toBoundDay(from) < firstDay) {
+            from = LocalDate.ofEpochDay(firstDay);
+        }
+        if (TransactionStore.toBoundDay(to) > lastDay) {
+            to = LocalDate.ofEpochDay(lastDay);
+        }
+        List<Measures> sources = sources(group, blankToNull(majorFilter), blankToNull(authorFilter));
+        for (LocalDate start = grain.periodStart(from); !start.isAfter(to); start = grain.nextPeriod(start)) {
+            LocalDate next = grain.nextPeriod(start);
+            int fromDay = TransactionStore.toDay(start.isBefore(from) ? from : start);
+            int toDay = TransactionStore.toDay(next.isAfter(to) ? to : next.minusDays(1));
+            for (Measures measures : sources) {
+                long borrows = measures.borrows.sumBetween(fromDay, toDay);
+                long fineCents = measures.fineCents.sumBetween(fromDay, toDay);
+                if (borrows != 0 || fineCents != 0) {
+                    result.add(new RollupRow(start, grain,
+                            group.byMajor ? majors.get(measures.major) : filterLabel(majorFilter),
+                            group.byAuthor ? authors.get(measures.author) : filterLabel(authorFilter),
+                            borrows, fineCents / 100.0));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param perMajor true untuk satu baris per jurusan, false untuk semua jurusan digabung.
+     * @return persentil lama peminjaman per bulan kembali (urut waktu, lalu jurusan);
+     *         bulan tanpa pengembalian tidak disertakan.
+     */
+    List<LoanDurationStat> loanDurations(YearMonth from, YearMonth to, boolean perMajor) {
+        List<LoanDurationStat> result = new ArrayList<>();
+        if (from == null || to == null || from.isAfter(to)) {
+            return result;
+        }
+        List<Measures> sorted = new ArrayList<>(byMajor);
+        sorted.sort(Comparator.comparing(measures -> majors.get(measures.major)));
+        int firstMonth = Integer.MAX_VALUE;
+        int lastMonth = Integer.MIN_VALUE;
+        for (Measures measures : byMajor) {
+            if (!measures.durationsByMonth.isEmpty()) {
+                firstMonth = Math.min(firstMonth, measures.durationsByMonth.firstKey());
+                lastMonth = Math.max(lastMonth, measures.durationsByMonth.lastKey());
+            }
+        }
+        // Dijepit ke bulan yang berisi data; YearMonth.MIN/MAX tidak muat di int.
+        int fromMonth = (int) Math.max(firstMonth, monthIndex(from));
+        int toMonth = (int) Math.min(lastMonth, monthIndex(to));
+        for (int month = fromMonth; month <= toMonth; month++) {
+            YearMonth monthYear = YearMonth.of(Math.floorDiv(month, 12), Math.floorMod(month, 12) + 1);
+            DurationHistogram merged = new DurationHistogram();
+            for (Measures measures : sorted) {
+                DurationHistogram durations = measures.durationsByMonth.get(month);
+                if (durations == null || durations.count() == 0) {
+                    continue;
+                }
+                if (perMajor) {
+                    result.add(new LoanDurationStat(monthYear, majors.get(measures.major), durations));
+                } else {
+                    merged.mergeFrom(durations);
+                }
+            }
+            if (!perMajor && merged.count() > 0) {
+                result.add(new LoanDurationStat(monthYear, RollupRow.ALL, merged));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Memilih agregat terkecil yang memuat semua dimensi yang dikelompokkan atau difilter.
+     */
+    private List<Measures> sources(RollupGroup group, String majorFilter, String authorFilter) {
+        boolean needMajor = group.byMajor || majorFilter != null;
+        boolean needAuthor = group.byAuthor || authorFilter != null;
+        List<Measures> candidates;
+        if (needMajor && needAuthor) {
+            candidates = cells;
+        } else if (needMajor) {
+            candidates = byMajor;
+        } else if (needAuthor) {
+            candidates = byAuthor;
+        } else {
+            return List.of(total);
+        }
+        List<Measures> sources = new ArrayList<>();
+        for (Measures measures : candidates) {
+            if ((majorFilter == null || majors.get(measures.major).equalsIgnoreCase(majorFilter))
+                    && (authorFilter == null || authors.get(measures.author).equalsIgnoreCase(authorFilter))) {
+                sources.add(measures);
+            }
+        }
+        Comparator<Measures> order = Comparator.comparing(measures -> measures.major < 0 ? "" : majors.get(measures.major));
+        sources.sort(order.thenComparing(measures -> measures.author < 0 ? "" : authors.get(measures.author)));
+        return sources;
+    }
+
+    private void apply(Measures cell, int borrowDay, int returnDay, boolean returned, long fineCents, int sign) {
+        Measures[] targets = { cell, byMajor.get(cell.major), byAuthor.get(cell.author), total };
+        for (Measures measures : targets) {
+            if (borrowDay != TransactionStore.NO_DATE) {
+                measures.borrows.add(borrowDay, sign);
+            }
+            if (returned && returnDay != TransactionStore.NO_DATE && fineCents > 0) {
+                measures.fineCents.add(returnDay, sign * fineCents);
+            }
+        }
+        if (returned && returnDay != TransactionStore.NO_DATE && borrowDay != TransactionStore.NO_DATE) {
+            int month = (int) monthIndex(YearMonth.from(LocalDate.ofEpochDay(returnDay)));
+            byMajor.get(cell.major).durationsByMonth.computeIfAbsent(month, key -> new DurationHistogram())
+                    .add(returnDay - borrowDay, sign);
+        }
+    }
+
+    private static long monthIndex(YearMonth month) {
+        return month.getYear() * 12L + month.getMonthValue() - 1;
+    }
+
+    private int cellCode(int major, int author) {
+        long key = ((long) major << 32) | author;
+        Integer code = cellCodes.get(key);
+        if (code == null) {
+            code = cells.size();
+            cells.add(new Measures(major, author));
+            cellCodes.put(key, code);
+        }
+        return code;
+    }
+
+    private int majorCode(String major) {
+        String label = labelOf(major);
+        Integer code = majorCodes.get(label);
+        if (code == null) {
+            code = majors.size();
+            majors.add(label);
+            majorCodes.put(label, code);
+            byMajor.add(new Measures(code, -1));
+        }
+        return code;
+    }
+
+    private int authorCode(String author) {
+        String label = labelOf(author);
+        Integer code = authorCodes.get(label);
+        if (code == null) {
+            code = authors.size();
+            authors.add(label);
+            authorCodes.put(label, code);
+            byAuthor.add(new Measures(-1, code));
+        }
+        return code;
+    }
+
+    private static String labelOf(String value) {
+        return value == null || value.trim().isEmpty() ? UNKNOWN : value.trim();
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.trim().isEmpty() ? null : value.trim();
+    }
+
+    private static String filterLabel(String filter) {
+        String value = blankToNull(filter);
+        return value == null ? RollupRow.ALL : value;
+    }
+
+    /**
+     * Deret peminjaman dan denda untuk satu sel atau agregat.
+     */
+    private static final class Measures {
+        final int major;  // -1 jika agregat semua jurusan
+        final int author; // -1 jika agregat semua pengarang
+        final Series borrows = new Series();
+        final Series fineCents = new Series();
+        // Hanya dipakai agregat per jurusan; kunci: tahun * 12 + (bulan - 1)
+        final TreeMap<Integer, DurationHistogram> durationsByMonth = new TreeMap<>();
+
+        Measures(int major, int author) {
+            this.major = major;
+            this.author = author;
+        }
+    }
+
+    /**
+     * Prefix sum jarang: hari-hari yang berisi data (urut) dan jumlah kumulatif sampai
+     * hari tersebut. Menambah di hari terakhir O(log n); koreksi tanggal mundur
+     * memperbarui kumulatif setelahnya.
+     */
+    static final class Series {
+        private int[] days = new int[4];
+        private long[] cumulative = new long[4];
+        private int size;
+
+        void add(int day, long delta) {
+            int position = Arrays.binarySearch(days, 0, size, day);
+            if (position < 0) {
+                position = -position - 1;
+                if (size == days.length) {
+                    days = Arrays.copyOf(days, size * 2);
+                    cumulative = Arrays.copyOf(cumulative, size * 2);
+                }
+                System.arraycopy(days, position, days, position + 1, size - position);
+                System.arraycopy(cumulative, position, cumulative, position + 1, size - position);
+                days[position] = day;
+                cumulative[position] = position > 0 ? cumulative[position - 1] : 0;
+                size++;
+            }
+            for (int i = position; i < size; i++) {
+                cumulative[i] += delta;
+            }
+        }
+
+        /**
+         * @return hari pertama yang berisi data, atau Integer.MAX_VALUE jika kosong.
+         */
+        int firstDay() {
+            return size == 0 ? Integer.MAX_VALUE : days[0];
+        }
+
+        /**
+         * @return hari terakhir yang berisi data, atau Integer.MIN_VALUE jika kosong.
+         */
+        int lastDay() {
+            return size == 0 ? Integer.MIN_VALUE : days[size - 1];
+        }
+
+        /**
+         * @return jumlah untuk hari-hari di antara kedua hari (inklusif).
+         */
+        long sumBetween(int fromDay, int toDay) {
+            return fromDay > toDay ? 0 : sumThrough(toDay) - sumThrough(fromDay - 1);
+        }
+
+        private long sumThrough(int day) {
+            int position = Arrays.binarySearch(days, 0, size, day);
+            int count = position >= 0 ? position + 1 : -position - 1;
+            return count == 0 ? 0 : cumulative[count - 1];
+        }
+    }
+}
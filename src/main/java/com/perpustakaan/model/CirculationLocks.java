@@ -0,0 +1,96 @@
+package com.perpustakaan.model;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Lock bergaris (striped) untuk peminjaman dan pengembalian: setiap anggota dan setiap
+ * ISBN dipetakan ke salah satu dari sejumlah tetap ReentrantLock, sehingga operasi
+ * pada anggota dan buku yang berbeda biasanya tidak saling menunggu tanpa perlu satu
+ * lock per entitas.
+ *
+ * Stripe anggota dan stripe buku berada di array terpisah dan selalu diambil dengan
+ * urutan anggota lalu buku, jadi dua operasi tidak mungkin saling menunggu (deadlock).
+ * Stripe menjaga pemeriksaan dan perubahan di memori (stok buku, pinjaman ganda) dan
+ * dilepas sebelum menunggu disk. Urutan di disk tetap sama dengan urutan perubahan
+ * karena record diantrekan selagi stripe dipegang dan ditulis sesuai urutan antrean;
+ * pada kebijakan asinkron (everyMillis/everyOperations) operasi kembali sebelum
+ * record tersimpan.
+ *
+ * Sebelum stripe, lock baca katalog diambil: peminjaman membaca indeks buku/anggota
+ * tanpa lock global, sedangkan perubahan katalog (tambah/ubah/hapus buku atau
+ * anggota) memegang lock tulisnya. Urutan lengkapnya: katalog, anggota, buku, lalu
+ * lock global LibraryManager.
+ */
+final class CirculationLocks {
+
+    private final ReentrantLock[] memberStripes;
+    private final ReentrantLock[] bookStripes;
+    private final ReentrantReadWriteLock catalog = new ReentrantReadWriteLock();
+
+    CirculationLocks(int stripes) {
+        int size = Integer.highestOneBit(Math.max(stripes - 1, 1)) << 1; // Pangkat dua >= stripes
+        memberStripes = newStripes(size);
+        bookStripes = newStripes(size);
+    }
+
+    /**
+     * @return stripe berdasarkan jumlah prosesor: cukup banyak agar tabrakan antar
+     *         meja jarang terjadi.
+     */
+    static CirculationLocks forAvailableProcessors() {
+        return new CirculationLocks(Math.max(16, Runtime.getRuntime().availableProcessors() * 8));
+    }
+
+    /**
+     * Mengunci katalog untuk dibaca, lalu stripe anggota dan stripe buku; lepaskan
+     * dengan {@link #unlock}.
+     */
+    void lock(String memberId, String isbn) {
+        catalog.readLock().lock();
+        memberStripe(memberId).lock();
+        bookStripe(isbn).lock();
+    }
+
+    void unlock(String memberId, String isbn) {
+        bookStripe(isbn).unlock();
+        memberStripe(memberId).unlock();
+        catalog.readLock().unlock();
+    }
+
+    /**
+     * Mengunci katalog secara eksklusif untuk menambah, mengubah atau menghapus buku
+     * dan anggota; tidak boleh dipanggil sambil memegang lock global LibraryManager.
+     */
+    void lockCatalog() {
+        catalog.writeLock().lock();
+    }
+
+    void unlockCatalog() {
+        catalog.writeLock().unlock();
+    }
+
+    private ReentrantLock memberStripe(String memberId) {
+        // ID anggota tidak membedakan huruf besar/kecil, seperti indeks anggota
+        int hash = memberId == null ? 0 : CaseInsensitiveIndex.foldedHash(memberId);
+        return memberStripes[spread(hash) & (memberStripes.length - 1)];
+    }
+
+    private ReentrantLock bookStripe(String isbn) {
+        int hash = isbn == null ? 0 : isbn.hashCode();
+        return bookStripes[spread(hash) & (bookStripes.length - 1)];
+    }
+
+    private static int spread(int hash) {
+        int mixed = hash * 0x9E3779B9;
+        return mixed ^ (mixed >>> 16);
+    }
+
+    private static ReentrantLock[] newStripes(int size) {
+        ReentrantLock[] stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        return stripes;
+    }
+}
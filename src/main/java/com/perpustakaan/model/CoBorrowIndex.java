@@ -0,0 +1,193 @@
+package com.perpustakaan.model;
+
+import java.util.Arrays;
+
+/**
+ * Model co-occurrence item-item untuk rekomendasi "peminjam buku ini juga meminjam":
+ * untuk setiap buku dicatat berapa anggota yang juga meminjam buku lain. Anggota dan
+ * buku memakai kode kamus dari {@link TransactionStore}, sehingga semua peta berkunci
+ * int tanpa boxing.
+ *
+ * Diperbarui per peminjaman, bukan dihitung berpasangan atas seluruh anggota: buku
+ * baru seorang anggota cukup dipasangkan dengan paling banyak
+ * {@value #MAX_HISTORY_PER_MEMBER} buku terakhir yang pernah dipinjamnya (meminjam
+ * ulang buku yang sama tidak menambah pasangan). Tetangga setiap buku dibatasi: jika
+ * lebih dari 2 x {@value #MAX_NEIGHBOURS}, hanya {@value #MAX_NEIGHBOURS} dengan
+ * hitungan terbesar yang disimpan. Hitungan pasangan yang terpangkas dimulai lagi dari
+ * nol, jadi pasangan yang jarang bisa sedikit kurang dihitung.
+ *
+ * Diisi oleh {@link TransactionStore} untuk setiap baris baru; seperti
+ * {@link BorrowTrends}, koreksi anggota/ISBN setelahnya tidak tercermin sampai data
+ * dimuat ulang. Tidak thread-safe; dipakai di bawah lock LibraryManager.
+ */
+final class CoBorrowIndex {
+
+    static final int MAX_HISTORY_PER_MEMBER = 50;
+    static final int MAX_NEIGHBOURS = 100;
+    private static final int[] NO_BOOKS = new int[0];
+
+    private int[][] booksOfMember = new int[1024][]; // Terlama lebih dulu
+    private int[] bookCountOfMember = new int[1024];
+    private IntCounter[] neighboursOf = new IntCounter[1024];
+
+    void offer(int memberCode, int isbnCode) {
+        if (memberCode == TransactionStore.NO_CODE || isbnCode == TransactionStore.NO_CODE) {
+            return;
+        }
+        if (memberCode >= booksOfMember.length) {
+            int capacity = Math.max(booksOfMember.length * 2, memberCode + 1);
+            booksOfMember = Arrays.copyOf(booksOfMember, capacity);
+            bookCountOfMember = Arrays.copyOf(bookCountOfMember, capacity);
+        }
+        int[] history = booksOfMember[memberCode];
+        int count = bookCountOfMember[memberCode];
+        for (int i = 0; i < count; i++) {
+            if (history[i] == isbnCode) {
+                return;
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            neighbours(isbnCode).increment(history[i]);
+            neighbours(history[i]).increment(isbnCode);
+        }
+        if (history == null) {
+            history = new int[4];
+        } else if (count == MAX_HISTORY_PER_MEMBER) {
+            System.arraycopy(history, 1, history, 0, --count); // Lupakan buku terlama
+        } else if (count == history.length) {
+            history = Arrays.copyOf(history, Math.min(count * 2, MAX_HISTORY_PER_MEMBER));
+        }
+        history[count] = isbnCode;
+        booksOfMember[memberCode] = history;
+        bookCountOfMember[memberCode] = count + 1;
+    }
+
+    /**
+     * @return kode buku lain yang paling sering dipinjam bersama buku ini, urut dari
+     *         hitungan terbesar (paling banyak limit).
+     */
+    int[] alsoBorrowed(int isbnCode, int limit) {
+        IntCounter counter = isbnCode >= 0 && isbnCode < neighboursOf.length ? neighboursOf[isbnCode] : null;
+        return counter == null ? NO_BOOKS : counter.top(limit);
+    }
+
+    private IntCounter neighbours(int isbnCode) {
+        if (isbnCode >= neighboursOf.length) {
+            neighboursOf = Arrays.copyOf(neighboursOf, Math.max(neighboursOf.length * 2, isbnCode + 1));
+        }
+        IntCounter counter = neighboursOf[isbnCode];
+        if (counter == null) {
+            counter = new IntCounter();
+            neighboursOf[isbnCode] = counter;
+        }
+        return counter;
+    }
+
+    /**
+     * Peta int -> int (open addressing) untuk hitungan tetangga satu buku.
+     */
+    private static final class IntCounter {
+        private static final int EMPTY = -1;
+
+        private int[] keys = newKeys(8);
+        private int[] counts = new int[8];
+        private int size;
+
+        void increment(int key) {
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            for (; keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    counts[slot]++;
+                    return;
+                }
+            }
+            if (size == 2 * MAX_NEIGHBOURS) {
+                prune();
+                increment(key);
+                return;
+            }
+            keys[slot] = key;
+            counts[slot] = 1;
+            size++;
+            if (size * 2 > keys.length) {
+                rehash(keys.length * 2);
+            }
+        }
+
+        /**
+         * @return kunci urut dari hitungan terbesar, lalu kode terkecil.
+         */
+        int[] top(int limit) {
+            long[] packed = packed();
+            Arrays.sort(packed);
+            int[] result = new int[Math.min(Math.max(limit, 0), packed.length)];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = (int) packed[i];
+            }
+            return result;
+        }
+
+        /**
+         * Menyisakan {@value CoBorrowIndex#MAX_NEIGHBOURS} tetangga dengan hitungan terbesar.
+         */
+        private void prune() {
+            long[] packed = packed();
+            Arrays.sort(packed);
+            Arrays.fill(keys, EMPTY);
+            size = 0;
+            for (int i = 0; i < MAX_NEIGHBOURS; i++) {
+                put((int) packed[i], (int) -(packed[i] >> 32));
+            }
+        }
+
+        /**
+         * Hitungan dan kunci dikemas dalam long agar terurut menaik = hitungan terbesar dulu.
+         */
+        private long[] packed() {
+            long[] packed = new long[size];
+            int n = 0;
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (keys[slot] != EMPTY) {
+                    packed[n++] = ((long) -counts[slot] << 32) | keys[slot];
+                }
+            }
+            return packed;
+        }
+
+        private void rehash(int capacity) {
+            int[] oldKeys = keys;
+            int[] oldCounts = counts;
+            keys = newKeys(capacity);
+            counts = new int[capacity];
+            size = 0;
+            for (int slot = 0; slot < oldKeys.length; slot++) {
+                if (oldKeys[slot] != EMPTY) {
+                    put(oldKeys[slot], oldCounts[slot]);
+                }
+            }
+        }
+
+        private void put(int key, int count) {
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            while (keys[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            counts[slot] = count;
+            size++;
+        }
+
+        private static int[] newKeys(int capacity) {
+            int[] keys = new int[capacity];
+            Arrays.fill(keys, EMPTY);
+            return keys;
+        }
+
+        private static int hash(int key) {
+            int mixed = key * 0x9E3779B9;
+            return mixed ^ (mixed >>> 16);
+        }
+    }
+}
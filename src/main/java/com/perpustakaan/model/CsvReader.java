@@ -0,0 +1,411 @@
+package com.perpustakaan.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+
+/**
+ * Pembaca CSV streaming (RFC 4180) yang memindai buffer byte secara langsung.
+ *
+ * Setiap record dipecah menjadi posisi awal/akhir field di dalam buffer; String
+ * hanya dibuat jika diminta lewat {@link #getString(int)}, sedangkan angka dan
+ * tanggal ISO diparse langsung dari byte-nya. Field boleh diapit tanda kutip
+ * ganda (dengan "" sebagai tanda kutip di dalamnya) sehingga boleh berisi koma
+ * atau baris baru. Seperti loader lama, spasi di awal/akhir field tanpa kutip
+ * diabaikan dan baris kosong dilewati.
+ *
+ * Pencarian koma, tanda kutip dan baris baru dilakukan oleh {@link StructuralScanner}
+ * (versi vektor jika tersedia).
+ */
+final class CsvReader implements Closeable {
+
+    private static final int DAYS_0000_TO_1970 = 719528;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+    private static final StructuralScanner SCANNER = StructuralScanner.get();
+
+    private final InputStream in;
+    private byte[] buffer = new byte[1 << 16];
+    private int position;
+    private int limit;
+    private boolean endOfInput;
+    private boolean started;
+
+    // Record yang sedang dibaca
+    private int recordStart;
+    private int recordEnd;
+    private int fieldCount;
+    private int[] fieldStarts = new int[16];
+    private int[] fieldEnds = new int[16];
+    private boolean[] fieldEscaped = new boolean[16];
+    private boolean[] fieldQuoted = new boolean[16];
+
+    CsvReader(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Membaca data yang sudah ada di memori (misalnya satu rentang file); array
+     * dipakai langsung sebagai buffer tanpa disalin.
+     */
+    CsvReader(byte[] data, int length) {
+        this.in = null;
+        this.buffer = data;
+        this.limit = length;
+        this.endOfInput = true;
+    }
+
+    /**
+     * Maju ke record berikutnya yang tidak kosong.
+     *
+     * @return false jika data sudah habis.
+     */
+    boolean nextRecord() throws IOException {
+        if (!started) {
+            started = true;
+            fill();
+            skipByteOrderMark();
+        }
+        while (true) {
+            if (position >= limit && endOfInput) {
+                fieldCount = 0;
+                return false;
+            }
+            int end = scanRecord(position);
+            if (end < 0) {
+                // Record belum lengkap di buffer: geser ke awal (perbesar jika perlu) lalu isi lagi.
+                compactAndFill();
+                continue;
+            }
+            recordStart = position;
+            recordEnd = end;
+            position = end;
+            if (fieldCount == 1 && !fieldQuoted[0] && fieldStarts[0] == fieldEnds[0]) {
+                continue; // Baris kosong
+            }
+            return true;
+        }
+    }
+
+    int getFieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * @return isi record mentah (tanpa akhir baris), untuk pesan error.
+     */
+    String getLine() {
+        int end = recordEnd;
+        while (end > recordStart && (buffer[end - 1] == '\n' || buffer[end - 1] == '\r')) {
+            end--;
+        }
+        return new String(buffer, recordStart, end - recordStart, StandardCharsets.UTF_8);
+    }
+
+    String getString(int field) {
+        checkField(field);
+        String value = new String(buffer, fieldStarts[field], fieldEnds[field] - fieldStarts[field],
+                StandardCharsets.UTF_8);
+        return fieldEscaped[field] ? value.replace("\"\"", "\"") : value;
+    }
+
+    boolean isEmpty(int field) {
+        checkField(field);
+        return fieldStarts[field] == fieldEnds[field];
+    }
+
+    /**
+     * @return true jika field kosong atau berisi "null" (huruf besar/kecil bebas).
+     */
+    boolean isEmptyOrNull(int field) {
+        checkField(field);
+        int start = fieldStarts[field];
+        int length = fieldEnds[field] - start;
+        if (length == 0) {
+            return true;
+        }
+        return length == 4 && (buffer[start] | 0x20) == 'n' && (buffer[start + 1] | 0x20) == 'u'
+                && (buffer[start + 2] | 0x20) == 'l' && (buffer[start + 3] | 0x20) == 'l';
+    }
+
+    int getInt(int field) {
+        checkField(field);
+        int p = fieldStarts[field];
+        int end = fieldEnds[field];
+        boolean negative = false;
+        if (p < end && (buffer[p] == '-' || buffer[p] == '+')) {
+            negative = buffer[p] == '-';
+            p++;
+        }
+        if (p >= end) {
+            throw new NumberFormatException("Bukan angka: \"" + getString(field) + "\"");
+        }
+        long value = 0;
+        for (; p < end; p++) {
+            int digit = buffer[p] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("Bukan angka: \"" + getString(field) + "\"");
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                throw new NumberFormatException("Angka terlalu besar: \"" + getString(field) + "\"");
+            }
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Angka terlalu besar: \"" + getString(field) + "\"");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Memparse bilangan desimal sederhana (mis. "3000.0") langsung dari buffer;
+     * bentuk lain (eksponen, NaN, terlalu banyak digit) diserahkan ke Double.parseDouble.
+     */
+    double getDouble(int field) {
+        checkField(field);
+        int p = fieldStarts[field];
+        int end = fieldEnds[field];
+        boolean negative = false;
+        if (p < end && (buffer[p] == '-' || buffer[p] == '+')) {
+            negative = buffer[p] == '-';
+            p++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean inFraction = false;
+        boolean sawDigit = false;
+        for (; p < end; p++) {
+            byte b = buffer[p];
+            if (b == '.' && !inFraction) {
+                inFraction = true;
+                continue;
+            }
+            int digit = b - '0';
+            if (digit < 0 || digit > 9 || digits >= 15) {
+                return Double.parseDouble(getString(field));
+            }
+            sawDigit = true;
+            mantissa = mantissa * 10 + digit;
+            if (mantissa != 0) {
+                digits++;
+            }
+            if (inFraction) {
+                fractionDigits++;
+            }
+        }
+        if (!sawDigit) {
+            throw new NumberFormatException("Bukan angka: \"" + getString(field) + "\"");
+        }
+        if (fractionDigits >= POWERS_OF_TEN.length) {
+            return Double.parseDouble(getString(field));
+        }
+        // Mantissa < 10^15 dan pangkat <= 22 sehingga pembagian ini dibulatkan dengan benar.
+        double value = mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Memparse tanggal ISO (yyyy-MM-dd) langsung menjadi epoch day.
+     */
+    int getEpochDay(int field) {
+        checkField(field);
+        int p = fieldStarts[field];
+        if (fieldEnds[field] - p != 10 || buffer[p + 4] != '-' || buffer[p + 7] != '-') {
+            return (int) LocalDate.parse(getString(field)).toEpochDay();
+        }
+        int year = digits(p, 4);
+        int month = digits(p + 5, 2);
+        int day = digits(p + 8, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            String text = getString(field);
+            throw new DateTimeParseException("Tanggal tidak valid: " + text, text, 0);
+        }
+        return epochDay(year, month, day);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (in != null) {
+            in.close();
+        }
+    }
+
+    // =================================================================================
+    // Pemindaian record
+    // =================================================================================
+
+    /**
+     * Memecah satu record mulai dari posisi start.
+     *
+     * @return posisi setelah akhir record, atau -1 jika record belum lengkap di buffer.
+     */
+    private int scanRecord(int start) {
+        int p = start;
+        fieldCount = 0;
+        while (true) {
+            while (p < limit && (buffer[p] == ' ' || buffer[p] == '\t')) {
+                p++;
+            }
+            int contentStart;
+            int contentEnd;
+            boolean quoted = false;
+            boolean escaped = false;
+            if (p < limit && buffer[p] == '"') {
+                quoted = true;
+                p++;
+                contentStart = p;
+                while (true) {
+                    p = SCANNER.indexOf(buffer, p, limit, (byte) '"');
+                    if (p >= limit) {
+                        return endOfInput ? unterminatedQuote(contentStart, p) : -1;
+                    }
+                    if (p + 1 >= limit && !endOfInput) {
+                        return -1;
+                    }
+                    if (p + 1 < limit && buffer[p + 1] == '"') {
+                        escaped = true;
+                        p += 2;
+                        continue;
+                    }
+                    contentEnd = p;
+                    p++;
+                    break;
+                }
+                // Karakter setelah tanda kutip penutup (selain spasi) diabaikan.
+                p = SCANNER.indexOfEither(buffer, p, limit, (byte) ',', (byte) '\n');
+            } else {
+                contentStart = p;
+                p = SCANNER.indexOfEither(buffer, p, limit, (byte) ',', (byte) '\n');
+                contentEnd = p;
+                while (contentEnd > contentStart && (buffer[contentEnd - 1] & 0xFF) <= ' ') {
+                    contentEnd--;
+                }
+            }
+            if (p >= limit && !endOfInput) {
+                return -1;
+            }
+            addField(contentStart, contentEnd, quoted, escaped);
+            if (p >= limit) {
+                return p;
+            }
+            if (buffer[p] == '\n') {
+                return p + 1;
+            }
+            p++; // koma
+        }
+    }
+
+    private int unterminatedQuote(int contentStart, int end) {
+        // Tanda kutip tidak ditutup sampai akhir file: ambil sisa data sebagai isi field.
+        addField(contentStart, end, true, false);
+        return end;
+    }
+
+    private void addField(int start, int end, boolean quoted, boolean escaped) {
+        if (fieldCount == fieldStarts.length) {
+            int capacity = fieldCount * 2;
+            fieldStarts = Arrays.copyOf(fieldStarts, capacity);
+            fieldEnds = Arrays.copyOf(fieldEnds, capacity);
+            fieldQuoted = Arrays.copyOf(fieldQuoted, capacity);
+            fieldEscaped = Arrays.copyOf(fieldEscaped, capacity);
+        }
+        fieldStarts[fieldCount] = start;
+        fieldEnds[fieldCount] = end;
+        fieldQuoted[fieldCount] = quoted;
+        fieldEscaped[fieldCount] = escaped;
+        fieldCount++;
+    }
+
+    private void checkField(int field) {
+        if (field < 0 || field >= fieldCount) {
+            throw new IndexOutOfBoundsException("Field " + field + " tidak ada (jumlah field " + fieldCount + ")");
+        }
+    }
+
+    private void fill() throws IOException {
+        while (limit < buffer.length && !endOfInput && in != null) {
+            int read = in.read(buffer, limit, buffer.length - limit);
+            if (read < 0) {
+                endOfInput = true;
+            } else {
+                limit += read;
+            }
+        }
+    }
+
+    private void compactAndFill() throws IOException {
+        int remaining = limit - position;
+        if (position == 0) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        } else {
+            System.arraycopy(buffer, position, buffer, 0, remaining);
+        }
+        position = 0;
+        limit = remaining;
+        fill();
+    }
+
+    private void skipByteOrderMark() {
+        if (limit >= 3 && (buffer[0] & 0xFF) == 0xEF && (buffer[1] & 0xFF) == 0xBB && (buffer[2] & 0xFF) == 0xBF) {
+            position = 3;
+        }
+    }
+
+    // =================================================================================
+    // Tanggal
+    // =================================================================================
+
+    private int digits(int p, int count) {
+        int value = 0;
+        for (int i = 0; i < count; i++) {
+            int digit = buffer[p + i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * Sama dengan LocalDate.of(year, month, day).toEpochDay() untuk tahun 0-9999.
+     */
+    static int epochDay(int year, int month, int day) {
+        long total = 365L * year + (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeapYear(year)) {
+                total--;
+            }
+        }
+        return (int) (total - DAYS_0000_TO_1970);
+    }
+}
@@ -0,0 +1,283 @@
+package com.perpustakaan.model;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.time.LocalDate;
+
+/**
+ * Penulis CSV (RFC 4180) yang menyusun baris langsung di buffer byte yang dipakai
+ * ulang, lalu mengirimkannya ke FileChannel.
+ *
+ * Teks di-encode ke UTF-8 karakter demi karakter, sedangkan angka, denda dan
+ * tanggal ISO diformat langsung ke buffer, sehingga menyimpan riwayat yang besar
+ * tidak membuat String sementara per field. Field yang berisi koma, tanda kutip,
+ * baris baru, atau spasi di awal/akhir diapit tanda kutip agar terbaca kembali utuh
+ * oleh {@link CsvReader}.
+ *
+ * Satu instance dipakai untuk satu file dalam satu waktu: {@link #begin(FileChannel)},
+ * tulis field dan {@link #endRecord()}, lalu {@link #finish()}.
+ */
+final class CsvWriter {
+
+    private final byte[] buffer;
+    private final ByteBuffer wrapped;
+    private int count;
+    private FileChannel channel;
+    private boolean firstField = true;
+
+    CsvWriter(int capacity) {
+        this.buffer = new byte[Math.max(capacity, 64)];
+        this.wrapped = ByteBuffer.wrap(buffer);
+    }
+
+    void begin(FileChannel target) {
+        this.channel = target;
+        this.count = 0;
+        this.firstField = true;
+    }
+
+    /**
+     * Menulis sisa buffer lalu memaksa isi dan metadata file tersimpan ke disk (fsync).
+     */
+    void finish() throws IOException {
+        flushBuffer();
+        channel.force(true);
+        channel = null;
+    }
+
+    /**
+     * Menulis satu baris apa adanya (misalnya header), tanpa tanda kutip.
+     */
+    void writeLine(String line) throws IOException {
+        writeChars(line);
+        endRecord();
+    }
+
+    void writeString(String value) throws IOException {
+        separator();
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        if (needsQuotes(value)) {
+            put((byte) '"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    put((byte) '"');
+                }
+                putChar(value, i);
+                if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    i++;
+                }
+            }
+            put((byte) '"');
+        } else {
+            writeChars(value);
+        }
+    }
+
+    /**
+     * Menulis field ASCII yang dibaca langsung dari memori (misalnya ID transaksi di
+     * {@link TransactionStore}) tanpa membuat String.
+     */
+    void writeAscii(MemorySegment segment, long offset, int length) throws IOException {
+        separator();
+        boolean quote = false;
+        for (int i = 0; i < length && !quote; i++) {
+            byte b = segment.get(ValueLayout.JAVA_BYTE, offset + i);
+            // Aturan yang sama dengan needsQuotes: baris baru di mana pun harus dikutip.
+            quote = b == ',' || b == '"' || b == '\n' || b == '\r' || ((i == 0 || i == length - 1) && b <= ' ');
+        }
+        if (quote) {
+            put((byte) '"');
+        }
+        for (int i = 0; i < length; i++) {
+            byte b = segment.get(ValueLayout.JAVA_BYTE, offset + i);
+            if (b == '"') {
+                put((byte) '"');
+            }
+            put(b);
+        }
+        if (quote) {
+            put((byte) '"');
+        }
+    }
+
+    void writeInt(int value) throws IOException {
+        separator();
+        putLong(value);
+    }
+
+    /**
+     * Menulis tanggal dalam format ISO (yyyy-MM-dd); NO_DATE ditulis sebagai field kosong.
+     */
+    void writeDate(int epochDay) throws IOException {
+        separator();
+        if (epochDay == TransactionStore.NO_DATE) {
+            return;
+        }
+        // Konversi epoch day ke tanggal sipil (algoritme "days from civil" terbalik).
+        long z = epochDay + 719468L;
+        long era = Math.floorDiv(z, 146097);
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long mp = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
+        int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        if (year < 0 || year > 9999) {
+            writeChars(LocalDate.ofEpochDay(epochDay).toString());
+            return;
+        }
+        putDigits((int) year, 4);
+        put((byte) '-');
+        putDigits(month, 2);
+        put((byte) '-');
+        putDigits(day, 2);
+    }
+
+    /**
+     * Menulis nominal dalam satuan sen sebagai desimal ("3000.0", "12.5", "12.05").
+     */
+    void writeCents(long cents) throws IOException {
+        separator();
+        if (cents < 0) {
+            put((byte) '-');
+            cents = -cents;
+        }
+        putLong(cents / 100);
+        put((byte) '.');
+        int fraction = (int) (cents % 100);
+        if (fraction % 10 == 0) {
+            putDigits(fraction / 10, 1);
+        } else {
+            putDigits(fraction, 2);
+        }
+    }
+
+    void endRecord() throws IOException {
+        put((byte) '\n');
+        firstField = true;
+    }
+
+    // =================================================================================
+    // Buffer
+    // =================================================================================
+
+    private void separator() throws IOException {
+        if (!firstField) {
+            put((byte) ',');
+        }
+        firstField = false;
+    }
+
+    private static boolean needsQuotes(String value) {
+        if (value.charAt(0) <= ' ' || value.charAt(value.length() - 1) <= ' ') {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeChars(String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                put((byte) c);
+            } else {
+                putChar(value, i);
+                if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    i++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Meng-encode karakter (atau pasangan surrogate) di posisi index ke UTF-8.
+     */
+    private void putChar(String value, int index) throws IOException {
+        char c = value.charAt(index);
+        if (c < 0x80) {
+            put((byte) c);
+        } else if (c < 0x800) {
+            put((byte) (0xC0 | (c >> 6)));
+            put((byte) (0x80 | (c & 0x3F)));
+        } else if (Character.isHighSurrogate(c) && index + 1 < value.length()
+                && Character.isLowSurrogate(value.charAt(index + 1))) {
+            int codePoint = Character.toCodePoint(c, value.charAt(index + 1));
+            put((byte) (0xF0 | (codePoint >> 18)));
+            put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+            put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+            put((byte) (0x80 | (codePoint & 0x3F)));
+        } else if (Character.isSurrogate(c)) {
+            put((byte) '?'); // Surrogate tanpa pasangan, sama seperti encoder UTF-8 JDK
+        } else {
+            put((byte) (0xE0 | (c >> 12)));
+            put((byte) (0x80 | ((c >> 6) & 0x3F)));
+            put((byte) (0x80 | (c & 0x3F)));
+        }
+    }
+
+    private void putLong(long value) throws IOException {
+        if (value < 0) {
+            put((byte) '-');
+            if (value == Long.MIN_VALUE) {
+                writeChars("9223372036854775808");
+                return;
+            }
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        ensureRoom(digits);
+        for (int i = count + digits - 1; i >= count; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        count += digits;
+    }
+
+    private void putDigits(int value, int width) throws IOException {
+        ensureRoom(width);
+        for (int i = count + width - 1; i >= count; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        count += width;
+    }
+
+    private void put(byte b) throws IOException {
+        if (count == buffer.length) {
+            flushBuffer();
+        }
+        buffer[count++] = b;
+    }
+
+    private void ensureRoom(int bytes) throws IOException {
+        if (count + bytes > buffer.length) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        wrapped.clear().limit(count);
+        while (wrapped.hasRemaining()) {
+            channel.write(wrapped);
+        }
+        count = 0;
+    }
+}
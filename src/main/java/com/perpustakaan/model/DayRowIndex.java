@@ -0,0 +1,89 @@
+package com.perpustakaan.model;
+
+import java.util.Arrays;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Nomor baris transaksi yang dikelompokkan per tanggal (epoch day), untuk query rentang
+ * tanggal seperti "semua peminjaman Maret sampai Mei". Seperti {@link DueDateIndex},
+ * setiap hari adalah satu kunci TreeMap; isinya array int nomor baris yang terurut.
+ * Menambah atau menghapus baris cukup mencari harinya (O(log d)) lalu menggeser
+ * baris di hari itu saja, dan query rentang membaca kunci yang relevan:
+ * O(log d + k).
+ *
+ * Transaksi baru hampir selalu bertanggal hari ini dengan nomor baris terbesar,
+ * sehingga cukup ditambahkan di ujung array harinya.
+ *
+ * Diperbarui oleh {@link TransactionStore} di bawah lock LibraryManager.
+ */
+final class DayRowIndex {
+
+    private final TreeMap<Integer, Bucket> rowsByDay = new TreeMap<>();
+
+    private static final class Bucket {
+        int[] rows = new int[4];
+        int size;
+    }
+
+    void add(int day, int row) {
+        if (day == TransactionStore.NO_DATE) {
+            return;
+        }
+        Bucket bucket = rowsByDay.computeIfAbsent(day, key -> new Bucket());
+        int position = bucket.size == 0 || bucket.rows[bucket.size - 1] < row
+                ? bucket.size
+                : Arrays.binarySearch(bucket.rows, 0, bucket.size, row);
+        if (position < 0) {
+            position = -position - 1;
+        } else if (position < bucket.size) {
+            return; // Sudah tercatat
+        }
+        if (bucket.size == bucket.rows.length) {
+            bucket.rows = Arrays.copyOf(bucket.rows, bucket.size * 2);
+        }
+        System.arraycopy(bucket.rows, position, bucket.rows, position + 1, bucket.size - position);
+        bucket.rows[position] = row;
+        bucket.size++;
+    }
+
+    void remove(int day, int row) {
+        if (day == TransactionStore.NO_DATE) {
+            return;
+        }
+        Bucket bucket = rowsByDay.get(day);
+        if (bucket == null) {
+            return;
+        }
+        int position = Arrays.binarySearch(bucket.rows, 0, bucket.size, row);
+        if (position < 0) {
+            return;
+        }
+        System.arraycopy(bucket.rows, position + 1, bucket.rows, position, bucket.size - position - 1);
+        if (--bucket.size == 0) {
+            rowsByDay.remove(day);
+        }
+    }
+
+    /**
+     * @return salinan nomor baris bertanggal di antara kedua hari (inklusif), urut menurut
+     *         tanggal lalu nomor baris.
+     */
+    int[] rowsBetween(int fromDay, int toDay) {
+        if (fromDay > toDay) {
+            return new int[0];
+        }
+        NavigableMap<Integer, Bucket> range = rowsByDay.subMap(fromDay, true, toDay, true);
+        int count = 0;
+        for (Bucket bucket : range.values()) {
+            count += bucket.size;
+        }
+        int[] rows = new int[count];
+        int i = 0;
+        for (Bucket bucket : range.values()) {
+            System.arraycopy(bucket.rows, 0, rows, i, bucket.size);
+            i += bucket.size;
+        }
+        return rows;
+    }
+}
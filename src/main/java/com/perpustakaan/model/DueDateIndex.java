@@ -0,0 +1,90 @@
+package com.perpustakaan.model;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Pinjaman terbuka yang dikelompokkan per tanggal jatuh tempo (epoch day) dalam
+ * TreeMap, sehingga pertanyaan "terlambat per tanggal X" dan "jatuh tempo dalam N
+ * hari" cukup membaca rentang kunci yang relevan.
+ *
+ * Baris berstatus "Borrowed" juga dicatat terpisah di pendingByDueDay:
+ * itulah kandidat yang harus diubah menjadi "Overdue" ketika tanggal jatuh tempo
+ * terlewati. Begitu statusnya berubah, baris keluar dari peta itu sehingga setiap
+ * baris hanya diproses sekali, tanpa memindai seluruh riwayat.
+ *
+ * Diperbarui oleh {@link TransactionStore} bersama {@link OpenLoanIndex}.
+ */
+final class DueDateIndex {
+
+    private final TreeMap<Integer, TreeSet<Integer>> openByDueDay = new TreeMap<>();
+    private final TreeMap<Integer, TreeSet<Integer>> pendingByDueDay = new TreeMap<>();
+
+    /**
+     * @param pending true jika baris belum berstatus "Overdue".
+     */
+    void add(int row, int dueDay, boolean pending) {
+        if (dueDay == TransactionStore.NO_DATE) {
+            return;
+        }
+        openByDueDay.computeIfAbsent(dueDay, day -> new TreeSet<>()).add(row);
+        if (pending) {
+            pendingByDueDay.computeIfAbsent(dueDay, day -> new TreeSet<>()).add(row);
+        }
+    }
+
+    void remove(int row, int dueDay) {
+        if (dueDay == TransactionStore.NO_DATE) {
+            return;
+        }
+        removeFrom(openByDueDay, row, dueDay);
+        removeFrom(pendingByDueDay, row, dueDay);
+    }
+
+    /**
+     * @return baris terbuka dengan jatuh tempo sebelum hari tersebut, urut menurut jatuh tempo.
+     */
+    int[] dueBefore(int day) {
+        return rowsOf(openByDueDay.headMap(day, false));
+    }
+
+    /**
+     * @return baris terbuka dengan jatuh tempo di antara kedua hari (inklusif), urut menurut jatuh tempo.
+     */
+    int[] dueBetween(int fromDay, int toDay) {
+        if (fromDay > toDay) {
+            return new int[0];
+        }
+        return rowsOf(openByDueDay.subMap(fromDay, true, toDay, true));
+    }
+
+    /**
+     * @return baris "Borrowed" yang jatuh temponya sebelum hari tersebut (perlu diubah menjadi "Overdue").
+     */
+    int[] pendingBefore(int day) {
+        return rowsOf(pendingByDueDay.headMap(day, false));
+    }
+
+    private static void removeFrom(TreeMap<Integer, TreeSet<Integer>> buckets, int row, int dueDay) {
+        TreeSet<Integer> bucket = buckets.get(dueDay);
+        if (bucket != null && bucket.remove(row) && bucket.isEmpty()) {
+            buckets.remove(dueDay);
+        }
+    }
+
+    private static int[] rowsOf(Map<Integer, TreeSet<Integer>> buckets) {
+        int count = 0;
+        for (TreeSet<Integer> bucket : buckets.values()) {
+            count += bucket.size();
+        }
+        int[] rows = new int[count];
+        int i = 0;
+        for (TreeSet<Integer> bucket : buckets.values()) {
+            for (int row : bucket) {
+                rows[i++] = row;
+            }
+        }
+        return rows;
+    }
+}
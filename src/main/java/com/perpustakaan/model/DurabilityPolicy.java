@@ -0,0 +1,66 @@
+package com.perpustakaan.model;
+
+/**
+ * Kebijakan kapan perubahan data dipaksa tersimpan permanen ke disk (fsync).
+ *
+ * Dengan kebijakan selain SYNCHRONOUS, perubahan dikumpulkan lalu ditulis oleh
+ * thread latar belakang dalam satu kali flush (group commit), sehingga thread
+ * pemanggil (misalnya JavaFX Application Thread) tidak menunggu disk.
+ */
+public final class DurabilityPolicy {
+
+    public enum Kind {
+        SYNCHRONOUS,      // Tulis + fsync di thread pemanggil pada setiap perubahan
+        EVERY_N_MILLIS,   // Tulis + fsync di latar belakang setiap N milidetik
+        EVERY_N_OPERATIONS // Tulis + fsync di latar belakang setiap N perubahan
+    }
+
+    private final Kind kind;
+    private final long amount;
+
+    private DurabilityPolicy(Kind kind, long amount) {
+        this.kind = kind;
+        this.amount = amount;
+    }
+
+    public static DurabilityPolicy synchronous() {
+        return new DurabilityPolicy(Kind.SYNCHRONOUS, 0);
+    }
+
+    public static DurabilityPolicy everyMillis(long millis) {
+        if (millis <= 0) {
+            throw new IllegalArgumentException("Interval flush harus lebih dari 0 ms.");
+        }
+        return new DurabilityPolicy(Kind.EVERY_N_MILLIS, millis);
+    }
+
+    public static DurabilityPolicy everyOperations(int operations) {
+        if (operations <= 0) {
+            throw new IllegalArgumentException("Jumlah operasi per flush harus lebih dari 0.");
+        }
+        return new DurabilityPolicy(Kind.EVERY_N_OPERATIONS, operations);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return interval milidetik (EVERY_N_MILLIS), jumlah operasi (EVERY_N_OPERATIONS), atau 0.
+     */
+    public long getAmount() {
+        return amount;
+    }
+
+    @Override
+    public String toString() {
+        switch (kind) {
+            case EVERY_N_MILLIS:
+                return "DurabilityPolicy[setiap " + amount + " ms]";
+            case EVERY_N_OPERATIONS:
+                return "DurabilityPolicy[setiap " + amount + " operasi]";
+            default:
+                return "DurabilityPolicy[sinkron]";
+        }
+    }
+}
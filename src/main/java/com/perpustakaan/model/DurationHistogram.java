@@ -0,0 +1,78 @@
+package com.perpustakaan.model;
+
+import java.util.Arrays;
+
+/**
+ * Sketsa kuantil untuk lama peminjaman. Lama pinjam selalu berupa bilangan hari yang
+ * kecil, sehingga cukup dihitung per hari (histogram): ukurannya sebanding dengan
+ * lama pinjam terpanjang, bukan jumlah transaksi, dan persentilnya tepat (bukan
+ * perkiraan seperti t-digest). Sketsa bisa digabung dengan menjumlahkan hitungan,
+ * dan hitungan bisa dikurangi lagi saat transaksi dikoreksi.
+ *
+ * Lama pinjam di atas {@link #MAX_DAYS} (biasanya tanggal yang salah ketik) masuk
+ * satu bucket overflow, sehingga satu baris rusak tidak membuat array sepanjang
+ * jutaan hari. Jumlahnya dilaporkan lewat {@link #overflowCount()}.
+ */
+final class DurationHistogram {
+
+    static final int MAX_DAYS = 3650;
+    private static final int OVERFLOW = MAX_DAYS + 1;
+
+    private long[] counts = new long[32]; // Indeks: lama pinjam dalam hari, OVERFLOW untuk sisanya
+    private long total;
+
+    /**
+     * @param days lama pinjam; nilai negatif (data rusak) dihitung sebagai 0 hari dan
+     *             nilai di atas MAX_DAYS masuk bucket overflow.
+     */
+    void add(int days, long delta) {
+        int index = Math.min(Math.max(days, 0), OVERFLOW);
+        if (index >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.min(Math.max(index + 1, counts.length * 2), OVERFLOW + 1));
+        }
+        counts[index] += delta;
+        total += delta;
+    }
+
+    void mergeFrom(DurationHistogram other) {
+        if (other.counts.length > counts.length) {
+            counts = Arrays.copyOf(counts, other.counts.length);
+        }
+        for (int i = 0; i < other.counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+    }
+
+    long count() {
+        return total;
+    }
+
+    /**
+     * @return jumlah pinjaman yang lebih lama dari MAX_DAYS hari.
+     */
+    long overflowCount() {
+        return counts.length > OVERFLOW ? counts[OVERFLOW] : 0;
+    }
+
+    /**
+     * @param fraction misalnya 0.9 untuk p90.
+     * @return lama pinjam terkecil yang mencakup sedikitnya bagian tersebut dari semua
+     *         pinjaman (nearest-rank), MAX_DAYS + 1 jika jatuh di bucket overflow,
+     *         atau -1 jika kosong.
+     */
+    int percentile(double fraction) {
+        if (total <= 0) {
+            return -1;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * total));
+        long seen = 0;
+        for (int days = 0; days < counts.length; days++) {
+            seen += counts[days];
+            if (seen >= rank) {
+                return days;
+            }
+        }
+        return counts.length - 1;
+    }
+}
@@ -0,0 +1,48 @@
+package com.perpustakaan.model;
+
+/**
+ * Satu entri top-K (buku atau anggota) dari {@link SpaceSaving}: jumlah peminjaman
+ * yang tercatat dan batas kesalahannya (jumlah sebenarnya paling sedikit
+ * count - maxError).
+ */
+public class HeavyHitter {
+    private final String key;
+    private final long count;
+    private final long maxError;
+    private String label;
+
+    HeavyHitter(String key, long count, long maxError) {
+        this.key = key;
+        this.count = count;
+        this.maxError = maxError;
+        this.label = key;
+    }
+
+    /**
+     * @return ISBN buku atau ID anggota.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @return judul buku atau nama anggota (atau kuncinya jika datanya sudah tidak ada).
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    void setLabel(String label) {
+        if (label != null) {
+            this.label = label;
+        }
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMaxError() {
+        return maxError;
+    }
+}
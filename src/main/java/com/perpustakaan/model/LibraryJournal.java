@@ -0,0 +1,269 @@
+package com.perpustakaan.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Jurnal append-only untuk perubahan data perpustakaan.
+ *
+ * Setiap perubahan disimpan sebagai satu record dengan format:
+ * [panjang payload (int)][tipe (byte)][payload][CRC32 (int)].
+ * Record berisi keadaan lengkap entitas (upsert) atau penghapusan, sehingga
+ * memutar ulang jurnal di atas snapshot CSV yang lebih baru tetap menghasilkan
+ * keadaan akhir yang sama. Record terakhir yang terpotong (misalnya karena aplikasi
+ * mati saat menulis) dikenali lewat CRC dan diabaikan.
+ */
+class LibraryJournal implements Closeable {
+
+    static final byte BOOK = 'B';
+    static final byte BOOK_DELETED = 'b';
+    static final byte MEMBER = 'M';
+    static final byte MEMBER_DELETED = 'm';
+    static final byte TRANSACTION = 'T';
+
+    /**
+     * Penerima record saat jurnal diputar ulang.
+     */
+    interface Handler {
+        void onBook(Book book);
+
+        void onBookDeleted(String isbn);
+
+        void onMember(Member member);
+
+        void onMemberDeleted(String memberId);
+
+        void onTransaction(Transaction transaction);
+    }
+
+    private final Path path;
+    private FileChannel channel;
+
+    LibraryJournal(Path path) {
+        this.path = path;
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    /**
+     * Membuka jurnal untuk ditambahi record baru. Bagian ekor yang rusak
+     * (setelah validEnd) dibuang terlebih dahulu.
+     *
+     * @param validEnd offset akhir record valid terakhir hasil replay().
+     */
+    void openForAppend(long validEnd) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (channel.size() > validEnd) {
+            System.err.println("Peringatan: Membuang " + (channel.size() - validEnd)
+                    + " byte ekor jurnal yang tidak lengkap di " + path);
+            channel.truncate(validEnd);
+        }
+        channel.position(channel.size());
+    }
+
+    /**
+     * Menambahkan beberapa record sekaligus dalam satu operasi tulis (group commit).
+     */
+    void append(List<byte[]> records) throws IOException {
+        ByteBuffer[] buffers = new ByteBuffer[records.size()];
+        long remaining = 0;
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = ByteBuffer.wrap(records.get(i));
+            remaining += buffers[i].remaining();
+        }
+        while (remaining > 0) {
+            remaining -= channel.write(buffers);
+        }
+    }
+
+    /**
+     * Memaksa isi jurnal tersimpan permanen ke disk (fsync).
+     */
+    void force() throws IOException {
+        channel.force(false);
+    }
+
+    /**
+     * Mengosongkan jurnal setelah seluruh isinya sudah tercakup oleh snapshot CSV.
+     */
+    void reset() throws IOException {
+        channel.truncate(0);
+        channel.position(0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * Memutar ulang seluruh record valid di jurnal secara berurutan.
+     *
+     * @return offset akhir record valid terakhir (0 jika file tidak ada).
+     */
+    long replay(Handler handler) throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        long fileSize = Files.size(path);
+        long validEnd = 0;
+        int applied = 0;
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(path))) {
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                // Panjang dari record yang robek/rusak: akhir log yang valid, bukan alokasi raksasa
+                if (length < 1 || length > fileSize - validEnd - 8) {
+                    break;
+                }
+                byte[] body = new byte[length];
+                int crc;
+                try {
+                    in.readFully(body);
+                    crc = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                CRC32 checksum = new CRC32();
+                checksum.update(body);
+                if ((int) checksum.getValue() != crc) {
+                    break;
+                }
+                apply(body, handler);
+                validEnd += 4 + length + 4;
+                applied++;
+            }
+        }
+        if (applied > 0) {
+            System.out.println(applied + " record jurnal diputar ulang dari " + path);
+        }
+        return validEnd;
+    }
+
+    private static void apply(byte[] body, Handler handler) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+        byte type = in.readByte();
+        switch (type) {
+            case BOOK:
+                handler.onBook(new Book(in.readUTF(), in.readUTF(), in.readUTF(), in.readInt()));
+                break;
+            case BOOK_DELETED:
+                handler.onBookDeleted(in.readUTF());
+                break;
+            case MEMBER:
+                handler.onMember(new Member(in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF()));
+                break;
+            case MEMBER_DELETED:
+                handler.onMemberDeleted(in.readUTF());
+                break;
+            case TRANSACTION: {
+                Transaction t = new Transaction(in.readUTF(), in.readUTF(), in.readUTF(),
+                        LocalDate.ofEpochDay(in.readInt()));
+                t.setDueDate(LocalDate.ofEpochDay(in.readInt()));
+                t.setActualReturnDate(in.readBoolean() ? LocalDate.ofEpochDay(in.readInt()) : null);
+                t.setStatus(in.readUTF());
+                t.setFine(in.readDouble());
+                handler.onTransaction(t);
+                break;
+            }
+            default:
+                System.err.println("Peringatan: Tipe record jurnal tidak dikenal: " + (char) type);
+        }
+    }
+
+    // =================================================================================
+    // Encoding record
+    // =================================================================================
+
+    static byte[] encodeBook(Book book) {
+        return encode(BOOK, out -> {
+            out.writeUTF(book.getIsbn());
+            out.writeUTF(book.getTitle());
+            out.writeUTF(book.getAuthor());
+            out.writeInt(book.getQuantity());
+        });
+    }
+
+    static byte[] encodeBookDeleted(String isbn) {
+        return encode(BOOK_DELETED, out -> out.writeUTF(isbn));
+    }
+
+    static byte[] encodeMember(Member member) {
+        return encode(MEMBER, out -> {
+            out.writeUTF(member.getId());
+            out.writeUTF(member.getFullName());
+            out.writeUTF(member.getMajor() != null ? member.getMajor() : "");
+            out.writeUTF(member.getEmail());
+            out.writeUTF(member.getPassword() != null ? member.getPassword() : "");
+        });
+    }
+
+    static byte[] encodeMemberDeleted(String memberId) {
+        return encode(MEMBER_DELETED, out -> out.writeUTF(memberId));
+    }
+
+    static byte[] encodeTransaction(Transaction t) {
+        return encode(TRANSACTION, out -> {
+            out.writeUTF(t.getTransactionId());
+            out.writeUTF(t.getMemberId());
+            out.writeUTF(t.getIsbn());
+            out.writeInt(TransactionStore.toDay(t.getBorrowDate()));
+            out.writeInt(TransactionStore.toDay(t.getDueDate()));
+            out.writeBoolean(t.getActualReturnDate() != null);
+            if (t.getActualReturnDate() != null) {
+                out.writeInt(TransactionStore.toDay(t.getActualReturnDate()));
+            }
+            out.writeUTF(t.getStatus());
+            out.writeDouble(t.getFine());
+        });
+    }
+
+    private interface PayloadWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private static byte[] encode(byte type, PayloadWriter writer) {
+        try {
+            ByteArrayOutputStream body = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(body);
+            out.writeByte(type);
+            writer.write(out);
+            out.flush();
+            byte[] bodyBytes = body.toByteArray();
+
+            CRC32 checksum = new CRC32();
+            checksum.update(bodyBytes);
+            ByteBuffer record = ByteBuffer.allocate(4 + bodyBytes.length + 4);
+            record.putInt(bodyBytes.length);
+            record.put(bodyBytes);
+            record.putInt((int) checksum.getValue());
+            return record.array();
+        } catch (IOException e) {
+            // ByteArrayOutputStream tidak pernah melempar IOException
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,37 +1,99 @@
 package com.perpustakaan.model;
 
-import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
-import java.util.stream.Collectors;
-import java.time.format.DateTimeParseException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 
 public class LibraryManager {
     private List<Book> books;
     private List<Member> members;
-    private List<Transaction> transactions;
+    private TransactionStore transactions; // Riwayat transaksi disimpan off-heap
+
+    // Indeks pencarian; selalu diperbarui bersama list books/members
+    private final Map<String, Book> booksByIsbn = new HashMap<>();
+    private final CaseInsensitiveIndex<Member> membersById = new CaseInsensitiveIndex<>(Member::getId);
+    private final CaseInsensitiveIndex<Member> membersByEmail = new CaseInsensitiveIndex<>(Member::getEmail);
+    private final BookSearchIndex bookSearch = new BookSearchIndex();
+    private final MemberTrigramIndex memberSearch = new MemberTrigramIndex();
 
     private static final String DATA_FOLDER = "data";
     private static final String BOOKS_FILE_PATH = DATA_FOLDER + "/books.csv";
     private static final String MEMBERS_FILE_PATH = DATA_FOLDER + "/members.csv";
     private static final String TRANSACTIONS_FILE_PATH = DATA_FOLDER + "/transactions.csv";
+    private static final String JOURNAL_FILE_PATH = DATA_FOLDER + "/journal.log";
+    private static final String SNAPSHOT_FILE_PATH = DATA_FOLDER + "/library.snap";
+
+    // Jumlah record jurnal sebelum dilakukan checkpoint otomatis (penulisan ulang CSV).
+    private static final int CHECKPOINT_EVERY_RECORDS = 5000;
+
+    // Penanda file CSV yang perlu ditulis ulang (mode CSV)
+    private static final int DIRTY_BOOKS = 1;
+    private static final int DIRTY_MEMBERS = 2;
+    private static final int DIRTY_TRANSACTIONS = 4;
+
+    private final PersistenceMode persistenceMode;
+    private final WriteBehindPersister<DataSnapshot> persister;
+    private final CsvWriter csvWriter = new CsvWriter(1 << 16); // Hanya dipakai oleh penulis batch
+    private LibraryJournal journal; // Hanya aktif pada mode JOURNAL
+    private int journalRecordsSinceCheckpoint;
+    private final CirculationLocks circulationLocks; // Hanya pada LockingMode.STRIPED
 
     public LibraryManager() {
+        this(PersistenceMode.CSV);
+    }
+
+    public LibraryManager(PersistenceMode persistenceMode) {
+        this(persistenceMode, DurabilityPolicy.synchronous());
+    }
+
+    /**
+     * @param persistenceMode  cara perubahan disimpan (CSV penuh atau jurnal).
+     * @param durabilityPolicy kapan perubahan ditulis dan di-fsync; selain
+     *                         {@link DurabilityPolicy#synchronous()} penulisan dilakukan
+     *                         oleh thread latar belakang.
+     */
+    public LibraryManager(PersistenceMode persistenceMode, DurabilityPolicy durabilityPolicy) {
+        this(persistenceMode, durabilityPolicy, LockingMode.GLOBAL);
+    }
+
+    /**
+     * @param lockingMode {@link LockingMode#STRIPED} agar peminjaman/pengembalian dari
+     *                    beberapa thread yang tidak berhubungan berjalan bersamaan.
+     */
+    public LibraryManager(PersistenceMode persistenceMode, DurabilityPolicy durabilityPolicy,
+            LockingMode lockingMode) {
+        this.persistenceMode = persistenceMode;
+        this.circulationLocks = lockingMode == LockingMode.STRIPED ? CirculationLocks.forAvailableProcessors() : null;
+        this.persister = new WriteBehindPersister<>(durabilityPolicy, this, new PersistenceFlusher());
         this.books = new ArrayList<>();
         this.members = new ArrayList<>();
-        this.transactions = new ArrayList<>();
+        this.transactions = new TransactionStore();
+        this.transactions.setRollupResolvers(memberId -> {
+            Member member = membersById.get(memberId);
+            return member == null ? null : member.getMajor();
+        }, isbn -> {
+            Book book = booksByIsbn.get(isbn);
+            return book == null ? null : book.getAuthor();
+        });
 
         try {
             Files.createDirectories(Paths.get(DATA_FOLDER));
@@ -39,9 +101,14 @@ public class LibraryManager {
             System.err.println("Gagal membuat direktori data: " + e.getMessage());
         }
 
-        loadBooks();
-        loadMembers();
-        loadTransactions();
+        if (!loadSnapshot()) {
+            loadBooks();
+            loadMembers();
+            loadTransactions();
+            // Tulis snapshot agar start berikutnya tidak perlu mem-parsing CSV lagi.
+            writeSnapshot(this.books, this.members, this.transactions.asList());
+        }
+        recoverJournal();
     }
 
     // =================================================================================
@@ -49,66 +116,90 @@ public class LibraryManager {
     // =================================================================================
     // ... (metode addBook, findBookByIsbn, getAllBooks, updateBook, deleteBook, loadBooks, saveBooks tetap sama seperti yang Anda berikan) ...
     public boolean addBook(Book book) {
-        if (findBookByIsbn(book.getIsbn()) != null) {
-            System.out.println("Error: Buku dengan ISBN " + book.getIsbn() + " sudah ada.");
-            return false;
-        }
-        this.books.add(book);
-        saveBooks();
-        return true;
+        return changeCatalog(() -> {
+            if (findBookByIsbn(book.getIsbn()) != null) {
+                System.out.println("Error: Buku dengan ISBN " + book.getIsbn() + " sudah ada.");
+                return false;
+            }
+            addBookToList(book);
+            queueBook(book);
+            return true;
+        });
     }
 
-    public Book findBookByIsbn(String isbn) {
-        for (Book book : this.books) {
-            if (book.getIsbn().equals(isbn)) {
-                return book;
-            }
-        }
-        return null;
+    public synchronized Book findBookByIsbn(String isbn) {
+        return isbn == null ? null : booksByIsbn.get(isbn);
     }
 
-    public List<Book> getAllBooks() {
+    public synchronized List<Book> getAllBooks() {
         return new ArrayList<>(this.books);
     }
 
+    /**
+     * Mencari buku lewat indeks kata judul, pengarang dan ISBN. Setiap kata di query
+     * cocok sebagai awalan kata (tanpa membedakan huruf besar/kecil maupun diakritik).
+     *
+     * @return buku yang cocok; semua buku jika query kosong.
+     */
+    public synchronized List<Book> searchBooks(String query) {
+        List<Book> result = bookSearch.search(query);
+        return result != null ? result : getAllBooks();
+    }
+
+    /**
+     * Seperti {@link #searchBooks(String)}, tetapi hanya limit hasil terbaik: relevansi
+     * teks (kata yang sama persis dan kata judul lebih tinggi) dikalikan popularitas
+     * buku, yaitu jumlah peminjaman yang meluruh dengan waktu paruh
+     * {@value BorrowTrends#POPULARITY_HALF_LIFE_DAYS} hari.
+     *
+     * @return buku urut dari skor tertinggi; buku terpopuler jika query kosong.
+     */
+    public synchronized List<Book> searchBooksRanked(String query, int limit) {
+        int today = TransactionStore.toDay(LocalDate.now());
+        BorrowTrends trends = transactions.trends();
+        return bookSearch.searchRanked(query, limit, book -> trends.popularity(book.getIsbn(), today));
+    }
+
     public boolean updateBook(Book updatedBook) {
-        Book existingBook = findBookByIsbn(updatedBook.getIsbn());
-        if (existingBook != null) {
-            existingBook.setTitle(updatedBook.getTitle());
-            existingBook.setAuthor(updatedBook.getAuthor());
-            existingBook.setQuantity(updatedBook.getQuantity());
-            saveBooks();
-            return true;
-        }
-        System.out.println("Error: Buku dengan ISBN " + updatedBook.getIsbn() + " tidak ditemukan untuk diperbarui.");
-        return false;
+        return changeCatalog(() -> {
+            Book existingBook = findBookByIsbn(updatedBook.getIsbn());
+            if (existingBook != null) {
+                existingBook.setTitle(updatedBook.getTitle());
+                existingBook.setAuthor(updatedBook.getAuthor());
+                existingBook.setQuantity(updatedBook.getQuantity());
+                bookSearch.reindex(existingBook);
+                transactions.reattributeIsbn(existingBook.getIsbn());
+                queueBook(existingBook);
+                return true;
+            }
+            System.out.println("Error: Buku dengan ISBN " + updatedBook.getIsbn() + " tidak ditemukan untuk diperbarui.");
+            return false;
+        });
     }
 
     public boolean deleteBook(String isbn) {
-        Book bookToRemove = findBookByIsbn(isbn);
-        if (bookToRemove != null) {
-            this.books.remove(bookToRemove);
-            saveBooks();
-            return true;
-        }
-        System.out.println("Error: Buku dengan ISBN " + isbn + " tidak ditemukan untuk dihapus.");
-        return false;
+        return changeCatalog(() -> {
+            Book bookToRemove = findBookByIsbn(isbn);
+            if (bookToRemove != null) {
+                removeBookFromList(bookToRemove);
+                queueBookDeleted(bookToRemove.getIsbn());
+                return true;
+            }
+            System.out.println("Error: Buku dengan ISBN " + isbn + " tidak ditemukan untuk dihapus.");
+            return false;
+        });
     }
 
     private void loadBooks() {
-        try (BufferedReader br = new BufferedReader(new FileReader(BOOKS_FILE_PATH))) {
-            String line;
-            br.readLine(); 
-            while ((line = br.readLine()) != null) {
-                if (line.trim().isEmpty())
-                    continue;
-                String[] values = line.split(",");
-                if (values.length >= 4) {
-                    String isbn = values[0].trim();
-                    String title = values[1].trim();
-                    String author = values[2].trim();
-                    int quantity = Integer.parseInt(values[3].trim());
-                    this.books.add(new Book(isbn, title, author, quantity));
+        try (CsvReader csv = new CsvReader(new FileInputStream(BOOKS_FILE_PATH))) {
+            csv.nextRecord(); // Header
+            while (csv.nextRecord()) {
+                if (csv.getFieldCount() >= 4) {
+                    String isbn = csv.getString(0);
+                    String title = csv.getString(1);
+                    String author = csv.getString(2);
+                    int quantity = csv.getInt(3);
+                    addBookToList(new Book(isbn, title, author, quantity));
                 }
             }
         } catch (FileNotFoundException e) {
@@ -131,20 +222,25 @@ public class LibraryManager {
         }
     }
 
-    private void saveBooks() {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(BOOKS_FILE_PATH))) {
-            bw.write("ISBN,Title,Author,Quantity\n");
-            for (Book book : this.books) {
-                String line = String.join(",",
-                        book.getIsbn(),
-                        book.getTitle(),
-                        book.getAuthor(),
-                        String.valueOf(book.getQuantity()));
-                bw.write(line);
-                bw.newLine();
+    private boolean saveBooks(List<Book> bookList) {
+        try {
+            try (FileChannel channel = openForRewrite(BOOKS_FILE_PATH)) {
+                csvWriter.begin(channel);
+                csvWriter.writeLine("ISBN,Title,Author,Quantity");
+                for (Book book : bookList) {
+                    csvWriter.writeString(book.getIsbn());
+                    csvWriter.writeString(book.getTitle());
+                    csvWriter.writeString(book.getAuthor());
+                    csvWriter.writeInt(book.getQuantity());
+                    csvWriter.endRecord();
+                }
+                csvWriter.finish();
             }
+            commitRewrite(BOOKS_FILE_PATH);
+            return true;
         } catch (IOException e) {
             System.err.println("Error menyimpan ke file " + BOOKS_FILE_PATH + ": " + e.getMessage());
+            return false;
         }
     }
 
@@ -153,105 +249,113 @@ public class LibraryManager {
     // =================================================================================
 
     public boolean addMember(Member member) {
-        if (findMemberById(member.getId()) != null) {
-            System.out.println("Error: Anggota dengan ID " + member.getId() + " sudah terdaftar.");
-            return false;
-        }
-        if (findMemberByEmail(member.getEmail()) != null) {
-            System.out.println("Error: Anggota dengan Email " + member.getEmail() + " sudah terdaftar.");
-            return false;
-        }
-        this.members.add(member);
-        saveMembers();
-        System.out.println("Anggota " + member.getFullName() + " berhasil ditambahkan.");
-        return true;
+        return changeCatalog(() -> {
+            if (findMemberById(member.getId()) != null) {
+                System.out.println("Error: Anggota dengan ID " + member.getId() + " sudah terdaftar.");
+                return false;
+            }
+            if (findMemberByEmail(member.getEmail()) != null) {
+                System.out.println("Error: Anggota dengan Email " + member.getEmail() + " sudah terdaftar.");
+                return false;
+            }
+            addMemberToList(member);
+            queueMember(member);
+            System.out.println("Anggota " + member.getFullName() + " berhasil ditambahkan.");
+            return true;
+        });
     }
 
-    public Member findMemberById(String memberId) {
-        for (Member member : this.members) {
-            if (member.getId().equalsIgnoreCase(memberId)) {
-                return member;
-            }
-        }
-        return null;
+    public synchronized Member findMemberById(String memberId) {
+        return membersById.get(memberId);
     }
 
-    public Member findMemberByEmail(String email) {
-        for (Member member : this.members) {
-            if (member.getEmail().equalsIgnoreCase(email)) {
-                return member;
-            }
-        }
-        return null;
+    public synchronized Member findMemberByEmail(String email) {
+        return membersByEmail.get(email);
     }
 
-    public List<Member> getAllMembers() {
+    public synchronized List<Member> getAllMembers() {
         return new ArrayList<>(this.members);
     }
 
+    /**
+     * Mencari anggota berdasarkan ID, nama, jurusan atau email dengan toleransi salah
+     * ketik (indeks trigram), urut dari yang paling mirip.
+     *
+     * @param limit jumlah maksimum hasil.
+     * @return anggota yang cocok; semua anggota jika query kosong.
+     */
+    public synchronized List<Member> searchMembers(String query, int limit) {
+        List<Member> result = memberSearch.search(query, limit);
+        return result != null ? result : getAllMembers();
+    }
+
     public boolean updateMember(Member updatedMember) {
-        Member existingMember = findMemberById(updatedMember.getId());
-        if (existingMember != null) {
-            // Validasi duplikasi email jika email diubah
-            if (!existingMember.getEmail().equalsIgnoreCase(updatedMember.getEmail()) &&
-                    findMemberByEmail(updatedMember.getEmail()) != null) {
-                System.out.println("Error: Email " + updatedMember.getEmail() + " sudah digunakan oleh anggota lain.");
-                return false;
-            }
+        return changeCatalog(() -> {
+            Member existingMember = findMemberById(updatedMember.getId());
+            if (existingMember != null) {
+                // Validasi duplikasi email jika email diubah
+                if (!existingMember.getEmail().equalsIgnoreCase(updatedMember.getEmail()) &&
+                        findMemberByEmail(updatedMember.getEmail()) != null) {
+                    System.out.println("Error: Email " + updatedMember.getEmail() + " sudah digunakan oleh anggota lain.");
+                    return false;
+                }
             
-            // Perbarui atribut-atribut
-            existingMember.setFullName(updatedMember.getFullName());
-            existingMember.setMajor(updatedMember.getMajor());
-            existingMember.setEmail(updatedMember.getEmail());
+                // Perbarui atribut-atribut
+                existingMember.setFullName(updatedMember.getFullName());
+                existingMember.setMajor(updatedMember.getMajor());
+                existingMember.setEmail(updatedMember.getEmail());
+                membersByEmail.reindex(existingMember); // Email bisa juga sudah diubah langsung oleh form
             
-            // --- PERBAIKAN/PENEGASAN UNTUK UPDATE PASSWORD ---
-            // Jika objek updatedMember memiliki password yang valid (misalnya, tidak null atau kosong jika itu aturannya)
-            // dan berbeda dari password lama, atau jika Anda selalu ingin mengupdate password berdasarkan updatedMember.
-            // Untuk kasus tes kita, updatedMember akan membawa password baru.
-            if (updatedMember.getPassword() != null && !updatedMember.getPassword().isEmpty()) {
-                 existingMember.setPassword(updatedMember.getPassword());
-            }
-            // --- AKHIR PERBAIKAN ---
+                // --- PERBAIKAN/PENEGASAN UNTUK UPDATE PASSWORD ---
+                // Jika objek updatedMember memiliki password yang valid (misalnya, tidak null atau kosong jika itu aturannya)
+                // dan berbeda dari password lama, atau jika Anda selalu ingin mengupdate password berdasarkan updatedMember.
+                // Untuk kasus tes kita, updatedMember akan membawa password baru.
+                if (updatedMember.getPassword() != null && !updatedMember.getPassword().isEmpty()) {
+                     existingMember.setPassword(updatedMember.getPassword());
+                }
+                // --- AKHIR PERBAIKAN ---
             
-            saveMembers();
-            System.out.println("Data anggota " + existingMember.getId() + " berhasil diperbarui.");
-            return true;
-        }
-        System.out.println("Error: Anggota dengan ID " + updatedMember.getId() + " tidak ditemukan untuk diperbarui.");
-        return false;
+                memberSearch.reindex(existingMember);
+                transactions.reattributeMember(existingMember.getId());
+                queueMember(existingMember);
+                System.out.println("Data anggota " + existingMember.getId() + " berhasil diperbarui.");
+                return true;
+            }
+            System.out.println("Error: Anggota dengan ID " + updatedMember.getId() + " tidak ditemukan untuk diperbarui.");
+            return false;
+        });
     }
 
     public boolean deleteMember(String memberId) {
-        Member memberToRemove = findMemberById(memberId);
-        if (memberToRemove != null) {
-            this.members.remove(memberToRemove);
-            saveMembers();
-            System.out.println("Anggota dengan ID " + memberId + " berhasil dihapus.");
-            return true;
-        }
-        System.out.println("Error: Anggota dengan ID " + memberId + " tidak ditemukan untuk dihapus.");
-        return false;
+        return changeCatalog(() -> {
+            Member memberToRemove = findMemberById(memberId);
+            if (memberToRemove != null) {
+                removeMemberFromList(memberToRemove);
+                queueMemberDeleted(memberToRemove.getId());
+                System.out.println("Anggota dengan ID " + memberId + " berhasil dihapus.");
+                return true;
+            }
+            System.out.println("Error: Anggota dengan ID " + memberId + " tidak ditemukan untuk dihapus.");
+            return false;
+        });
     }
 
     private void loadMembers() {
         String expectedHeader = "ID,NamaLengkap,Jurusan,Email,Password";
-        try (BufferedReader br = new BufferedReader(new FileReader(MEMBERS_FILE_PATH))) {
-            String line;
-            String header = br.readLine();
-            if (header == null || !header.trim().equalsIgnoreCase(expectedHeader)) {
-                if (header != null && !header.trim().isEmpty()) {
+        try (CsvReader csv = new CsvReader(new FileInputStream(MEMBERS_FILE_PATH))) {
+            boolean hasHeader = csv.nextRecord();
+            if (!hasHeader || !csv.getLine().trim().equalsIgnoreCase(expectedHeader)) {
+                if (hasHeader) {
                     System.err.println("Peringatan: Header file " + MEMBERS_FILE_PATH
                             + " tidak sesuai. Menggunakan baris pertama sebagai data jika memungkinkan.");
-                    processMemberLine(header);
+                    processMemberRecord(csv);
                 } else {
                     System.out.println("File " + MEMBERS_FILE_PATH + " kosong atau header tidak ditemukan.");
                 }
             }
 
-            while ((line = br.readLine()) != null) {
-                if (line.trim().isEmpty())
-                    continue;
-                processMemberLine(line);
+            while (csv.nextRecord()) {
+                processMemberRecord(csv);
             }
         } catch (FileNotFoundException e) {
             System.out.println("File " + MEMBERS_FILE_PATH + " tidak ditemukan. Membuat file baru dengan header: "
@@ -272,36 +376,40 @@ public class LibraryManager {
         }
     }
 
-    private void processMemberLine(String line) {
-        String[] values = line.split(",");
-        if (values.length >= 5) {
-            String id = values[0].trim();
-            String fullName = values[1].trim();
-            String major = values[2].trim();
-            String email = values[3].trim();
-            String password = values[4].trim();
-            this.members.add(new Member(id, fullName, major, email, password));
+    private void processMemberRecord(CsvReader csv) {
+        if (csv.getFieldCount() >= 5) {
+            String id = csv.getString(0);
+            String fullName = csv.getString(1);
+            String major = csv.getString(2);
+            String email = csv.getString(3);
+            String password = csv.getString(4);
+            addMemberToList(new Member(id, fullName, major, email, password));
         } else {
-            System.err.println("Baris data anggota tidak lengkap di members.csv (kurang dari 5 kolom): " + line);
+            System.err.println("Baris data anggota tidak lengkap di members.csv (kurang dari 5 kolom): "
+                    + csv.getLine());
         }
     }
 
-    private void saveMembers() {
-        String header = "ID,NamaLengkap,Jurusan,Email,Password";
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(MEMBERS_FILE_PATH))) {
-            bw.write(header + "\n");
-            for (Member member : this.members) {
-                String line = String.join(",",
-                        member.getId(),
-                        member.getFullName(),
-                        member.getMajor() != null ? member.getMajor() : "",
-                        member.getEmail(),
-                        member.getPassword());
-                bw.write(line);
-                bw.newLine();
+    private boolean saveMembers(List<Member> memberList) {
+        try {
+            try (FileChannel channel = openForRewrite(MEMBERS_FILE_PATH)) {
+                csvWriter.begin(channel);
+                csvWriter.writeLine("ID,NamaLengkap,Jurusan,Email,Password");
+                for (Member member : memberList) {
+                    csvWriter.writeString(member.getId());
+                    csvWriter.writeString(member.getFullName());
+                    csvWriter.writeString(member.getMajor() != null ? member.getMajor() : "");
+                    csvWriter.writeString(member.getEmail());
+                    csvWriter.writeString(member.getPassword());
+                    csvWriter.endRecord();
+                }
+                csvWriter.finish();
             }
+            commitRewrite(MEMBERS_FILE_PATH);
+            return true;
         } catch (IOException e) {
             System.err.println("Error menyimpan ke file " + MEMBERS_FILE_PATH + ": " + e.getMessage());
+            return false;
         }
     }
 
@@ -310,66 +418,158 @@ public class LibraryManager {
     // =================================================================================
     // ... (metode borrowBook, returnBook, findTransactionById, getAllTransactions, getBorrowedBooksReport, loadTransactions, saveTransactions tetap sama seperti yang Anda berikan) ...
     public boolean borrowBook(String memberId, String isbn) {
-        Member member = findMemberById(memberId);
+        boolean borrowed;
+        if (circulationLocks == null) {
+            synchronized (this) {
+                borrowed = performBorrow(memberId, isbn);
+            }
+        } else {
+            circulationLocks.lock(memberId, isbn);
+            try {
+                borrowed = performBorrow(memberId, isbn);
+            } finally {
+                circulationLocks.unlock(memberId, isbn);
+            }
+        }
+        if (borrowed) {
+            persister.commitEnqueued(); // Di luar semua lock: meja lain tidak menunggu disk
+        }
+        return borrowed;
+    }
+
+    /**
+     * Dipanggil di bawah lock global (mode GLOBAL) atau lock baca katalog dan stripe
+     * anggota dan buku (mode STRIPED). Pada mode STRIPED stok hanya diubah oleh pemegang
+     * stripe buku dan pinjaman pasangan yang sama hanya dicatat oleh pemegang stripe
+     * anggota, sehingga pemeriksaan di sini tetap berlaku sampai baris ditambahkan. Hanya
+     * penambahan baris, perubahan stok dan antrean record yang memakai lock global.
+     * Penyimpanan dijalankan pemanggil setelah semua lock dilepas.
+     */
+    private boolean performBorrow(String memberId, String isbn) {
+        Member member = memberId == null ? null : membersById.get(memberId);
         if (member == null) {
             System.out.println("Error Peminjaman: Anggota dengan ID " + memberId + " tidak ditemukan.");
             return false;
         }
 
-        Book book = findBookByIsbn(isbn);
+        Book book = isbn == null ? null : booksByIsbn.get(isbn);
         if (book == null) {
             System.out.println("Error Peminjaman: Buku dengan ISBN " + isbn + " tidak ditemukan.");
             return false;
         }
 
-        if (book.getQuantity() <= 0) {
+        int quantity = book.getQuantity();
+        if (quantity <= 0) {
             System.out.println("Error Peminjaman: Stok buku \"" + book.getTitle() + "\" habis.");
             return false;
         }
 
-        for (Transaction t : this.transactions) {
-            if (t.getMemberId().equals(memberId) &&
-                    t.getIsbn().equals(isbn) &&
-                    ("Borrowed".equalsIgnoreCase(t.getStatus()) || "Overdue".equalsIgnoreCase(t.getStatus()))) {
-                System.out.println("Error Peminjaman: Anggota " + memberId + " sudah meminjam buku \"" + book.getTitle()
-                        + "\" dan belum dikembalikan.");
-                return false;
-            }
+        if (transactions.hasOpenLoan(memberId, isbn)) {
+            System.out.println("Error Peminjaman: Anggota " + memberId + " sudah meminjam buku \"" + book.getTitle()
+                    + "\" dan belum dikembalikan.");
+            return false;
         }
-        String transactionId = "T-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        // ThreadLocalRandom, bukan UUID.randomUUID(): SecureRandom bersama adalah lock tersembunyi.
+        String transactionId = String.format("T-%08X", ThreadLocalRandom.current().nextInt());
         Transaction newTransaction = new Transaction(transactionId, memberId, isbn, LocalDate.now());
-        this.transactions.add(newTransaction);
-        book.setQuantity(book.getQuantity() - 1);
-        saveTransactions();
-        saveBooks();
+        // Record jurnal disiapkan sebelum lock global: baris baru belum terlihat thread lain
+        byte[] transactionRecord = journal == null ? null : LibraryJournal.encodeTransaction(newTransaction);
+        byte[] bookRecord = bookRecord(book, quantity - 1);
+        synchronized (this) {
+            transactions.add(newTransaction);
+            // Stok ditulis bersama baris agar salinan untuk CSV tidak melihat salah satunya saja
+            book.setQuantity(quantity - 1);
+            queueJournalRecord(transactionRecord, DIRTY_TRANSACTIONS);
+            queueJournalRecord(bookRecord, DIRTY_BOOKS);
+        }
         System.out.println("Peminjaman berhasil: " + member.getFullName() + " meminjam \"" + book.getTitle()
                 + "\". ID Transaksi: " + transactionId);
         return true;
     }
 
     public boolean returnBook(String transactionId) {
-        Transaction transaction = findTransactionById(transactionId);
-        if (transaction == null) {
-            System.out.println("Error Pengembalian: Transaksi dengan ID " + transactionId + " tidak ditemukan.");
-            return false;
+        if (circulationLocks == null) {
+            Boolean returned;
+            synchronized (this) {
+                returned = performReturn(transactionId, null, null);
+            }
+            return commitIfChanged(returned);
         }
-        if ("Returned".equalsIgnoreCase(transaction.getStatus())) {
-            System.out.println("Info: Buku untuk transaksi ID " + transactionId + " sudah dikembalikan sebelumnya.");
-            return false;
+        while (true) {
+            String memberId;
+            String isbn;
+            synchronized (this) {
+                Transaction transaction = findTransactionById(transactionId);
+                if (transaction == null) {
+                    System.out.println("Error Pengembalian: Transaksi dengan ID " + transactionId + " tidak ditemukan.");
+                    return false;
+                }
+                memberId = transaction.getMemberId();
+                isbn = transaction.getIsbn();
+            }
+            Boolean returned;
+            circulationLocks.lock(memberId, isbn);
+            try {
+                returned = performReturn(transactionId, memberId, isbn);
+            } finally {
+                circulationLocks.unlock(memberId, isbn);
+            }
+            if (returned != null) {
+                return commitIfChanged(returned);
+            }
+            // Anggota/ISBN transaksi diubah sebelum stripe didapat: ulangi dengan stripe yang baru
         }
-        Book book = findBookByIsbn(transaction.getIsbn());
-        if (book != null) {
-            book.setQuantity(book.getQuantity() + 1);
-        } else {
-            System.err.println("Peringatan: Buku dengan ISBN " + transaction.getIsbn() + " yang terkait transaksi "
-                    + transactionId + " tidak ditemukan di katalog. Kuantitas tidak diperbarui.");
+    }
+
+    private boolean commitIfChanged(boolean changed) {
+        if (changed) {
+            persister.commitEnqueued();
         }
-        transaction.setActualReturnDate(LocalDate.now());
-        transaction.setStatus("Returned");
-        double fine = transaction.calculateFine();
-        saveTransactions();
-        if (book != null) {
-            saveBooks();
+        return changed;
+    }
+
+    /**
+     * Pasangan {@link #performBorrow}. Pada mode STRIPED lockedMemberId/lockedIsbn adalah
+     * kunci stripe yang sedang dipegang; buku dicari di katalog di bawah lock baca
+     * katalog, dan lock global hanya dipakai untuk memperbarui baris, stok dan antrean.
+     *
+     * @return null jika anggota/ISBN transaksi tidak lagi sesuai dengan stripe tersebut.
+     */
+    private Boolean performReturn(String transactionId, String lockedMemberId, String lockedIsbn) {
+        Book book = lockedIsbn == null ? null : booksByIsbn.get(lockedIsbn);
+        byte[] bookRecord = book == null ? null : bookRecord(book, book.getQuantity() + 1);
+        double fine;
+        synchronized (this) {
+            Transaction transaction = findTransactionById(transactionId);
+            if (transaction == null) {
+                System.out.println("Error Pengembalian: Transaksi dengan ID " + transactionId + " tidak ditemukan.");
+                return false;
+            }
+            if (lockedMemberId != null && (!lockedMemberId.equals(transaction.getMemberId())
+                    || !lockedIsbn.equals(transaction.getIsbn()))) {
+                return null;
+            }
+            if ("Returned".equalsIgnoreCase(transaction.getStatus())) {
+                System.out.println("Info: Buku untuk transaksi ID " + transactionId + " sudah dikembalikan sebelumnya.");
+                return false;
+            }
+            if (lockedIsbn == null) {
+                book = findBookByIsbn(transaction.getIsbn());
+                bookRecord = book == null ? null : bookRecord(book, book.getQuantity() + 1);
+            }
+            if (book != null) {
+                book.setQuantity(book.getQuantity() + 1);
+            } else {
+                System.err.println("Peringatan: Buku dengan ISBN " + transaction.getIsbn() + " yang terkait transaksi "
+                        + transactionId + " tidak ditemukan di katalog. Kuantitas tidak diperbarui.");
+            }
+            transaction.setActualReturnDate(LocalDate.now());
+            transaction.setStatus("Returned");
+            fine = transaction.calculateFine();
+            queueTransaction(transaction);
+            if (book != null) {
+                queueJournalRecord(bookRecord, DIRTY_BOOKS);
+            }
         }
         System.out.println("Pengembalian buku untuk transaksi ID " + transactionId + " berhasil.");
         if (fine > 0) {
@@ -378,80 +578,113 @@ public class LibraryManager {
         return true;
     }
 
-    public Transaction findTransactionById(String transactionId) {
-        for (Transaction transaction : this.transactions) {
-            if (transaction.getTransactionId().equalsIgnoreCase(transactionId)) {
-                return transaction;
-            }
-        }
-        return null;
+    public synchronized Transaction findTransactionById(String transactionId) {
+        int row = transactions.findRow(transactionId);
+        return row < 0 ? null : transactions.view(row);
     }
 
-    public List<Transaction> getAllTransactions() {
-        return new ArrayList<>(this.transactions);
+    public synchronized List<Transaction> getAllTransactions() {
+        return new ArrayList<>(this.transactions.asList());
     }
 
-    public List<Transaction> getBorrowedBooksReport() {
-        return this.transactions.stream()
-                .filter(t -> "Borrowed".equalsIgnoreCase(t.getStatus()) || "Overdue".equalsIgnoreCase(t.getStatus()))
-                .collect(Collectors.toList());
+    /**
+     * @return semua pinjaman yang belum dikembalikan. Status dibaca apa adanya; panggil
+     *         {@link #updateOverdueStatuses(LocalDate)} lebih dulu agar pinjaman yang
+     *         terlambat sudah berstatus "Overdue".
+     */
+    public synchronized List<Transaction> getBorrowedBooksReport() {
+        return transactions.views(transactions.openRows());
     }
 
-    private void loadTransactions() {
-        try (BufferedReader br = new BufferedReader(new FileReader(TRANSACTIONS_FILE_PATH))) {
-            String line;
-            String header = br.readLine(); 
-            if (header == null || !header.trim()
-                    .equalsIgnoreCase("TransactionID,MemberID,ISBN,BorrowDate,DueDate,ActualReturnDate,Status,Fine")) {
-                if (header != null && !header.trim().isEmpty()) { 
-                    System.err.println("Peringatan: Header file " + TRANSACTIONS_FILE_PATH
-                            + " tidak sesuai harapan. Konten aktual: " + header);
-                }
-            }
+    /**
+     * @return pinjaman yang belum dikembalikan dan jatuh temponya sudah lewat pada
+     *         tanggal asOf, urut dari jatuh tempo paling lama.
+     */
+    public synchronized List<Transaction> getOverdue(LocalDate asOf) {
+        return transactions.views(transactions.openRowsDueBefore(TransactionStore.toBoundDay(asOf)));
+    }
 
-            while ((line = br.readLine()) != null) {
-                if (line.trim().isEmpty())
-                    continue;
-                String[] values = line.split(",");
-                if (values.length >= 8) {
-                    try {
-                        String id = values[0].trim();
-                        String memberId = values[1].trim();
-                        String isbn = values[2].trim();
-                        LocalDate borrowDate = LocalDate.parse(values[3].trim());
-                        LocalDate dueDate = LocalDate.parse(values[4].trim());
-                        LocalDate actualReturnDate = (values[5].trim().isEmpty()
-                                || "null".equalsIgnoreCase(values[5].trim())) ? null
-                                        : LocalDate.parse(values[5].trim());
-                        String status = values[6].trim();
-                        double fine = Double.parseDouble(values[7].trim());
-
-                        Transaction t = new Transaction(id, memberId, isbn, borrowDate);
-                        t.setDueDate(dueDate);
-                        t.setActualReturnDate(actualReturnDate);
-                        t.setStatus(status);
-                        t.setFine(fine);
-                        this.transactions.add(t);
-
-                    } catch (DateTimeParseException e) {
-                        System.err.println("Error parsing tanggal di transactions.csv pada baris: " + line + ". Error: "
-                                + e.getMessage());
-                    } catch (NumberFormatException e) {
-                        System.err.println("Error parsing angka (denda) di transactions.csv pada baris: " + line
-                                + ". Error: " + e.getMessage());
-                    }
-                } else {
-                    System.err.println("Baris data transaksi tidak lengkap di transactions.csv: " + line);
-                }
+    /**
+     * @return pinjaman yang belum dikembalikan dan jatuh tempo antara hari ini dan
+     *         days hari ke depan (inklusif), urut menurut jatuh tempo.
+     */
+    public synchronized List<Transaction> getDueWithin(int days) {
+        int today = TransactionStore.toDay(LocalDate.now());
+        int lastDay = (int) Math.min(Integer.MAX_VALUE, (long) today + Math.max(days, 0));
+        return transactions.views(transactions.openRowsDueBetween(today, lastDay));
+    }
+
+    /**
+     * Transaksi dengan tanggal pinjam di antara kedua tanggal (inklusif), urut menurut
+     * tanggal pinjam. Rentang dicari di indeks tanggal, bukan dengan memindai riwayat;
+     * objek transaksi baru dibuat saat elemen list dibaca.
+     *
+     * @return list read-only.
+     */
+    public synchronized List<Transaction> getTransactionsBorrowedBetween(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            return Collections.emptyList();
+        }
+        return transactions.lazyViews(transactions.rowsBorrowedBetween(
+                TransactionStore.toBoundDay(from), TransactionStore.toBoundDay(to)));
+    }
+
+    /**
+     * Transaksi berstatus "Returned" dengan tanggal kembali di antara kedua tanggal
+     * (inklusif), urut menurut tanggal kembali.
+     *
+     * @return list read-only.
+     */
+    public synchronized List<Transaction> getTransactionsReturnedBetween(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            return Collections.emptyList();
+        }
+        return transactions.lazyViews(transactions.rowsReturnedBetween(
+                TransactionStore.toBoundDay(from), TransactionStore.toBoundDay(to)));
+    }
+
+    /**
+     * Mengubah status pinjaman "Borrowed" yang jatuh temponya sudah lewat pada
+     * tanggal asOf menjadi "Overdue". Hanya baris yang belum diubah yang dibaca
+     * (lewat indeks jatuh tempo), sehingga pemanggilan berulang di hari yang sama
+     * hampir tanpa biaya.
+     *
+     * Query laporan dan jatuh tempo tidak memanggil metode ini (pembacaan tidak
+     * menulis ke disk); pemanggil seperti layar laporan memanggilnya secara eksplisit.
+     * Perubahan diantrekan di dalam lock, lalu ditulis di luar lock agar penulisan ke
+     * disk tidak menahan meja sirkulasi lain.
+     *
+     * @return jumlah transaksi yang statusnya diubah.
+     */
+    public int updateOverdueStatuses(LocalDate asOf) {
+        int[] rows;
+        synchronized (this) {
+            rows = transactions.borrowedRowsDueBefore(TransactionStore.toBoundDay(asOf));
+            for (int row : rows) {
+                Transaction transaction = transactions.view(row);
+                transaction.setStatus("Overdue");
+                queueTransaction(transaction);
             }
-        } catch (FileNotFoundException e) {
+        }
+        if (rows.length > 0) {
+            persister.commitEnqueued(); // Satu penulisan untuk semua baris yang diubah
+            System.out.println(rows.length + " transaksi melewati jatuh tempo dan ditandai Overdue.");
+        }
+        return rows.length;
+    }
+
+    private void loadTransactions() {
+        try {
+            // File besar diparse paralel per rentang byte; hasilnya ditambahkan sesuai urutan file.
+            TransactionCsvLoader.load(Paths.get(TRANSACTIONS_FILE_PATH), this.transactions);
+        } catch (NoSuchFileException e) {
             System.out.println("File " + TRANSACTIONS_FILE_PATH + " tidak ditemukan. Membuat file baru dengan header.");
             try {
                 if (!Files.exists(Paths.get(TRANSACTIONS_FILE_PATH))) {
                     Files.createFile(Paths.get(TRANSACTIONS_FILE_PATH));
                 }
                 try (BufferedWriter writer = new BufferedWriter(new FileWriter(TRANSACTIONS_FILE_PATH, false))) {
-                    writer.write("TransactionID,MemberID,ISBN,BorrowDate,DueDate,ActualReturnDate,Status,Fine\n");
+                    writer.write(TransactionCsvLoader.HEADER + "\n");
                 }
             } catch (IOException ioException) {
                 System.err.println("Gagal membuat atau menulis header ke file " + TRANSACTIONS_FILE_PATH + ": "
@@ -462,58 +695,572 @@ public class LibraryManager {
         }
     }
 
-    private void saveTransactions() {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(TRANSACTIONS_FILE_PATH))) {
-            bw.write("TransactionID,MemberID,ISBN,BorrowDate,DueDate,ActualReturnDate,Status,Fine\n");
-            for (Transaction t : this.transactions) {
-                String actualReturnDateStr = (t.getActualReturnDate() == null) ? ""
-                        : t.getActualReturnDate().toString();
-                String line = String.join(",",
-                        t.getTransactionId(),
-                        t.getMemberId(),
-                        t.getIsbn(),
-                        t.getBorrowDate().toString(),
-                        t.getDueDate().toString(),
-                        actualReturnDateStr,
-                        t.getStatus(),
-                        String.valueOf(t.getFine()));
-                bw.write(line);
-                bw.newLine();
+    /**
+     * Menulis semua baris salinan store, langsung dari kolomnya.
+     */
+    private boolean saveTransactions(TransactionStore rows) {
+        try {
+            try (FileChannel channel = openForRewrite(TRANSACTIONS_FILE_PATH)) {
+                csvWriter.begin(channel);
+                csvWriter.writeLine(TransactionCsvLoader.HEADER);
+                for (int row = 0; row < rows.size(); row++) {
+                    rows.writeCsvRecord(row, csvWriter);
+                }
+                csvWriter.finish();
             }
+            commitRewrite(TRANSACTIONS_FILE_PATH);
+            return true;
         } catch (IOException e) {
             System.err.println("Error menyimpan ke file " + TRANSACTIONS_FILE_PATH + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * File CSV tidak pernah ditimpa langsung: isi baru ditulis ke file sementara, di-fsync
+     * oleh {@link CsvWriter#finish()}, lalu {@link #commitRewrite(String)} menggantikan file
+     * lama secara atomik. Crash di tengah penulisan atau checkpoint menyisakan CSV lama
+     * yang utuh, dan jurnal baru dikosongkan setelah semua file berhasil diganti.
+     */
+    private static FileChannel openForRewrite(String path) throws IOException {
+        return FileChannel.open(rewritePathOf(path), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private static void commitRewrite(String path) throws IOException {
+        Files.move(rewritePathOf(path), Paths.get(path), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static Path rewritePathOf(String path) {
+        return Paths.get(path + ".tmp");
+    }
+
+    // =================================================================================
+    // Indeks pencarian buku dan anggota
+    // =================================================================================
+
+    private void addBookToList(Book book) {
+        this.books.add(book);
+        booksByIsbn.putIfAbsent(book.getIsbn(), book); // ISBN ganda: yang pertama tetap ditemukan
+        bookSearch.add(book);
+        transactions.reattributeIsbn(book.getIsbn());
+    }
+
+    private void removeBookFromList(Book book) {
+        this.books.remove(book);
+        bookSearch.remove(book);
+        if (booksByIsbn.get(book.getIsbn()) == book) {
+            booksByIsbn.remove(book.getIsbn());
+            for (Book other : this.books) {
+                if (other.getIsbn().equals(book.getIsbn())) {
+                    booksByIsbn.put(other.getIsbn(), other);
+                    break;
+                }
+            }
+        }
+        transactions.reattributeIsbn(book.getIsbn());
+    }
+
+    private void addMemberToList(Member member) {
+        this.members.add(member);
+        membersById.add(member);
+        membersByEmail.add(member);
+        memberSearch.add(member);
+        transactions.reattributeMember(member.getId());
+    }
+
+    private void removeMemberFromList(Member member) {
+        this.members.remove(member);
+        membersById.remove(member, this.members);
+        membersByEmail.remove(member, this.members);
+        memberSearch.remove(member);
+        transactions.reattributeMember(member.getId());
+    }
+
+    // =================================================================================
+    // Snapshot biner (data/library.snap) untuk start cepat
+    // =================================================================================
+
+    /**
+     * Memuat data dari snapshot biner jika snapshot masih sesuai dengan file CSV.
+     *
+     * @return true jika data berhasil dimuat dari snapshot.
+     */
+    private boolean loadSnapshot() {
+        LibrarySnapshot snapshot = LibrarySnapshot.openIfCurrent(Paths.get(SNAPSHOT_FILE_PATH), csvPaths());
+        if (snapshot == null) {
+            return false;
+        }
+        for (int i = 0; i < snapshot.getBookCount(); i++) {
+            addBookToList(snapshot.bookAt(i));
+        }
+        for (int i = 0; i < snapshot.getMemberCount(); i++) {
+            addMemberToList(snapshot.memberAt(i));
+        }
+        snapshot.addTransactionsTo(this.transactions);
+        System.out.println("Data dimuat dari snapshot " + SNAPSHOT_FILE_PATH + ": " + books.size() + " buku, "
+                + members.size() + " anggota, " + transactions.size() + " transaksi.");
+        return true;
+    }
+
+    private void writeSnapshot(List<Book> bookList, List<Member> memberList, List<Transaction> transactionList) {
+        try {
+            LibrarySnapshot.write(Paths.get(SNAPSHOT_FILE_PATH), bookList, memberList, transactionList, csvPaths());
+        } catch (IOException e) {
+            System.err.println("Gagal menulis snapshot " + SNAPSHOT_FILE_PATH + ": " + e.getMessage());
+        }
+    }
+
+    private static Path[] csvPaths() {
+        return new Path[] { Paths.get(BOOKS_FILE_PATH), Paths.get(MEMBERS_FILE_PATH),
+                Paths.get(TRANSACTIONS_FILE_PATH) };
+    }
+
+    // =================================================================================
+    // Persistensi: CSV penuh atau jurnal append-only, ditulis lewat WriteBehindPersister
+    // =================================================================================
+
+    public PersistenceMode getPersistenceMode() {
+        return persistenceMode;
+    }
+
+    public DurabilityPolicy getDurabilityPolicy() {
+        return persister.getPolicy();
+    }
+
+    /**
+     * Menulis seluruh data ke file CSV (snapshot) lalu mengosongkan jurnal.
+     * Pada mode JOURNAL checkpoint juga diminta otomatis setiap CHECKPOINT_EVERY_RECORDS
+     * record, tetapi boleh dipanggil manual (misalnya sebelum aplikasi ditutup).
+     */
+    public void checkpoint() {
+        persister.requestCheckpoint();
+        persister.flush();
+    }
+
+    /**
+     * Memaksa semua perubahan yang tertunda ditulis dan di-fsync sekarang, lalu
+     * menunggu hingga selesai.
+     *
+     * @return false jika penulisan gagal.
+     */
+    public boolean flush() {
+        return persister.flush();
+    }
+
+    /**
+     * Menunggu penulis latar belakang menyimpan semua perubahan yang sudah terjadi,
+     * tanpa memaksa flush lebih awal dari kebijakan durabilitas.
+     *
+     * @return true jika semua perubahan sudah tersimpan sebelum batas waktu.
+     */
+    public boolean awaitPersisted(long timeout, TimeUnit unit) {
+        return persister.awaitFlushed(timeout, unit);
+    }
+
+    /**
+     * @return jumlah batch yang sudah ditulis ke disk (untuk tes group commit).
+     */
+    long writtenBatchCount() {
+        return persister.writtenBatchCount();
+    }
+
+    /**
+     * Menulis sisa perubahan, menghentikan penulis latar belakang, lalu menutup
+     * file jurnal. Data yang sudah dijurnal akan diputar ulang saat LibraryManager
+     * berikutnya dibuat.
+     */
+    public void close() {
+        persister.close();
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                System.err.println("Gagal menutup jurnal " + JOURNAL_FILE_PATH + ": " + e.getMessage());
+            }
+            journal = null;
+        }
+    }
+
+    /**
+     * Menjalankan perubahan buku/anggota di bawah lock global lalu menunggu penyimpanan
+     * setelah lock dilepas, agar penulisan ke disk tidak menahan meja sirkulasi lain.
+     * Pada mode STRIPED lock tulis katalog juga dipegang, karena peminjaman membaca
+     * indeks buku dan anggota tanpa lock global.
+     *
+     * @param change mengembalikan true jika ada perubahan yang diantrekan.
+     */
+    private boolean changeCatalog(BooleanSupplier change) {
+        boolean changed;
+        if (circulationLocks != null) {
+            circulationLocks.lockCatalog();
+        }
+        try {
+            synchronized (this) {
+                changed = change.getAsBoolean();
+            }
+        } finally {
+            if (circulationLocks != null) {
+                circulationLocks.unlockCatalog();
+            }
+        }
+        return commitIfChanged(changed);
+    }
+
+    /**
+     * Memasukkan perubahan ke antrean di bawah lock global; pemanggil memanggil
+     * {@link WriteBehindPersister#commitEnqueued()} setelah melepas lock tersebut.
+     */
+    private void queueBook(Book book) {
+        queueJournalRecord(journal == null ? null : LibraryJournal.encodeBook(book), DIRTY_BOOKS);
+    }
+
+    private void queueBookDeleted(String isbn) {
+        queueJournalRecord(journal == null ? null : LibraryJournal.encodeBookDeleted(isbn), DIRTY_BOOKS);
+    }
+
+    private void queueMember(Member member) {
+        queueJournalRecord(journal == null ? null : LibraryJournal.encodeMember(member), DIRTY_MEMBERS);
+    }
+
+    private void queueMemberDeleted(String memberId) {
+        queueJournalRecord(journal == null ? null : LibraryJournal.encodeMemberDeleted(memberId), DIRTY_MEMBERS);
+    }
+
+    /**
+     * @return record jurnal buku dengan stok quantity (null pada mode CSV), untuk
+     *         disiapkan sebelum lock global oleh pemegang stripe buku.
+     */
+    private byte[] bookRecord(Book book, int quantity) {
+        return journal == null ? null
+                : LibraryJournal.encodeBook(new Book(book.getIsbn(), book.getTitle(), book.getAuthor(), quantity));
+    }
+
+    private void queueTransaction(Transaction transaction) {
+        queueJournalRecord(journal == null ? null : LibraryJournal.encodeTransaction(transaction),
+                DIRTY_TRANSACTIONS);
+    }
+
+    /**
+     * @param record record jurnal (mode JOURNAL), atau null untuk menandai file CSV kotor.
+     */
+    private void queueJournalRecord(byte[] record, int dirtyMask) {
+        if (record != null) {
+            countJournalRecord();
+            persister.enqueue(record);
+        } else {
+            persister.enqueueDirty(dirtyMask);
+        }
+    }
+
+    private void countJournalRecord() {
+        if (++journalRecordsSinceCheckpoint >= CHECKPOINT_EVERY_RECORDS) {
+            journalRecordsSinceCheckpoint = 0;
+            persister.requestCheckpoint();
+        }
+    }
+
+    /**
+     * Salinan data yang diambil di bawah lock, untuk ditulis di luar lock: buku dan
+     * anggota disalin per objek dan baris transaksi disalin dari store, sehingga
+     * peminjaman yang berjalan bersamaan tidak mengubah data di tengah penulisan.
+     */
+    private static final class DataSnapshot {
+        final List<Book> books;
+        final List<Member> members;
+        final TransactionStore transactions;
+
+        DataSnapshot(List<Book> books, List<Member> members, TransactionStore transactions) {
+            this.books = books;
+            this.members = members;
+            this.transactions = transactions;
+        }
+    }
+
+    private class PersistenceFlusher implements WriteBehindPersister.Flusher<DataSnapshot> {
+        @Override
+        public void prepare(WriteBehindPersister.Batch<DataSnapshot> batch) {
+            if (batch.dirtyMask != 0 || batch.checkpoint) {
+                List<Book> bookCopies = new ArrayList<>(books.size());
+                for (Book book : books) {
+                    bookCopies.add(new Book(book.getIsbn(), book.getTitle(), book.getAuthor(), book.getQuantity()));
+                }
+                List<Member> memberCopies = new ArrayList<>(members.size());
+                for (Member member : members) {
+                    memberCopies.add(new Member(member.getId(), member.getFullName(), member.getMajor(),
+                            member.getEmail(), member.getPassword()));
+                }
+                batch.snapshot = new DataSnapshot(bookCopies, memberCopies, transactions.copyOf(transactions.size()));
+            }
+        }
+
+        @Override
+        public void write(WriteBehindPersister.Batch<DataSnapshot> batch) throws IOException {
+            LibraryJournal currentJournal = journal;
+            if (!batch.records.isEmpty()) {
+                if (currentJournal == null) {
+                    throw new IOException("Jurnal " + JOURNAL_FILE_PATH + " sudah ditutup.");
+                }
+                currentJournal.append(batch.records);
+                currentJournal.force();
+            }
+            DataSnapshot snapshot = batch.snapshot;
+            if (snapshot == null) {
+                return;
+            }
+            boolean saved = true;
+            if (batch.checkpoint || (batch.dirtyMask & DIRTY_BOOKS) != 0) {
+                saved &= saveBooks(snapshot.books);
+            }
+            if (batch.checkpoint || (batch.dirtyMask & DIRTY_MEMBERS) != 0) {
+                saved &= saveMembers(snapshot.members);
+            }
+            if (batch.checkpoint || (batch.dirtyMask & DIRTY_TRANSACTIONS) != 0) {
+                saved &= saveTransactions(snapshot.transactions);
+            }
+            if (!saved) {
+                throw new IOException("Sebagian file CSV gagal disimpan.");
+            }
+            if (batch.checkpoint) {
+                writeSnapshot(snapshot.books, snapshot.members, snapshot.transactions.asList());
+            }
+            // Semua record yang sudah ada di jurnal tercakup oleh snapshot ini.
+            if (batch.checkpoint && currentJournal != null) {
+                currentJournal.reset();
+            }
+        }
+    }
+
+    /**
+     * Memutar ulang jurnal yang tersisa (jika ada) di atas data CSV yang baru dimuat.
+     * Pada mode CSV isi jurnal langsung digabungkan ke file CSV; pada mode JOURNAL
+     * jurnal dibuka kembali untuk menerima record baru.
+     */
+    private void recoverJournal() {
+        LibraryJournal existingJournal = new LibraryJournal(Paths.get(JOURNAL_FILE_PATH));
+        long validEnd;
+        try {
+            validEnd = existingJournal.replay(new JournalReplayHandler());
+        } catch (IOException e) {
+            System.err.println("Error membaca jurnal " + JOURNAL_FILE_PATH + ": " + e.getMessage());
+            validEnd = 0;
+        }
+
+        if (persistenceMode == PersistenceMode.JOURNAL) {
+            try {
+                existingJournal.openForAppend(validEnd);
+                this.journal = existingJournal;
+            } catch (IOException e) {
+                System.err.println("Gagal membuka jurnal " + JOURNAL_FILE_PATH
+                        + ", kembali menyimpan langsung ke CSV: " + e.getMessage());
+            }
+        } else if (validEnd > 0) {
+            // Mode CSV: gabungkan isi jurnal ke CSV lalu hapus jurnalnya.
+            checkpoint();
+            try {
+                Files.deleteIfExists(existingJournal.getPath());
+            } catch (IOException e) {
+                System.err.println("Gagal menghapus jurnal " + JOURNAL_FILE_PATH + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Menerapkan record jurnal ke data di memori tanpa menulis ulang ke disk.
+     */
+    private class JournalReplayHandler implements LibraryJournal.Handler {
+
+        @Override
+        public void onBook(Book book) {
+            Book existing = findBookByIsbn(book.getIsbn());
+            if (existing != null) {
+                existing.setTitle(book.getTitle());
+                existing.setAuthor(book.getAuthor());
+                existing.setQuantity(book.getQuantity());
+                bookSearch.reindex(existing);
+                transactions.reattributeIsbn(existing.getIsbn());
+            } else {
+                addBookToList(book);
+            }
+        }
+
+        @Override
+        public void onBookDeleted(String isbn) {
+            Book existing = findBookByIsbn(isbn);
+            if (existing != null) {
+                removeBookFromList(existing);
+            }
+        }
+
+        @Override
+        public void onMember(Member member) {
+            Member existing = findMemberById(member.getId());
+            if (existing != null) {
+                existing.setFullName(member.getFullName());
+                existing.setMajor(member.getMajor());
+                existing.setEmail(member.getEmail());
+                membersByEmail.reindex(existing);
+                existing.setPassword(member.getPassword());
+                memberSearch.reindex(existing);
+                transactions.reattributeMember(existing.getId());
+            } else {
+                addMemberToList(member);
+            }
+        }
+
+        @Override
+        public void onMemberDeleted(String memberId) {
+            Member existing = findMemberById(memberId);
+            if (existing != null) {
+                removeMemberFromList(existing);
+            }
+        }
+
+        @Override
+        public void onTransaction(Transaction transaction) {
+            Transaction existing = findTransactionById(transaction.getTransactionId());
+            if (existing != null) {
+                existing.setBorrowDate(transaction.getBorrowDate());
+                existing.setDueDate(transaction.getDueDate());
+                existing.setActualReturnDate(transaction.getActualReturnDate());
+                existing.setStatus(transaction.getStatus());
+                existing.setFine(transaction.getFine());
+            } else {
+                transactions.add(transaction);
+            }
         }
     }
 
     // Metode getTransactionsByMemberId dan getMonthlyStatistics tetap sama seperti yang Anda berikan
     public List<Transaction> getTransactionsByMemberId(String memberId) {
-        if (memberId == null || memberId.trim().isEmpty()) {
-            return new ArrayList<>();
-        }
-        return this.transactions.stream()
-                .filter(transaction -> memberId.equals(transaction.getMemberId()))
-                .sorted((t1, t2) -> t2.getBorrowDate().compareTo(t1.getBorrowDate()))
-                .collect(Collectors.toList());
-    }
-
-    public List<MonthlyStat> getMonthlyStatistics() {
-        Map<YearMonth, MonthlyStat> statsMap = new HashMap<>();
-        for (Transaction transaction : this.transactions) {
-            YearMonth borrowMonthYear = YearMonth.from(transaction.getBorrowDate());
-            statsMap.putIfAbsent(borrowMonthYear, new MonthlyStat(borrowMonthYear));
-            statsMap.get(borrowMonthYear).incrementBorrows();
-
-            if (transaction.getActualReturnDate() != null && "Returned".equalsIgnoreCase(transaction.getStatus())) {
-                YearMonth returnMonthYear = YearMonth.from(transaction.getActualReturnDate());
-                statsMap.putIfAbsent(returnMonthYear, new MonthlyStat(returnMonthYear));
-                statsMap.get(returnMonthYear).incrementReturns();
-                if (transaction.getFine() > 0) {
-                    statsMap.get(returnMonthYear).addFines(transaction.getFine());
-                }
+        return getTransactionsByMemberId(memberId, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Satu halaman riwayat anggota, urut dari tanggal pinjam terbaru. Diambil dari
+     * riwayat per anggota yang sudah terurut, tanpa memindai seluruh transaksi.
+     *
+     * @param offset jumlah transaksi terbaru yang dilewati.
+     * @param limit  jumlah maksimum transaksi di halaman ini.
+     * @return list read-only.
+     */
+    public synchronized List<Transaction> getTransactionsByMemberId(String memberId, int offset, int limit) {
+        if (memberId == null || memberId.trim().isEmpty() || offset < 0) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(
+                transactions.views(transactions.historyNewestFirst(memberId, offset, limit)));
+    }
+
+    public synchronized int getTransactionCountByMemberId(String memberId) {
+        return memberId == null ? 0 : transactions.historyCount(memberId);
+    }
+
+    /**
+     * Statistik bulanan dari view yang diperbarui setiap peminjaman/pengembalian;
+     * biayanya sebanding dengan jumlah bulan, bukan panjang riwayat transaksi.
+     */
+    public synchronized List<MonthlyStat> getMonthlyStatistics() {
+        return transactions.monthlyStatistics();
+    }
+
+    /**
+     * Rollup sirkulasi (slice-and-dice): jumlah peminjaman per tanggal pinjam dan denda
+     * per tanggal kembali, per periode (hari/minggu/bulan/tahun), dipisah menurut
+     * jurusan anggota dan/atau pengarang buku. Dijawab dari kubus yang diperbarui
+     * setiap peminjaman/pengembalian, tanpa memindai riwayat transaksi.
+     *
+     * @param group        dimensi yang dijadikan baris tersendiri.
+     * @param majorFilter  hanya jurusan ini (tanpa membedakan huruf besar/kecil), atau null/kosong.
+     * @param authorFilter hanya pengarang ini, atau null/kosong.
+     */
+    public synchronized List<RollupRow> getCirculationRollup(LocalDate from, LocalDate to, TimeGrain grain,
+            RollupGroup group, String majorFilter, String authorFilter) {
+        return transactions.rollup(from, to, grain, group, majorFilter, authorFilter);
+    }
+
+    /**
+     * Persentil lama peminjaman (p50/p90/p99, dalam hari) untuk pinjaman yang
+     * dikembalikan di setiap bulan, dari sketsa per bulan dan jurusan yang diperbarui
+     * saat pengembalian. Riwayat transaksi tidak dibaca; sketsa dibentuk ulang dari
+     * transactions.csv saat data dimuat.
+     *
+     * @param byMajor true untuk satu baris per jurusan, false untuk semua jurusan.
+     */
+    public synchronized List<LoanDurationStat> getLoanDurationPercentiles(YearMonth from, YearMonth to,
+            boolean byMajor) {
+        return transactions.loanDurations(from, to, byMajor);
+    }
+
+    /**
+     * Buku yang paling sering dipinjam sepanjang waktu, dari sketsa Space-Saving
+     * berukuran tetap (bukan pengelompokan seluruh transaksi). Hitungan bisa lebih besar
+     * dari sebenarnya paling banyak {@link HeavyHitter#getMaxError()}.
+     */
+    public synchronized List<HeavyHitter> getTopBooks(int k) {
+        return labelBooks(transactions.trends().topBooks(k));
+    }
+
+    /**
+     * @param window periode berjalan (misalnya minggu, bulan atau semester ini).
+     */
+    public synchronized List<HeavyHitter> getTopBooks(TimeGrain window, int k) {
+        return labelBooks(transactions.trends().topBooks(window, LocalDate.now(), k));
+    }
+
+    /**
+     * Anggota dengan peminjaman terbanyak sepanjang waktu (sketsa Space-Saving).
+     */
+    public synchronized List<HeavyHitter> getTopMembers(int k) {
+        return labelMembers(transactions.trends().topMembers(k));
+    }
+
+    public synchronized List<HeavyHitter> getTopMembers(TimeGrain window, int k) {
+        return labelMembers(transactions.trends().topMembers(window, LocalDate.now(), k));
+    }
+
+    /**
+     * Rekomendasi "peminjam buku ini juga meminjam": buku yang paling sering dipinjam
+     * oleh anggota yang sama, dari model co-occurrence yang diperbarui setiap
+     * peminjaman. Buku yang pernah dipinjam memberId (seluruh riwayatnya) dan buku yang
+     * sudah dihapus dari katalog dilewati.
+     *
+     * @param memberId anggota yang sedang melihat, atau null.
+     */
+    public synchronized List<Book> getAlsoBorrowed(String isbn, String memberId, int limit) {
+        List<Book> result = new ArrayList<>();
+        for (String otherIsbn : transactions.alsoBorrowed(isbn, memberId, CoBorrowIndex.MAX_NEIGHBOURS)) {
+            Book book = booksByIsbn.get(otherIsbn);
+            if (book != null && result.size() < limit) {
+                result.add(book);
             }
         }
-        return statsMap.values().stream()
-                .sorted((s1, s2) -> s1.getMonthYear().compareTo(s2.getMonthYear()))
-                .collect(Collectors.toList());
+        return result;
+    }
+
+    private List<HeavyHitter> labelBooks(List<HeavyHitter> hitters) {
+        for (HeavyHitter hitter : hitters) {
+            Book book = booksByIsbn.get(hitter.getKey());
+            hitter.setLabel(book == null ? null : book.getTitle());
+        }
+        return hitters;
+    }
+
+    private List<HeavyHitter> labelMembers(List<HeavyHitter> hitters) {
+        for (HeavyHitter hitter : hitters) {
+            Member member = membersById.get(hitter.getKey());
+            hitter.setLabel(member == null ? null : member.getFullName());
+        }
+        return hitters;
+    }
+
+    /**
+     * Menghitung ulang statistik bulanan dari seluruh riwayat (paralel di fork/join pool),
+     * untuk audit atau setelah koreksi tanggal mundur. Hasilnya sama dengan
+     * {@link #getMonthlyStatistics()}.
+     */
+    public synchronized List<MonthlyStat> recomputeMonthlyStatistics() {
+        return transactions.recomputeMonthlyStatistics();
     }
 }
\ No newline at end of file
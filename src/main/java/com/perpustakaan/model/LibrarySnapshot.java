@@ -0,0 +1,320 @@
+package com.perpustakaan.model;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Snapshot biner berversi dari seluruh data perpustakaan (data/library.snap).
+ *
+ * Format: header tetap, lalu tabel record berukuran tetap untuk buku, anggota dan
+ * transaksi, lalu "string heap" berisi teks UTF-8 (string yang sama hanya disimpan
+ * sekali). Setiap field teks di record berupa pasangan (offset, panjang) ke heap,
+ * dan tanggal disimpan sebagai epoch day. File dibuka dengan FileChannel.map secara
+ * read-only sehingga beberapa proses kios dapat berbagi page cache yang sama.
+ *
+ * Yang dihemat snapshot adalah parsing teks, bukan pembacaan record: saat start buku
+ * dan anggota di-decode semuanya menjadi objek, dan transaksi disalin langsung ke
+ * kolom {@link TransactionStore} (setiap string anggota/ISBN/status di heap hanya
+ * di-decode sekali). Indeks inti store tetap dibangun per baris; struktur analitik
+ * baru dibangun saat pertama kali diminta.
+ *
+ * Header juga menyimpan ukuran dan checksum CRC32C isi ketiga file CSV saat snapshot
+ * ditulis; jika CSV berubah sesudahnya, snapshot dianggap usang dan tidak dipakai.
+ * Artinya setiap start tetap membaca seluruh CSV sekali untuk checksum (sekitar
+ * 15-40 ms untuk 68 MB yang sudah ada di page cache; dari disk dingin dibatasi
+ * kecepatan baca). Waktu modifikasi sengaja tidak dipakai: editan dengan ukuran sama
+ * di detik yang sama, atau file yang disalin dengan mtime dipertahankan, tidak akan
+ * terdeteksi.
+ */
+final class LibrarySnapshot {
+
+    private static final int MAGIC = 0x50534E50; // "PSNP"
+    static final int VERSION = 2;
+
+    private static final int HEADER_SIZE = 4 + 4 + 3 * 16 + 3 * 4 + 5 * 8;
+    private static final int BOOK_RECORD_SIZE = 3 * 8 + 4;
+    private static final int MEMBER_RECORD_SIZE = 5 * 8;
+    private static final int TRANSACTION_RECORD_SIZE = 3 * 8 + 3 * 4 + 8 + 8;
+
+    private final ByteBuffer buffer;
+    private final int bookCount;
+    private final int memberCount;
+    private final int transactionCount;
+    private final int booksOffset;
+    private final int membersOffset;
+    private final int transactionsOffset;
+    private final int heapOffset;
+
+    private LibrarySnapshot(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.bookCount = buffer.getInt(4 + 4 + 3 * 16);
+        this.memberCount = buffer.getInt(4 + 4 + 3 * 16 + 4);
+        this.transactionCount = buffer.getInt(4 + 4 + 3 * 16 + 8);
+        int offsets = 4 + 4 + 3 * 16 + 3 * 4;
+        this.booksOffset = (int) buffer.getLong(offsets);
+        this.membersOffset = (int) buffer.getLong(offsets + 8);
+        this.transactionsOffset = (int) buffer.getLong(offsets + 16);
+        this.heapOffset = (int) buffer.getLong(offsets + 24);
+    }
+
+    /**
+     * Membuka snapshot jika ada, berversi sama, dan masih sesuai dengan file CSV.
+     *
+     * @return snapshot yang siap dibaca, atau null jika harus memuat dari CSV.
+     */
+    static LibrarySnapshot openIfCurrent(Path snapshotPath, Path... csvPaths) {
+        if (!Files.exists(snapshotPath)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(snapshotPath, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                return null;
+            }
+            // Mapping tetap valid setelah channel ditutup.
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (mapped.getInt(0) != MAGIC || mapped.getInt(4) != VERSION) {
+                System.out.println("Snapshot " + snapshotPath + " memakai format lain, memuat dari CSV.");
+                return null;
+            }
+            for (int i = 0; i < csvPaths.length; i++) {
+                // Ukuran dicek dulu agar CSV yang jelas berubah tidak perlu dibaca seluruhnya.
+                if (!Files.exists(csvPaths[i]) || mapped.getLong(8 + i * 16) != Files.size(csvPaths[i])
+                        || mapped.getLong(8 + i * 16 + 8) != checksumOf(csvPaths[i])) {
+                    System.out.println("Snapshot " + snapshotPath + " sudah usang, memuat dari CSV.");
+                    return null;
+                }
+            }
+            return new LibrarySnapshot(mapped);
+        } catch (IOException e) {
+            System.err.println("Gagal membuka snapshot " + snapshotPath + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    int getBookCount() {
+        return bookCount;
+    }
+
+    int getMemberCount() {
+        return memberCount;
+    }
+
+    int getTransactionCount() {
+        return transactionCount;
+    }
+
+    Book bookAt(int index) {
+        int base = booksOffset + index * BOOK_RECORD_SIZE;
+        return new Book(stringAt(base), stringAt(base + 8), stringAt(base + 16), buffer.getInt(base + 24));
+    }
+
+    Member memberAt(int index) {
+        int base = membersOffset + index * MEMBER_RECORD_SIZE;
+        return new Member(stringAt(base), stringAt(base + 8), stringAt(base + 16), stringAt(base + 24),
+                stringAt(base + 32));
+    }
+
+    /**
+     * Menambahkan semua transaksi snapshot ke store langsung dari field record yang
+     * dipetakan, tanpa membuat objek Transaction atau LocalDate. Anggota, ISBN dan
+     * status sangat berulang dan di heap hanya disimpan sekali, jadi masing-masing
+     * cukup di-decode sekali per offset.
+     */
+    void addTransactionsTo(TransactionStore store) {
+        Map<Integer, String> decoded = new HashMap<>();
+        for (int index = 0; index < transactionCount; index++) {
+            int base = transactionsOffset + index * TRANSACTION_RECORD_SIZE;
+            store.add(stringAt(base), sharedStringAt(base + 8, decoded), sharedStringAt(base + 16, decoded),
+                    buffer.getInt(base + 24), buffer.getInt(base + 28), buffer.getInt(base + 32),
+                    sharedStringAt(base + 36, decoded), buffer.getDouble(base + 44));
+        }
+    }
+
+    private String sharedStringAt(int refPosition, Map<Integer, String> decoded) {
+        if (buffer.getInt(refPosition + 4) == 0) {
+            return ""; // Offset teks kosong selalu 0, bisa sama dengan teks pertama heap
+        }
+        int offset = buffer.getInt(refPosition);
+        String value = decoded.get(offset);
+        if (value == null) {
+            value = stringAt(refPosition);
+            decoded.put(offset, value);
+        }
+        return value;
+    }
+
+    private String stringAt(int refPosition) {
+        int offset = buffer.getInt(refPosition);
+        int length = buffer.getInt(refPosition + 4);
+        if (length == 0) {
+            return "";
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(heapOffset + offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // =================================================================================
+    // Penulisan snapshot
+    // =================================================================================
+
+    /**
+     * Menulis snapshot ke file sementara lalu menggantinya secara atomik, sehingga
+     * proses lain yang sedang memetakan snapshot lama tidak terganggu.
+     */
+    static void write(Path snapshotPath, List<Book> books, List<Member> members, List<Transaction> transactions,
+            Path... csvPaths) throws IOException {
+        StringHeap heap = new StringHeap();
+        for (Book book : books) {
+            heap.add(book.getIsbn());
+            heap.add(book.getTitle());
+            heap.add(book.getAuthor());
+        }
+        for (Member member : members) {
+            heap.add(member.getId());
+            heap.add(member.getFullName());
+            heap.add(member.getMajor());
+            heap.add(member.getEmail());
+            heap.add(member.getPassword());
+        }
+        for (Transaction t : transactions) {
+            heap.add(t.getTransactionId());
+            heap.add(t.getMemberId());
+            heap.add(t.getIsbn());
+            heap.add(t.getStatus());
+        }
+
+        long booksOffset = HEADER_SIZE;
+        long membersOffset = booksOffset + (long) books.size() * BOOK_RECORD_SIZE;
+        long transactionsOffset = membersOffset + (long) members.size() * MEMBER_RECORD_SIZE;
+        long heapOffset = transactionsOffset + (long) transactions.size() * TRANSACTION_RECORD_SIZE;
+        if (heapOffset + heap.size() > Integer.MAX_VALUE) {
+            throw new IOException("Data terlalu besar untuk satu file snapshot.");
+        }
+
+        Path tempPath = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream channelOut = Channels.newOutputStream(channel);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(channelOut, 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            for (Path csvPath : csvPaths) {
+                long[] stamp = stampOf(csvPath);
+                out.writeLong(stamp != null ? stamp[0] : -1);
+                out.writeLong(stamp != null ? stamp[1] : -1);
+            }
+            out.writeInt(books.size());
+            out.writeInt(members.size());
+            out.writeInt(transactions.size());
+            out.writeLong(booksOffset);
+            out.writeLong(membersOffset);
+            out.writeLong(transactionsOffset);
+            out.writeLong(heapOffset);
+            out.writeLong(heap.size());
+
+            for (Book book : books) {
+                heap.writeRef(out, book.getIsbn());
+                heap.writeRef(out, book.getTitle());
+                heap.writeRef(out, book.getAuthor());
+                out.writeInt(book.getQuantity());
+            }
+            for (Member member : members) {
+                heap.writeRef(out, member.getId());
+                heap.writeRef(out, member.getFullName());
+                heap.writeRef(out, member.getMajor());
+                heap.writeRef(out, member.getEmail());
+                heap.writeRef(out, member.getPassword());
+            }
+            for (Transaction t : transactions) {
+                heap.writeRef(out, t.getTransactionId());
+                heap.writeRef(out, t.getMemberId());
+                heap.writeRef(out, t.getIsbn());
+                out.writeInt(TransactionStore.toDay(t.getBorrowDate()));
+                out.writeInt(TransactionStore.toDay(t.getDueDate()));
+                out.writeInt(TransactionStore.toDay(t.getActualReturnDate()));
+                heap.writeRef(out, t.getStatus());
+                out.writeDouble(t.getFine());
+            }
+            heap.writeTo(out);
+            out.flush();
+            channel.force(false);
+        }
+        Files.move(tempPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @return {ukuran, checksum isi} file, atau null jika file tidak ada.
+     */
+    private static long[] stampOf(Path path) {
+        try {
+            return new long[] { Files.size(path), checksumOf(path) };
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return CRC32C seluruh isi file.
+     */
+    private static long checksumOf(Path path) throws IOException {
+        CRC32C crc = new CRC32C();
+        ByteBuffer chunk = ByteBuffer.allocateDirect(1 << 16);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (channel.read(chunk) >= 0) {
+                chunk.flip();
+                crc.update(chunk);
+                chunk.clear();
+            }
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Kumpulan teks UTF-8 unik beserta posisinya di heap.
+     */
+    private static final class StringHeap {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final Map<String, long[]> refs = new HashMap<>();
+
+        void add(String value) {
+            if (value == null || value.isEmpty() || refs.containsKey(value)) {
+                return;
+            }
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            refs.put(value, new long[] { bytes.size(), encoded.length });
+            bytes.write(encoded, 0, encoded.length);
+        }
+
+        void writeRef(DataOutputStream out, String value) throws IOException {
+            long[] ref = (value == null || value.isEmpty()) ? null : refs.get(value);
+            out.writeInt(ref == null ? 0 : (int) ref[0]);
+            out.writeInt(ref == null ? 0 : (int) ref[1]);
+        }
+
+        long size() {
+            return bytes.size();
+        }
+
+        void writeTo(OutputStream out) throws IOException {
+            bytes.writeTo(out);
+        }
+    }
+}
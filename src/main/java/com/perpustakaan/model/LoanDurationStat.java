@@ -0,0 +1,66 @@
+package com.perpustakaan.model;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Persentil lama peminjaman (hari antara tanggal pinjam dan tanggal kembali) untuk
+ * pinjaman yang dikembalikan dalam satu bulan, untuk satu jurusan atau semua jurusan.
+ */
+public class LoanDurationStat {
+    private static final DateTimeFormatter MONTH_YEAR_FORMATTER = DateTimeFormatter.ofPattern("MMMM yyyy");
+
+    private final YearMonth monthYear;
+    private final String major;
+    private final long returnedLoans;
+    private final int p50Days;
+    private final int p90Days;
+    private final int p99Days;
+    private final long overflowLoans;
+
+    LoanDurationStat(YearMonth monthYear, String major, DurationHistogram durations) {
+        this.monthYear = monthYear;
+        this.major = major;
+        this.returnedLoans = durations.count();
+        this.p50Days = durations.percentile(0.50);
+        this.p90Days = durations.percentile(0.90);
+        this.p99Days = durations.percentile(0.99);
+        this.overflowLoans = durations.overflowCount();
+    }
+
+    public YearMonth getMonthYear() {
+        return monthYear;
+    }
+
+    public String getMonthYearFormatted() {
+        return monthYear.format(MONTH_YEAR_FORMATTER);
+    }
+
+    public String getMajor() {
+        return major;
+    }
+
+    public long getReturnedLoans() {
+        return returnedLoans;
+    }
+
+    public int getP50Days() {
+        return p50Days;
+    }
+
+    public int getP90Days() {
+        return p90Days;
+    }
+
+    public int getP99Days() {
+        return p99Days;
+    }
+
+    /**
+     * @return jumlah pinjaman yang lebih lama dari 3650 hari; persentil yang jatuh di
+     *         antaranya bernilai 3651.
+     */
+    public long getOverflowLoans() {
+        return overflowLoans;
+    }
+}
@@ -0,0 +1,24 @@
+package com.perpustakaan.model;
+
+/**
+ * Cara LibraryManager mengatur akses dari beberapa thread (misalnya beberapa meja
+ * sirkulasi dan kios yang memakai satu instance).
+ */
+public enum LockingMode {
+    /**
+     * Pemeriksaan dan perubahan setiap operasi dilakukan di bawah satu lock untuk
+     * seluruh LibraryManager. Penyimpanan ditunggu setelah lock dilepas. Cukup untuk
+     * satu thread UI.
+     */
+    GLOBAL,
+
+    /**
+     * Peminjaman dan pengembalian memeriksa stok di bawah stripe buku dan pinjaman
+     * ganda di bawah stripe anggota ({@link CirculationLocks}). Lock global hanya
+     * dipegang untuk menambah/memperbarui baris transaksi dan mengantrekan record.
+     * Penyimpanan ditunggu setelah semua lock dilepas, sehingga peminjaman yang tidak
+     * berhubungan bisa berbagi satu fsync pada kebijakan sinkron. Pada kebijakan
+     * asinkron operasi kembali sebelum record tersimpan.
+     */
+    STRIPED
+}
@@ -0,0 +1,99 @@
+package com.perpustakaan.model;
+
+import java.util.Arrays;
+
+/**
+ * Riwayat transaksi per anggota yang selalu terurut, agar riwayat seorang anggota
+ * bisa dibaca (per halaman) tanpa memindai dan mengurutkan seluruh transaksi.
+ *
+ * Untuk setiap kode anggota disimpan nomor baris yang urut menaik menurut tanggal
+ * pinjam, dan untuk tanggal yang sama urut menurun menurut nomor baris. Dibaca
+ * dari belakang, urutannya sama dengan riwayat "terbaru dulu" sebelumnya: tanggal
+ * pinjam menurun, transaksi dengan tanggal sama tetap dalam urutan aslinya.
+ * Peminjaman baru (tanggal hari ini) hampir selalu cukup ditambahkan di ujung.
+ *
+ * Diperbarui oleh {@link TransactionStore} di bawah lock LibraryManager.
+ */
+final class MemberHistoryIndex {
+
+    private static final int[] NO_ROWS = new int[0];
+
+    private final TransactionColumns columns;
+    private int[][] rowsByMember = new int[64][];
+    private int[] counts = new int[64];
+
+    MemberHistoryIndex(TransactionColumns columns) {
+        this.columns = columns;
+    }
+
+    void add(int memberCode, int row) {
+        if (memberCode < 0) {
+            return; // ID anggota null
+        }
+        if (memberCode >= counts.length) {
+            int capacity = Math.max(memberCode + 1, counts.length * 2);
+            rowsByMember = Arrays.copyOf(rowsByMember, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+        }
+        int[] rows = rowsByMember[memberCode];
+        int count = counts[memberCode];
+        if (rows == null) {
+            rows = new int[4];
+        } else if (count == rows.length) {
+            rows = Arrays.copyOf(rows, count * 2);
+        }
+        int borrowDay = columns.borrowDay(row);
+        int position = count;
+        while (position > 0 && !precedes(rows[position - 1], borrowDay, row)) {
+            position--; // Biasanya tidak bergeser sama sekali, atau hanya melewati baris di hari yang sama
+        }
+        System.arraycopy(rows, position, rows, position + 1, count - position);
+        rows[position] = row;
+        rowsByMember[memberCode] = rows;
+        counts[memberCode] = count + 1;
+    }
+
+    void remove(int memberCode, int row) {
+        if (memberCode < 0 || memberCode >= counts.length) {
+            return;
+        }
+        int[] rows = rowsByMember[memberCode];
+        int count = counts[memberCode];
+        for (int i = count - 1; i >= 0; i--) {
+            if (rows[i] == row) {
+                System.arraycopy(rows, i + 1, rows, i, count - i - 1);
+                counts[memberCode] = count - 1;
+                return;
+            }
+        }
+    }
+
+    int count(int memberCode) {
+        return memberCode < 0 || memberCode >= counts.length ? 0 : counts[memberCode];
+    }
+
+    /**
+     * @return salinan nomor baris untuk satu halaman riwayat, urut dari yang terbaru.
+     */
+    int[] newestFirst(int memberCode, int offset, int limit) {
+        int count = count(memberCode);
+        if (offset >= count || limit <= 0) {
+            return NO_ROWS;
+        }
+        int[] rows = rowsByMember[memberCode];
+        int length = (int) Math.min(limit, (long) count - offset);
+        int[] page = new int[length];
+        for (int i = 0; i < length; i++) {
+            page[i] = rows[count - 1 - offset - i];
+        }
+        return page;
+    }
+
+    /**
+     * @return true jika baris existing harus berada sebelum baris (borrowDay, row).
+     */
+    private boolean precedes(int existing, int borrowDay, int row) {
+        int existingDay = columns.borrowDay(existing);
+        return existingDay < borrowDay || (existingDay == borrowDay && existing > row);
+    }
+}
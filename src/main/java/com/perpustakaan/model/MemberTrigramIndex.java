@@ -0,0 +1,309 @@
+package com.perpustakaan.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Indeks trigram untuk pencarian anggota yang toleran salah ketik. Setiap kata dari
+ * ID, nama, jurusan dan email (dinormalisasi seperti {@link BookSearchIndex}) dipecah
+ * menjadi trigram dengan dua spasi di depan dan satu di belakang, misalnya "budi" ->
+ * "  b", " bu", "bud", "udi", "di ". Query "budy" tetap berbagi 3 dari 5 trigram.
+ *
+ * Anggota diberi nomor slot; posting list setiap trigram berupa array int yang
+ * penambahannya cukup di ujung. Anggota yang diubah mendapat slot
+ * baru dan slot lamanya dianggap mati (dilewati saat query), lalu indeks dibangun
+ * ulang jika slot mati sudah lebih banyak dari yang hidup.
+ *
+ * Anggota cocok jika memuat minimal separuh trigram query. Karena itu kandidat cukup
+ * diambil dari posting list yang paling pendek (jumlah trigram - minimum + 1 list;
+ * anggota yang cocok pasti ada di salah satunya); list trigram yang umum hanya
+ * menambah skor kandidat tersebut, sehingga jumlah kandidat tetap kecil.
+ * Hasil diurutkan: teks yang memuat query utuh lebih dulu, lalu bagian trigram query
+ * yang ditemukan, lalu kemiripan Jaccard. Dipakai di bawah lock LibraryManager.
+ */
+final class MemberTrigramIndex {
+
+    private static final double MIN_QUERY_COVERAGE = 0.5;
+    private static final int MIN_COMPACT_SLOTS = 1024;
+    private static final int[] NO_SLOTS = new int[0];
+
+    private final TrigramIds trigramIds = new TrigramIds();
+    private IntList[] postings = new IntList[1024];
+    private final Map<Member, Integer> slotOf = new HashMap<>(); // Member tidak meng-override equals
+    private Member[] members = new Member[1024];
+    private String[] texts = new String[1024];
+    private int[] trigramCounts = new int[1024];
+    private int slotCount;
+    private int deadSlots;
+    private int[] hits = new int[1024]; // Dipakai ulang antar query
+
+    void add(Member member) {
+        if (slotOf.containsKey(member)) {
+            reindex(member);
+            return;
+        }
+        if (slotCount == members.length) {
+            int capacity = slotCount * 2;
+            members = Arrays.copyOf(members, capacity);
+            texts = Arrays.copyOf(texts, capacity);
+            trigramCounts = Arrays.copyOf(trigramCounts, capacity);
+        }
+        int slot = slotCount++;
+        String text = String.join(" ", BookSearchIndex.tokenize(String.join(" ", nullToEmpty(member.getId()),
+                nullToEmpty(member.getFullName()), nullToEmpty(member.getMajor()), nullToEmpty(member.getEmail()))));
+        long[] trigrams = trigramsOf(text);
+        members[slot] = member;
+        texts[slot] = text;
+        trigramCounts[slot] = trigrams.length;
+        slotOf.put(member, slot);
+        for (long trigram : trigrams) {
+            int id = trigramIds.idOf(trigram);
+            if (id == postings.length) {
+                postings = Arrays.copyOf(postings, id * 2);
+            }
+            if (postings[id] == null) {
+                postings[id] = new IntList();
+            }
+            postings[id].add(slot);
+        }
+    }
+
+    void remove(Member member) {
+        Integer slot = slotOf.remove(member);
+        if (slot == null) {
+            return;
+        }
+        members[slot] = null;
+        texts[slot] = null;
+        deadSlots++;
+        if (deadSlots > MIN_COMPACT_SLOTS && deadSlots > slotCount - deadSlots) {
+            compact();
+        }
+    }
+
+    /**
+     * Mengindeks ulang anggota setelah nama/jurusan/email/ID-nya berubah.
+     */
+    void reindex(Member member) {
+        remove(member);
+        add(member);
+    }
+
+    /**
+     * @return anggota yang mirip dengan query, urut dari yang paling cocok (paling banyak
+     *         limit), atau null jika query tidak berisi kata apa pun.
+     */
+    List<Member> search(String query, int limit) {
+        String text = String.join(" ", BookSearchIndex.tokenize(query));
+        if (text.isEmpty()) {
+            return null;
+        }
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        long[] queryTrigrams = trigramsOf(text);
+        int wordCount = text.split(" ").length;
+        int[][] lists = new int[queryTrigrams.length][];
+        int[] sizes = new int[queryTrigrams.length];
+        for (int i = 0; i < queryTrigrams.length; i++) {
+            int id = trigramIds.find(queryTrigrams[i]);
+            IntList posting = id < 0 ? null : postings[id];
+            lists[i] = posting == null ? NO_SLOTS : posting.values;
+            sizes[i] = posting == null ? 0 : posting.size;
+        }
+        Integer[] order = new Integer[lists.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingInt(i -> sizes[i]));
+
+        int needed = Math.max(1, (int) Math.ceil(MIN_QUERY_COVERAGE * queryTrigrams.length));
+        int candidateLists = queryTrigrams.length - needed + 1;
+        if (hits.length < slotCount) {
+            hits = new int[members.length];
+        }
+        // Hitungan per slot; hanya slot yang tersentuh yang dicatat dan di-reset.
+        IntList touched = new IntList();
+        for (int k = 0; k < lists.length; k++) {
+            int[] slots = lists[order[k]];
+            boolean collect = k < candidateLists;
+            for (int i = 0, size = sizes[order[k]]; i < size; i++) {
+                int slot = slots[i];
+                if (collect) {
+                    if (hits[slot]++ == 0) {
+                        touched.add(slot);
+                    }
+                } else if (hits[slot] > 0) {
+                    hits[slot]++; // List panjang hanya menambah skor kandidat yang sudah ada
+                }
+            }
+        }
+
+        // Kunci peringkat dikemas dalam long (kecil = lebih cocok): memuat query utuh,
+        // jumlah trigram query yang tidak ditemukan, jumlah trigram anggota (untuk jumlah
+        // trigram sama yang setara, lebih sedikit berarti Jaccard lebih tinggi), lalu slot.
+        long[] keys = new long[Math.min(touched.size, 1024)];
+        int matched = 0;
+        for (int i = 0; i < touched.size; i++) {
+            int slot = touched.values[i];
+            int shared = hits[slot];
+            hits[slot] = 0;
+            if (shared < needed || members[slot] == null) {
+                continue; // Kurang cocok atau slot mati
+            }
+            int missed = queryTrigrams.length - shared;
+            // Teks yang memuat query utuh paling banyak melewatkan 3 trigram ber-padding per kata
+            boolean contains = missed <= 3 * wordCount && texts[slot].contains(text);
+            long key = (contains ? 0L : 1L << 62)
+                    | (long) Math.min(missed, 0x3FF) << 52
+                    | (long) Math.min(trigramCounts[slot], 0xFFFFF) << 32
+                    | slot;
+            if (matched == keys.length) {
+                keys = Arrays.copyOf(keys, matched * 2);
+            }
+            keys[matched++] = key;
+        }
+        Arrays.sort(keys, 0, matched);
+        List<Member> result = new ArrayList<>(Math.min(matched, limit));
+        for (int i = 0; i < matched && i < limit; i++) {
+            result.add(members[(int) keys[i]]);
+        }
+        return result;
+    }
+
+    private void compact() {
+        List<Member> live = new ArrayList<>(slotCount - deadSlots);
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (members[slot] != null) {
+                live.add(members[slot]);
+            }
+        }
+        Arrays.fill(postings, null);
+        slotOf.clear();
+        Arrays.fill(members, null);
+        Arrays.fill(texts, null);
+        slotCount = 0;
+        deadSlots = 0;
+        for (Member member : live) {
+            add(member);
+        }
+    }
+
+    /**
+     * @return trigram unik (tiga char dikemas dalam satu long), terurut.
+     */
+    private static long[] trigramsOf(String text) {
+        long[] trigrams = new long[text.length() * 3 + 3];
+        int count = 0;
+        int wordStart = 0;
+        for (int i = 0; i <= text.length(); i++) {
+            if (i < text.length() && text.charAt(i) != ' ') {
+                continue;
+            }
+            if (i > wordStart) {
+                // Kata dengan padding "  " di depan dan " " di belakang
+                char a = ' ';
+                char b = ' ';
+                for (int p = wordStart; p <= i; p++) {
+                    char c = p < i ? text.charAt(p) : ' ';
+                    trigrams[count++] = ((long) a << 32) | ((long) b << 16) | c;
+                    a = b;
+                    b = c;
+                }
+            }
+            wordStart = i + 1;
+        }
+        Arrays.sort(trigrams, 0, count);
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique == 0 || trigrams[i] != trigrams[unique - 1]) {
+                trigrams[unique++] = trigrams[i];
+            }
+        }
+        return Arrays.copyOf(trigrams, unique);
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static final class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+
+    /**
+     * Nomor urut untuk setiap trigram (tabel hash open addressing long -> int, tanpa boxing).
+     */
+    private static final class TrigramIds {
+        private long[] keys = new long[1024];
+        private int[] ids = new int[1024];
+        private boolean[] used = new boolean[1024];
+        private int count;
+
+        int find(long key) {
+            int mask = keys.length - 1;
+            for (int slot = hash(key) & mask; used[slot]; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return ids[slot];
+                }
+            }
+            return -1;
+        }
+
+        int idOf(long key) {
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            for (; used[slot]; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return ids[slot];
+                }
+            }
+            if ((count + 1) * 2 > keys.length) {
+                grow();
+                return idOf(key);
+            }
+            used[slot] = true;
+            keys[slot] = key;
+            ids[slot] = count;
+            return count++;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldIds = ids;
+            boolean[] oldUsed = used;
+            keys = new long[oldKeys.length * 2];
+            ids = new int[oldKeys.length * 2];
+            used = new boolean[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldUsed[i]) {
+                    int slot = hash(oldKeys[i]) & mask;
+                    while (used[slot]) {
+                        slot = (slot + 1) & mask;
+                    }
+                    used[slot] = true;
+                    keys[slot] = oldKeys[i];
+                    ids[slot] = oldIds[i];
+                }
+            }
+        }
+
+        private static int hash(long key) {
+            long mixed = key * 0x9E3779B97F4A7C15L;
+            return (int) (mixed ^ (mixed >>> 32));
+        }
+    }
+}
@@ -54,6 +54,15 @@ public class MonthlyStat {
         this.totalReturns++;
     }
 
+    // Untuk agregasi massal (misalnya dari TransactionColumns)
+    void addBorrows(int count) {
+        this.totalBorrows += count;
+    }
+
+    void addReturns(int count) {
+        this.totalReturns += count;
+    }
+
     public void addFines(double fineAmount) {
         this.totalFines += fineAmount;
     }
@@ -0,0 +1,87 @@
+package com.perpustakaan.model;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Statistik bulanan yang selalu terbarui (materialized view): jumlah peminjaman per
+ * bulan pinjam, serta jumlah pengembalian dan total denda per bulan kembali. Setiap
+ * perubahan baris cukup mengurangi kontribusi lamanya lalu menambahkan yang baru,
+ * sehingga layar statistik tidak perlu membaca seluruh riwayat transaksi.
+ *
+ * Aturannya sama dengan {@link TransactionColumns#monthlyStatistics(int)} yang tetap
+ * dipakai sebagai perhitungan ulang penuh (pembanding di tes). Bulan tanpa
+ * peminjaman maupun pengembalian dibuang dari peta.
+ *
+ * Diperbarui oleh {@link TransactionStore}; karena store memuat ulang seluruh baris
+ * saat start, view ini otomatis terbentuk ulang ketika data dimuat.
+ */
+final class MonthlyStatsIndex {
+
+    private static final int BORROWS = 0;
+    private static final int RETURNS = 1;
+    private static final int FINE_CENTS = 2;
+
+    // Kunci: tahun * 12 + (bulan - 1)
+    private final TreeMap<Integer, long[]> totalsByMonth = new TreeMap<>();
+
+    /**
+     * @param returned true jika status baris adalah "Returned".
+     */
+    void add(int borrowDay, int returnDay, boolean returned, long fineCents) {
+        apply(borrowDay, returnDay, returned, fineCents, 1);
+    }
+
+    void remove(int borrowDay, int returnDay, boolean returned, long fineCents) {
+        apply(borrowDay, returnDay, returned, fineCents, -1);
+    }
+
+    /**
+     * @return salinan statistik, urut menurut bulan.
+     */
+    List<MonthlyStat> statistics() {
+        List<MonthlyStat> result = new ArrayList<>(totalsByMonth.size());
+        for (Map.Entry<Integer, long[]> entry : totalsByMonth.entrySet()) {
+            int month = entry.getKey();
+            long[] totals = entry.getValue();
+            MonthlyStat stat = new MonthlyStat(YearMonth.of(Math.floorDiv(month, 12), Math.floorMod(month, 12) + 1));
+            stat.addBorrows((int) totals[BORROWS]);
+            stat.addReturns((int) totals[RETURNS]);
+            if (totals[FINE_CENTS] > 0) {
+                stat.addFines(totals[FINE_CENTS] / 100.0);
+            }
+            result.add(stat);
+        }
+        return result;
+    }
+
+    private void apply(int borrowDay, int returnDay, boolean returned, long fineCents, int sign) {
+        if (borrowDay != TransactionStore.NO_DATE) {
+            update(monthOf(borrowDay), BORROWS, sign);
+        }
+        if (returned && returnDay != TransactionStore.NO_DATE) {
+            int month = monthOf(returnDay);
+            update(month, RETURNS, sign);
+            if (fineCents > 0) {
+                update(month, FINE_CENTS, sign * fineCents);
+            }
+        }
+    }
+
+    private void update(int month, int field, long delta) {
+        long[] totals = totalsByMonth.computeIfAbsent(month, key -> new long[3]);
+        totals[field] += delta;
+        if (totals[BORROWS] == 0 && totals[RETURNS] == 0) {
+            totalsByMonth.remove(month); // Denda hanya tercatat bersama pengembalian
+        }
+    }
+
+    private static int monthOf(int epochDay) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        return date.getYear() * 12 + date.getMonthValue() - 1;
+    }
+}
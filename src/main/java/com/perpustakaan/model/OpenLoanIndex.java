@@ -0,0 +1,58 @@
+package com.perpustakaan.model;
+
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Indeks pinjaman yang masih terbuka (status "Borrowed"/"Overdue"): jumlahnya per
+ * pasangan (kode anggota, kode ISBN), agar pemeriksaan pinjaman ganda di borrowBook
+ * tidak bergantung pada panjang riwayat transaksi, dan himpunan baris terbukanya
+ * untuk laporan buku yang sedang dipinjam.
+ *
+ * Diperbarui oleh {@link TransactionStore} setiap kali anggota, ISBN atau status
+ * sebuah baris berubah: baris dilepas dari indeks sebelum perubahan dan dimasukkan
+ * lagi sesudahnya jika masih terbuka. Karena store yang memuat ulang seluruh baris
+ * saat start, indeks ini otomatis terbentuk ulang ketika data dimuat.
+ *
+ * Perubahan terjadi di bawah lock LibraryManager, tetapi {@link #contains} boleh
+ * dipanggil tanpa lock tersebut (peminjaman mode STRIPED memeriksanya di bawah stripe
+ * anggota), karena itu hitungan disimpan di ConcurrentHashMap.
+ */
+final class OpenLoanIndex {
+
+    // Jumlah baris terbuka per kunci; data lama bisa berisi lebih dari satu.
+    private final Map<Long, Integer> openCounts = new ConcurrentHashMap<>();
+    // Baris terbuka, urut menurut nomor baris (urutan transaksi)
+    private final TreeSet<Integer> openRows = new TreeSet<>();
+
+    void add(int row, int memberCode, int isbnCode) {
+        openCounts.merge(key(memberCode, isbnCode), 1, Integer::sum);
+        openRows.add(row);
+    }
+
+    void remove(int row, int memberCode, int isbnCode) {
+        openCounts.computeIfPresent(key(memberCode, isbnCode), (key, count) -> count == 1 ? null : count - 1);
+        openRows.remove(row);
+    }
+
+    boolean contains(int memberCode, int isbnCode) {
+        return openCounts.containsKey(key(memberCode, isbnCode));
+    }
+
+    /**
+     * @return salinan nomor baris yang terbuka, urut menaik; biayanya sebanding dengan jumlah pinjaman terbuka.
+     */
+    int[] rows() {
+        int[] rows = new int[openRows.size()];
+        int i = 0;
+        for (int row : openRows) {
+            rows[i++] = row;
+        }
+        return rows;
+    }
+
+    private static long key(int memberCode, int isbnCode) {
+        return ((long) memberCode << 32) | (isbnCode & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,20 @@
+package com.perpustakaan.model;
+
+/**
+ * Cara LibraryManager menyimpan perubahan data ke disk.
+ */
+public enum PersistenceMode {
+    /**
+     * Setiap perubahan langsung menulis ulang seluruh file CSV yang terkait.
+     * Sederhana, tetapi biaya tiap operasi sebanding dengan jumlah seluruh data.
+     */
+    CSV,
+
+    /**
+     * Setiap perubahan hanya ditambahkan sebagai record ringkas ke file jurnal
+     * (data/journal.log). File CSV berperan sebagai snapshot dan diperbarui secara
+     * berkala lewat checkpoint, sehingga biaya tiap peminjaman/pengembalian tetap
+     * konstan berapa pun panjang riwayat transaksi.
+     */
+    JOURNAL
+}
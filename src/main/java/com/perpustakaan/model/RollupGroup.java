@@ -0,0 +1,26 @@
+package com.perpustakaan.model;
+
+/**
+ * Dimensi yang dipisahkan menjadi baris tersendiri di rollup sirkulasi (selain waktu).
+ */
+public enum RollupGroup {
+    NONE("Tanpa pengelompokan", false, false),
+    MAJOR("Per jurusan", true, false),
+    AUTHOR("Per pengarang", false, true),
+    MAJOR_AND_AUTHOR("Per jurusan dan pengarang", true, true);
+
+    private final String label;
+    final boolean byMajor;
+    final boolean byAuthor;
+
+    RollupGroup(String label, boolean byMajor, boolean byAuthor) {
+        this.label = label;
+        this.byMajor = byMajor;
+        this.byAuthor = byAuthor;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
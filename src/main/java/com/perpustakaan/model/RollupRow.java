@@ -0,0 +1,53 @@
+package com.perpustakaan.model;
+
+import java.time.LocalDate;
+
+/**
+ * Satu baris hasil rollup sirkulasi: jumlah peminjaman dan total denda untuk satu
+ * periode, jurusan dan pengarang. Jurusan/pengarang bernilai "Semua" jika dimensi
+ * tersebut tidak dikelompokkan.
+ */
+public class RollupRow {
+    public static final String ALL = "Semua";
+
+    private final LocalDate periodStart;
+    private final TimeGrain grain;
+    private final String major;
+    private final String author;
+    private final long totalBorrows;
+    private final double totalFines;
+
+    RollupRow(LocalDate periodStart, TimeGrain grain, String major, String author, long totalBorrows,
+            double totalFines) {
+        this.periodStart = periodStart;
+        this.grain = grain;
+        this.major = major;
+        this.author = author;
+        this.totalBorrows = totalBorrows;
+        this.totalFines = totalFines;
+    }
+
+    public LocalDate getPeriodStart() {
+        return periodStart;
+    }
+
+    public String getPeriodFormatted() {
+        return grain.format(periodStart);
+    }
+
+    public String getMajor() {
+        return major;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public long getTotalBorrows() {
+        return totalBorrows;
+    }
+
+    public double getTotalFines() {
+        return totalFines;
+    }
+}
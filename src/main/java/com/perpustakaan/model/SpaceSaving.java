@@ -0,0 +1,92 @@
+package com.perpustakaan.model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Algoritma Space-Saving untuk mencari kunci yang paling sering muncul (heavy hitters)
+ * dalam aliran data dengan memori terbatas: paling banyak {@code capacity} penghitung.
+ * Jika penuh, kunci baru mengambil alih penghitung terkecil dan mewarisi nilainya
+ * sebagai batas kesalahan, sehingga untuk setiap kunci berlaku
+ * {@code count - error <= jumlah sebenarnya <= count}. Kunci yang muncul lebih dari
+ * total / capacity kali dijamin tetap tercatat.
+ *
+ * Penghitung disimpan terurut menurut hitungan (TreeSet), jadi top-K cukup membaca K
+ * elemen pertama. Tidak thread-safe; dipakai di bawah lock LibraryManager.
+ */
+final class SpaceSaving {
+
+    private static final Comparator<Counter> BY_COUNT_DESC = Comparator.<Counter>comparingLong(counter -> -counter.count)
+            .thenComparingLong(counter -> counter.sequence);
+
+    private final int capacity;
+    private final Map<String, Counter> counters = new HashMap<>();
+    private final TreeSet<Counter> byCount = new TreeSet<>(BY_COUNT_DESC);
+    private long nextSequence;
+
+    private static final class Counter {
+        final String key;
+        final long error;
+        final long sequence; // Urutan masuk, pemecah seri
+        long count;
+
+        Counter(String key, long count, long error, long sequence) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+            this.sequence = sequence;
+        }
+    }
+
+    SpaceSaving(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Kapasitas harus positif: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    void offer(String key) {
+        if (key == null) {
+            return;
+        }
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            byCount.remove(counter);
+            counter.count++;
+            byCount.add(counter);
+            return;
+        }
+        long inherited = 0;
+        if (counters.size() == capacity) {
+            Counter smallest = byCount.pollLast();
+            counters.remove(smallest.key);
+            inherited = smallest.count;
+        }
+        counter = new Counter(key, inherited + 1, inherited, nextSequence++);
+        counters.put(key, counter);
+        byCount.add(counter);
+    }
+
+    void clear() {
+        counters.clear();
+        byCount.clear();
+    }
+
+    /**
+     * @return paling banyak k kunci dengan hitungan terbesar, urut menurun (O(k)).
+     */
+    List<HeavyHitter> top(int k) {
+        List<HeavyHitter> result = new ArrayList<>(Math.min(Math.max(k, 0), byCount.size()));
+        Iterator<Counter> iterator = byCount.iterator();
+        while (result.size() < k && iterator.hasNext()) {
+            Counter counter = iterator.next();
+            result.add(new HeavyHitter(counter.key, counter.count, counter.error));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,89 @@
+package com.perpustakaan.model;
+
+/**
+ * Pencari karakter struktural CSV (koma, tanda kutip, baris baru) di dalam buffer byte.
+ *
+ * Ada dua implementasi: versi skalar biasa, dan {@link VectorStructuralScanner}
+ * yang membandingkan 32/64 byte sekaligus dengan jdk.incubator.vector. Versi vektor
+ * hanya dipakai jika modul tersebut ikut dimuat (--add-modules jdk.incubator.vector)
+ * dan CPU mendukung vektor yang cukup lebar; selain itu otomatis kembali ke versi
+ * skalar. Properti sistem "perpustakaan.csv.vector=false" memaksa versi skalar.
+ */
+abstract class StructuralScanner {
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final StructuralScanner SCALAR = new Scalar();
+    private static final StructuralScanner DEFAULT = select();
+
+    /**
+     * @return pemindai terbaik yang tersedia di JVM ini.
+     */
+    static StructuralScanner get() {
+        return DEFAULT;
+    }
+
+    static StructuralScanner scalar() {
+        return SCALAR;
+    }
+
+    /**
+     * @return posisi pertama di [from, to) yang berisi byte a, atau to jika tidak ada.
+     */
+    abstract int indexOf(byte[] buffer, int from, int to, byte a);
+
+    /**
+     * @return posisi pertama di [from, to) yang berisi byte a atau b, atau to jika tidak ada.
+     */
+    abstract int indexOfEither(byte[] buffer, int from, int to, byte a, byte b);
+
+    abstract String name();
+
+    private static StructuralScanner select() {
+        if (!Boolean.parseBoolean(System.getProperty("perpustakaan.csv.vector", "true"))
+                || ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            return SCALAR;
+        }
+        try {
+            // Dimuat lewat refleksi agar kelas vektor tidak tersentuh saat modulnya tidak ada.
+            StructuralScanner vector = (StructuralScanner) Class
+                    .forName("com.perpustakaan.model.VectorStructuralScanner")
+                    .getDeclaredConstructor().newInstance();
+            return vector.isUsable() ? vector : SCALAR;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            System.err.println("Pemindai CSV vektor tidak tersedia, memakai versi skalar: " + e);
+            return SCALAR;
+        }
+    }
+
+    boolean isUsable() {
+        return true;
+    }
+
+    private static final class Scalar extends StructuralScanner {
+        @Override
+        int indexOf(byte[] buffer, int from, int to, byte a) {
+            for (int i = from; i < to; i++) {
+                if (buffer[i] == a) {
+                    return i;
+                }
+            }
+            return to;
+        }
+
+        @Override
+        int indexOfEither(byte[] buffer, int from, int to, byte a, byte b) {
+            for (int i = from; i < to; i++) {
+                byte value = buffer[i];
+                if (value == a || value == b) {
+                    return i;
+                }
+            }
+            return to;
+        }
+
+        @Override
+        String name() {
+            return "skalar";
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.perpustakaan.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Satuan waktu untuk mengelompokkan rollup sirkulasi.
+ */
+public enum TimeGrain {
+    DAY("Harian", "dd MMM yyyy"),
+    /** Minggu dimulai hari Senin. */
+    WEEK("Mingguan", "'Minggu' dd MMM yyyy"),
+    MONTH("Bulanan", "MMMM yyyy"),
+    /** Setengah tahun: Januari-Juni dan Juli-Desember. */
+    SEMESTER("Semesteran", "yyyy"),
+    YEAR("Tahunan", "yyyy");
+
+    private final String label;
+    private final DateTimeFormatter formatter;
+
+    TimeGrain(String label, String pattern) {
+        this.label = label;
+        this.formatter = DateTimeFormatter.ofPattern(pattern);
+    }
+
+    /**
+     * @return hari pertama periode yang memuat tanggal tersebut.
+     */
+    public LocalDate periodStart(LocalDate date) {
+        switch (this) {
+            case WEEK:
+                return date.with(DayOfWeek.MONDAY);
+            case MONTH:
+                return date.withDayOfMonth(1);
+            case SEMESTER:
+                return date.withDayOfMonth(1).withMonth(date.getMonthValue() <= 6 ? 1 : 7);
+            case YEAR:
+                return date.withDayOfYear(1);
+            default:
+                return date;
+        }
+    }
+
+    /**
+     * @return hari pertama periode berikutnya.
+     */
+    public LocalDate nextPeriod(LocalDate periodStart) {
+        switch (this) {
+            case WEEK:
+                return periodStart.plusWeeks(1);
+            case MONTH:
+                return periodStart.plusMonths(1);
+            case SEMESTER:
+                return periodStart.plusMonths(6);
+            case YEAR:
+                return periodStart.plusYears(1);
+            default:
+                return periodStart.plusDays(1);
+        }
+    }
+
+    public String format(LocalDate periodStart) {
+        if (this == SEMESTER) {
+            return "Semester " + (periodStart.getMonthValue() <= 6 ? 1 : 2) + " " + periodStart.format(formatter);
+        }
+        return periodStart.format(formatter);
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -35,6 +35,13 @@ public class Transaction {
         this.fine = 0.0; // Belum ada denda saat transaksi dibuat
     }
 
+    /**
+     * Konstruktor untuk subclass yang menyimpan datanya di tempat lain
+     * (lihat {@link TransactionView}); semua atribut diakses lewat getter/setter.
+     */
+    Transaction() {
+    }
+
     // Getter dan Setter untuk semua atribut
 
     public String getTransactionId() {
@@ -113,13 +120,16 @@ public class Transaction {
      * @return jumlah denda yang harus dibayar.
      */
     public double calculateFine() {
+        LocalDate dueDate = getDueDate();
+        LocalDate actualReturnDate = getActualReturnDate();
         if (actualReturnDate != null && actualReturnDate.isAfter(dueDate)) {
             long overdueDays = ChronoUnit.DAYS.between(dueDate, actualReturnDate);
             // Asumsi denda adalah 1000 per hari. Anda bisa membuat ini lebih fleksibel.
-            this.fine = overdueDays * 1000.0;
-            return this.fine;
+            double fine = overdueDays * 1000.0;
+            setFine(fine);
+            return fine;
         }
-        this.fine = 0.0;
+        setFine(0.0);
         return 0.0;
     }
 
@@ -132,14 +142,14 @@ public class Transaction {
     @Override
     public String toString() {
         return "Transaction{" +
-               "transactionId='" + transactionId + '\'' +
-               ", memberId='" + memberId + '\'' +
-               ", isbn='" + isbn + '\'' +
-               ", borrowDate=" + borrowDate +
-               ", dueDate=" + dueDate +
-               ", actualReturnDate=" + actualReturnDate +
-               ", status='" + status + '\'' +
-               ", fine=" + fine +
+               "transactionId='" + getTransactionId() + '\'' +
+               ", memberId='" + getMemberId() + '\'' +
+               ", isbn='" + getIsbn() + '\'' +
+               ", borrowDate=" + getBorrowDate() +
+               ", dueDate=" + getDueDate() +
+               ", actualReturnDate=" + getActualReturnDate() +
+               ", status='" + getStatus() + '\'' +
+               ", fine=" + getFine() +
                '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,420 @@
+package com.perpustakaan.model;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Kolom-kolom transaksi di luar heap (off-heap), disusun struct-of-arrays per potongan:
+ * setiap chunk MemorySegment berisi {@value #ROWS_PER_CHUNK} baris, dan di dalamnya
+ * setiap atribut menempati satu wilayah bersambung (semua denda, lalu semua ID, semua
+ * kode anggota, dan seterusnya). Nomor baris sama dengan di {@link TransactionStore},
+ * yang menyimpan kamus dan indeks di atas kolom ini. Query laporan cukup berupa loop
+ * atas satu wilayah kolom per chunk tanpa membuat objek per transaksi, dan tidak ada
+ * salinan kedua di heap yang harus dijaga tetap sama.
+ * <pre>
+ * wilayah  denda (long, sen) | ID (16 byte: panjang + hingga 15 karakter ASCII, atau kode kamus)
+ *          | kode anggota | kode ISBN | pinjam | jatuh tempo | kembali (int, epoch day)
+ *          | kode status (byte)
+ * </pre>
+ * Semua query menerima jumlah baris yang dibaca pemanggil dari store; array chunk
+ * selalu diganti (bukan diperkecil) saat bertambah, sehingga aman dibaca sampai batas itu.
+ */
+final class TransactionColumns {
+
+    static final int ROWS_PER_CHUNK = 1 << 14;
+    static final int ID_SIZE = 16;
+    private static final long FINE_BASE = 0;
+    private static final long ID_BASE = FINE_BASE + (long) ROWS_PER_CHUNK * Long.BYTES;
+    private static final long MEMBER_BASE = ID_BASE + (long) ROWS_PER_CHUNK * ID_SIZE;
+    private static final long ISBN_BASE = MEMBER_BASE + (long) ROWS_PER_CHUNK * Integer.BYTES;
+    private static final long BORROW_BASE = ISBN_BASE + (long) ROWS_PER_CHUNK * Integer.BYTES;
+    private static final long DUE_BASE = BORROW_BASE + (long) ROWS_PER_CHUNK * Integer.BYTES;
+    private static final long RETURN_BASE = DUE_BASE + (long) ROWS_PER_CHUNK * Integer.BYTES;
+    private static final long STATUS_BASE = RETURN_BASE + (long) ROWS_PER_CHUNK * Integer.BYTES;
+    private static final long CHUNK_SIZE = STATUS_BASE + ROWS_PER_CHUNK;
+
+    private static final int PARALLEL_THRESHOLD = 1 << 16; // Baris per partisi statistik paralel
+    private static final long EMPTY_RANGE = pack(Integer.MAX_VALUE, Integer.MIN_VALUE);
+
+    private final Arena arena = Arena.ofAuto();
+    private volatile MemorySegment[] chunks = new MemorySegment[0];
+
+    // Sifat setiap kode status, agar query tidak perlu membandingkan String.
+    private final boolean[] openStatus;
+    private final boolean[] returnedStatus;
+    private final boolean[] overdueStatus;
+
+    TransactionColumns() {
+        this(new boolean[Byte.MAX_VALUE + 1], new boolean[Byte.MAX_VALUE + 1], new boolean[Byte.MAX_VALUE + 1]);
+    }
+
+    private TransactionColumns(boolean[] openStatus, boolean[] returnedStatus, boolean[] overdueStatus) {
+        this.openStatus = openStatus;
+        this.returnedStatus = returnedStatus;
+        this.overdueStatus = overdueStatus;
+    }
+
+    void ensureCapacity(int rows) {
+        MemorySegment[] current = chunks;
+        if (rows <= current.length * ROWS_PER_CHUNK) {
+            return;
+        }
+        MemorySegment[] grown = Arrays.copyOf(current, (rows + ROWS_PER_CHUNK - 1) / ROWS_PER_CHUNK);
+        for (int i = current.length; i < grown.length; i++) {
+            grown[i] = arena.allocate(CHUNK_SIZE, Long.BYTES);
+        }
+        chunks = grown;
+    }
+
+    /**
+     * Salinan baris 0 sampai rowCount-1 (memcpy per chunk) dengan sifat status yang sama.
+     */
+    TransactionColumns copyOf(int rowCount) {
+        TransactionColumns copy = new TransactionColumns(openStatus.clone(), returnedStatus.clone(),
+                overdueStatus.clone());
+        MemorySegment[] copied = new MemorySegment[(rowCount + ROWS_PER_CHUNK - 1) / ROWS_PER_CHUNK];
+        for (int i = 0; i < copied.length; i++) {
+            copied[i] = copy.arena.allocate(CHUNK_SIZE, Long.BYTES);
+            copied[i].copyFrom(chunks[i]);
+        }
+        copy.chunks = copied;
+        return copy;
+    }
+
+    void defineStatus(int code, String status) {
+        openStatus[code] = "Borrowed".equalsIgnoreCase(status) || "Overdue".equalsIgnoreCase(status);
+        returnedStatus[code] = "Returned".equalsIgnoreCase(status);
+        overdueStatus[code] = "Overdue".equalsIgnoreCase(status);
+    }
+
+    boolean isOpenStatus(int code) {
+        return code != TransactionStore.NO_CODE && openStatus[code];
+    }
+
+    boolean isReturnedStatus(int code) {
+        return code != TransactionStore.NO_CODE && returnedStatus[code];
+    }
+
+    boolean isOverdueStatus(int code) {
+        return code != TransactionStore.NO_CODE && overdueStatus[code];
+    }
+
+    // =================================================================================
+    // Akses per baris
+    // =================================================================================
+
+    private MemorySegment chunk(int row) {
+        return chunks[row / ROWS_PER_CHUNK];
+    }
+
+    private static long slot(int row, long base, int width) {
+        return base + (long) (row % ROWS_PER_CHUNK) * width;
+    }
+
+    /**
+     * @return chunk yang memuat 16 byte ID transaksi baris tersebut; posisinya {@link #idOffset(int)}.
+     */
+    MemorySegment idChunk(int row) {
+        return chunk(row);
+    }
+
+    long idOffset(int row) {
+        return slot(row, ID_BASE, ID_SIZE);
+    }
+
+    int memberCode(int row) {
+        return chunk(row).get(ValueLayout.JAVA_INT, slot(row, MEMBER_BASE, Integer.BYTES));
+    }
+
+    void setMemberCode(int row, int code) {
+        chunk(row).set(ValueLayout.JAVA_INT, slot(row, MEMBER_BASE, Integer.BYTES), code);
+    }
+
+    int isbnCode(int row) {
+        return chunk(row).get(ValueLayout.JAVA_INT, slot(row, ISBN_BASE, Integer.BYTES));
+    }
+
+    void setIsbnCode(int row, int code) {
+        chunk(row).set(ValueLayout.JAVA_INT, slot(row, ISBN_BASE, Integer.BYTES), code);
+    }
+
+    int borrowDay(int row) {
+        return chunk(row).get(ValueLayout.JAVA_INT, slot(row, BORROW_BASE, Integer.BYTES));
+    }
+
+    void setBorrowDay(int row, int epochDay) {
+        chunk(row).set(ValueLayout.JAVA_INT, slot(row, BORROW_BASE, Integer.BYTES), epochDay);
+    }
+
+    int dueDay(int row) {
+        return chunk(row).get(ValueLayout.JAVA_INT, slot(row, DUE_BASE, Integer.BYTES));
+    }
+
+    void setDueDay(int row, int epochDay) {
+        chunk(row).set(ValueLayout.JAVA_INT, slot(row, DUE_BASE, Integer.BYTES), epochDay);
+    }
+
+    int returnDay(int row) {
+        return chunk(row).get(ValueLayout.JAVA_INT, slot(row, RETURN_BASE, Integer.BYTES));
+    }
+
+    void setReturnDay(int row, int epochDay) {
+        chunk(row).set(ValueLayout.JAVA_INT, slot(row, RETURN_BASE, Integer.BYTES), epochDay);
+    }
+
+    int statusCode(int row) {
+        return chunk(row).get(ValueLayout.JAVA_BYTE, slot(row, STATUS_BASE, Byte.BYTES));
+    }
+
+    void setStatusCode(int row, int code) {
+        chunk(row).set(ValueLayout.JAVA_BYTE, slot(row, STATUS_BASE, Byte.BYTES), (byte) code);
+    }
+
+    long fineCents(int row) {
+        return chunk(row).get(ValueLayout.JAVA_LONG, slot(row, FINE_BASE, Long.BYTES));
+    }
+
+    void setFineCents(int row, long cents) {
+        chunk(row).set(ValueLayout.JAVA_LONG, slot(row, FINE_BASE, Long.BYTES), cents);
+    }
+
+    // =================================================================================
+    // Query laporan
+    // =================================================================================
+
+    /**
+     * Menghitung jumlah peminjaman per bulan pinjam, serta jumlah pengembalian dan
+     * total denda per bulan kembali, diurutkan menurut bulan. Perhitungan ulang penuh;
+     * aplikasi memakai {@link MonthlyStatsIndex} yang diperbarui per baris.
+     */
+    List<MonthlyStat> monthlyStatistics(int size) {
+        // Lintasan pertama: rentang bulan yang muncul.
+        long range = dayRange(0, size);
+        if (range == EMPTY_RANGE) {
+            return new ArrayList<>();
+        }
+        MonthBuckets buckets = new MonthBuckets(minOf(range), maxOf(range));
+        // Lintasan kedua: akumulasi ke array per bulan.
+        accumulate(0, size, buckets);
+        return buckets.toStatistics();
+    }
+
+    /**
+     * Sama dengan {@link #monthlyStatistics(int)}, tetapi baris dibagi ke beberapa
+     * partisi yang dihitung paralel di fork/join pool: setiap partisi mengisi array
+     * per bulan miliknya sendiri, lalu hasilnya dijumlahkan. Karena semua nilai berupa
+     * bilangan bulat (denda dalam sen), hasilnya identik dengan jalur sekuensial.
+     */
+    List<MonthlyStat> monthlyStatisticsParallel(int size, ForkJoinPool pool) {
+        if (size < PARALLEL_THRESHOLD) {
+            return monthlyStatistics(size);
+        }
+        long range = pool.invoke(new RangeTask(this, 0, size));
+        if (range == EMPTY_RANGE) {
+            return new ArrayList<>();
+        }
+        return pool.invoke(new AccumulateTask(this, 0, size, minOf(range), maxOf(range))).toStatistics();
+    }
+
+    /**
+     * @return hari terkecil dan terbesar (pinjam, atau kembali untuk baris "Returned")
+     *         di rentang baris, dikemas dalam satu long.
+     */
+    private long dayRange(int from, int to) {
+        int minDay = Integer.MAX_VALUE;
+        int maxDay = Integer.MIN_VALUE;
+        MemorySegment[] segments = chunks;
+        for (int row = from; row < to; ) {
+            MemorySegment chunk = segments[row / ROWS_PER_CHUNK];
+            int first = row % ROWS_PER_CHUNK;
+            int last = Math.min(ROWS_PER_CHUNK, first + (to - row));
+            for (int i = first; i < last; i++) {
+                int borrowDay = chunk.getAtIndex(ValueLayout.JAVA_INT, BORROW_BASE / Integer.BYTES + i);
+                if (borrowDay != TransactionStore.NO_DATE) {
+                    minDay = Math.min(minDay, borrowDay);
+                    maxDay = Math.max(maxDay, borrowDay);
+                }
+                int returnDay = chunk.getAtIndex(ValueLayout.JAVA_INT, RETURN_BASE / Integer.BYTES + i);
+                if (returnDay != TransactionStore.NO_DATE
+                        && isReturnedStatus(chunk.get(ValueLayout.JAVA_BYTE, STATUS_BASE + i))) {
+                    minDay = Math.min(minDay, returnDay);
+                    maxDay = Math.max(maxDay, returnDay);
+                }
+            }
+            row += last - first;
+        }
+        return pack(minDay, maxDay);
+    }
+
+    private void accumulate(int from, int to, MonthBuckets buckets) {
+        MonthIndex months = buckets.months;
+        MemorySegment[] segments = chunks;
+        for (int row = from; row < to; ) {
+            MemorySegment chunk = segments[row / ROWS_PER_CHUNK];
+            int first = row % ROWS_PER_CHUNK;
+            int last = Math.min(ROWS_PER_CHUNK, first + (to - row));
+            for (int i = first; i < last; i++) {
+                int borrowDay = chunk.getAtIndex(ValueLayout.JAVA_INT, BORROW_BASE / Integer.BYTES + i);
+                if (borrowDay != TransactionStore.NO_DATE) {
+                    buckets.borrowCounts[months.of(borrowDay)]++;
+                }
+                int returnDay = chunk.getAtIndex(ValueLayout.JAVA_INT, RETURN_BASE / Integer.BYTES + i);
+                if (returnDay != TransactionStore.NO_DATE
+                        && isReturnedStatus(chunk.get(ValueLayout.JAVA_BYTE, STATUS_BASE + i))) {
+                    int month = months.of(returnDay);
+                    buckets.returnCounts[month]++;
+                    long fine = chunk.getAtIndex(ValueLayout.JAVA_LONG, FINE_BASE / Long.BYTES + i);
+                    if (fine > 0) {
+                        buckets.fineTotals[month] += fine;
+                    }
+                }
+            }
+            row += last - first;
+        }
+    }
+
+    private static long pack(int minDay, int maxDay) {
+        return ((long) minDay << 32) | (maxDay & 0xFFFFFFFFL);
+    }
+
+    private static int minOf(long range) {
+        return (int) (range >> 32);
+    }
+
+    private static int maxOf(long range) {
+        return (int) range;
+    }
+
+    private static final class RangeTask extends RecursiveTask<Long> {
+        private final TransactionColumns columns;
+        private final int from;
+        private final int to;
+
+        RangeTask(TransactionColumns columns, int from, int to) {
+            this.columns = columns;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Long compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                return columns.dayRange(from, to);
+            }
+            int middle = (from + to) >>> 1;
+            RangeTask left = new RangeTask(columns, from, middle);
+            left.fork();
+            long right = new RangeTask(columns, middle, to).compute();
+            long leftRange = left.join();
+            return pack(Math.min(minOf(leftRange), minOf(right)), Math.max(maxOf(leftRange), maxOf(right)));
+        }
+    }
+
+    private static final class AccumulateTask extends RecursiveTask<MonthBuckets> {
+        private final TransactionColumns columns;
+        private final int from;
+        private final int to;
+        private final int minDay;
+        private final int maxDay;
+
+        AccumulateTask(TransactionColumns columns, int from, int to, int minDay, int maxDay) {
+            this.columns = columns;
+            this.from = from;
+            this.to = to;
+            this.minDay = minDay;
+            this.maxDay = maxDay;
+        }
+
+        @Override
+        protected MonthBuckets compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                MonthBuckets buckets = new MonthBuckets(minDay, maxDay);
+                columns.accumulate(from, to, buckets);
+                return buckets;
+            }
+            int middle = (from + to) >>> 1;
+            AccumulateTask left = new AccumulateTask(columns, from, middle, minDay, maxDay);
+            left.fork();
+            MonthBuckets right = new AccumulateTask(columns, middle, to, minDay, maxDay).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    /**
+     * Array penjumlah per bulan untuk satu partisi baris.
+     */
+    private static final class MonthBuckets {
+        final MonthIndex months;
+        final int[] borrowCounts;
+        final int[] returnCounts;
+        final long[] fineTotals;
+
+        MonthBuckets(int minDay, int maxDay) {
+            months = new MonthIndex(minDay);
+            int monthCount = months.of(maxDay) + 1;
+            borrowCounts = new int[monthCount];
+            returnCounts = new int[monthCount];
+            fineTotals = new long[monthCount];
+        }
+
+        MonthBuckets merge(MonthBuckets other) {
+            for (int month = 0; month < borrowCounts.length; month++) {
+                borrowCounts[month] += other.borrowCounts[month];
+                returnCounts[month] += other.returnCounts[month];
+                fineTotals[month] += other.fineTotals[month];
+            }
+            return this;
+        }
+
+        List<MonthlyStat> toStatistics() {
+            List<MonthlyStat> result = new ArrayList<>();
+            for (int month = 0; month < borrowCounts.length; month++) {
+                if (borrowCounts[month] == 0 && returnCounts[month] == 0) {
+                    continue;
+                }
+                MonthlyStat stat = new MonthlyStat(months.first.plusMonths(month));
+                stat.addBorrows(borrowCounts[month]);
+                stat.addReturns(returnCounts[month]);
+                if (fineTotals[month] > 0) {
+                    stat.addFines(fineTotals[month] / 100.0);
+                }
+                result.add(stat);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Mengubah epoch day menjadi indeks bulan relatif terhadap bulan pertama.
+     * Hasil terakhir diingat karena baris yang berdekatan biasanya berada di hari
+     * yang sama.
+     */
+    private static final class MonthIndex {
+        final YearMonth first;
+        private final int firstIndex;
+        private int lastDay = TransactionStore.NO_DATE;
+        private int lastMonth;
+
+        MonthIndex(int firstDay) {
+            this.first = YearMonth.from(LocalDate.ofEpochDay(firstDay));
+            this.firstIndex = first.getYear() * 12 + first.getMonthValue() - 1;
+        }
+
+        int of(int epochDay) {
+            if (epochDay != lastDay) {
+                LocalDate date = LocalDate.ofEpochDay(epochDay);
+                lastMonth = date.getYear() * 12 + date.getMonthValue() - 1 - firstIndex;
+                lastDay = epochDay;
+            }
+            return lastMonth;
+        }
+    }
+}
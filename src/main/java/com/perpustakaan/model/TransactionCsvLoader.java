@@ -0,0 +1,308 @@
+package com.perpustakaan.model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Memuat transactions.csv secara paralel.
+ *
+ * File dibagi menjadi beberapa rentang byte yang selalu berakhir di batas record
+ * (baris baru di luar tanda kutip). Setiap rentang diparse oleh tugas fork/join
+ * terpisah dengan {@link CsvReader}, lalu hasilnya ditambahkan ke
+ * {@link TransactionStore} sesuai urutan di file. Baris yang rusak dilaporkan
+ * per baris seperti loader sekuensial sebelumnya.
+ *
+ * Hanya parsing yang paralel. Penggabungan tetap sekuensial karena nomor baris
+ * mengikuti urutan file dan setiap {@link TransactionStore#add} memperbarui indeks
+ * inti (ID, pinjaman terbuka, jatuh tempo, riwayat anggota); untuk file besar waktu
+ * muat didominasi langkah ini, bukan parsing.
+ */
+final class TransactionCsvLoader {
+
+    static final String HEADER = "TransactionID,MemberID,ISBN,BorrowDate,DueDate,ActualReturnDate,Status,Fine";
+
+    private static final long MIN_CHUNK_BYTES = 1 << 20;
+    private static final long MAX_CHUNK_BYTES = 256L << 20;
+    private static final int SCAN_BUFFER_BYTES = 1 << 20;
+
+    // Status pemindaian batas record, mengikuti aturan kutip CsvReader.scanRecord.
+    private static final int FIELD_START = 0;
+    private static final int UNQUOTED = 1;
+    private static final int QUOTED = 2;
+    private static final int QUOTE_IN_QUOTED = 3;
+
+    private TransactionCsvLoader() {
+    }
+
+    /**
+     * @return jumlah transaksi yang berhasil dimuat.
+     * @throws java.nio.file.NoSuchFileException jika file tidak ada.
+     */
+    static int load(Path path, TransactionStore store) throws IOException {
+        return load(path, store, 0);
+    }
+
+    /**
+     * @param chunkBytes ukuran rentang per tugas; 0 berarti dipilih dari ukuran file dan jumlah core.
+     */
+    static int load(Path path, TransactionStore store, long chunkBytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return 0;
+            }
+            if (chunkBytes <= 0) {
+                int parallelism = ForkJoinPool.getCommonPoolParallelism();
+                chunkBytes = Math.min(MAX_CHUNK_BYTES, Math.max(MIN_CHUNK_BYTES, size / (parallelism * 4L)));
+            }
+            long[] bounds = recordBoundaries(channel, size, chunkBytes);
+
+            checkHeader(path, read(channel, 0, bounds[0]));
+
+            Chunk[] chunks = new Chunk[bounds.length - 1];
+            if (chunks.length == 1) {
+                chunks[0] = parse(path, read(channel, bounds[0], bounds[1]));
+            } else if (chunks.length > 1) {
+                try {
+                    ForkJoinPool.commonPool().invoke(new ParseTask(path, channel, bounds, chunks, 0, chunks.length));
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+            }
+
+            // Gabungkan sesuai urutan file (sekuensial, lihat dokumentasi kelas).
+            int loaded = 0;
+            for (Chunk chunk : chunks) {
+                loaded += chunk.appendTo(store);
+                for (String error : chunk.errors) {
+                    System.err.println(error);
+                }
+            }
+            return loaded;
+        }
+    }
+
+    /**
+     * Mencari batas record: indeks 0 adalah akhir header, elemen terakhir adalah
+     * ukuran file, dan setiap batas lain adalah posisi setelah baris baru (di luar
+     * tanda kutip) pertama sesudah jarak chunkBytes dari batas sebelumnya.
+     *
+     * Tanda kutip ditafsirkan persis seperti {@link CsvReader}: hanya '"' di awal field
+     * (setelah spasi/tab) yang membuka field berkutip, '""' di dalamnya adalah kutip
+     * literal, dan '"' di tengah field tanpa kutip (misalnya ID 12"3) atau setelah kutip
+     * penutup diabaikan. Dengan begitu batas tidak pernah jatuh di dalam field berkutip
+     * yang dibaca CsvReader sebagai satu nilai. Pemindaian ini hanya melompat antar
+     * karakter struktural (lewat {@link StructuralScanner}) sehingga jauh lebih ringan
+     * daripada parsing.
+     */
+    static long[] recordBoundaries(FileChannel channel, long size, long chunkBytes) throws IOException {
+        long[] bounds = new long[8];
+        int count = 0;
+        int state = FIELD_START;
+        long nextTarget = 0; // Batas pertama: akhir header
+        ByteBuffer scan = ByteBuffer.allocate(SCAN_BUFFER_BYTES);
+        StructuralScanner scanner = StructuralScanner.get();
+        long offset = 0;
+        while (offset < size) {
+            scan.clear();
+            int read = channel.read(scan, offset);
+            if (read <= 0) {
+                break;
+            }
+            byte[] bytes = scan.array();
+            int i = 0;
+            while (i < read) {
+                switch (state) {
+                    case FIELD_START:
+                        if (bytes[i] == ' ' || bytes[i] == '\t') {
+                            i++;
+                        } else if (bytes[i] == '"') {
+                            state = QUOTED;
+                            i++;
+                        } else {
+                            state = UNQUOTED; // Byte ini dibaca lagi sebagai isi field
+                        }
+                        break;
+                    case QUOTED:
+                        i = scanner.indexOf(bytes, i, read, (byte) '"');
+                        if (i < read) {
+                            state = QUOTE_IN_QUOTED;
+                            i++;
+                        }
+                        break;
+                    case QUOTE_IN_QUOTED:
+                        // '""' adalah kutip literal; selain itu field berkutip sudah ditutup.
+                        state = bytes[i] == '"' ? QUOTED : UNQUOTED;
+                        if (state == QUOTED) {
+                            i++;
+                        }
+                        break;
+                    default: // UNQUOTED: kutip di sini bukan karakter struktural
+                        i = scanner.indexOfEither(bytes, i, read, (byte) ',', (byte) '\n');
+                        if (i < read) {
+                            if (bytes[i] == '\n' && offset + i >= nextTarget) {
+                                if (count == bounds.length) {
+                                    bounds = Arrays.copyOf(bounds, count * 2);
+                                }
+                                bounds[count++] = offset + i + 1;
+                                nextTarget = offset + i + 1 + chunkBytes;
+                            }
+                            state = FIELD_START;
+                            i++;
+                        }
+                        break;
+                }
+            }
+            offset += read;
+        }
+        if (count == 0 || bounds[count - 1] < size) {
+            if (count == bounds.length) {
+                bounds = Arrays.copyOf(bounds, count + 1);
+            }
+            bounds[count++] = size;
+        }
+        if (count == 1) {
+            // Hanya header (tanpa baris baru): tidak ada data.
+            return new long[] { size, size };
+        }
+        return Arrays.copyOf(bounds, count);
+    }
+
+    private static byte[] read(FileChannel channel, long start, long end) throws IOException {
+        byte[] bytes = new byte[(int) (end - start)];
+        ByteBuffer target = ByteBuffer.wrap(bytes);
+        while (target.hasRemaining()) {
+            if (channel.read(target, start + target.position()) < 0) {
+                throw new IOException("File berubah saat dibaca (akhir file lebih awal dari perkiraan).");
+            }
+        }
+        return bytes;
+    }
+
+    private static void checkHeader(Path path, byte[] headerBytes) throws IOException {
+        try (CsvReader csv = new CsvReader(headerBytes, headerBytes.length)) {
+            if (csv.nextRecord() && !csv.getLine().trim().equalsIgnoreCase(HEADER)) {
+                System.err.println("Peringatan: Header file " + path + " tidak sesuai harapan. Konten aktual: "
+                        + csv.getLine());
+            }
+        }
+    }
+
+    private static Chunk parse(Path path, byte[] bytes) throws IOException {
+        Chunk chunk = new Chunk();
+        try (CsvReader csv = new CsvReader(bytes, bytes.length)) {
+            while (csv.nextRecord()) {
+                if (csv.getFieldCount() >= 8) {
+                    try {
+                        int borrowDay = csv.getEpochDay(3);
+                        int dueDay = csv.getEpochDay(4);
+                        int returnDay = csv.isEmptyOrNull(5) ? TransactionStore.NO_DATE : csv.getEpochDay(5);
+                        double fine = csv.getDouble(7);
+                        chunk.add(csv.getString(0), csv.getString(1), csv.getString(2), borrowDay, dueDay, returnDay,
+                                csv.getString(6), fine);
+                    } catch (DateTimeParseException e) {
+                        chunk.errors.add("Error parsing tanggal di " + path.getFileName() + " pada baris: "
+                                + csv.getLine() + ". Error: " + e.getMessage());
+                    } catch (NumberFormatException e) {
+                        chunk.errors.add("Error parsing angka (denda) di " + path.getFileName() + " pada baris: "
+                                + csv.getLine() + ". Error: " + e.getMessage());
+                    }
+                } else {
+                    chunk.errors.add("Baris data transaksi tidak lengkap di " + path.getFileName() + ": "
+                            + csv.getLine());
+                }
+            }
+        }
+        return chunk;
+    }
+
+    /**
+     * Membagi rentang chunk menjadi dua sampai tersisa satu chunk per tugas.
+     */
+    private static final class ParseTask extends RecursiveAction {
+        private final Path path;
+        private final FileChannel channel;
+        private final long[] bounds;
+        private final Chunk[] results;
+        private final int from;
+        private final int to;
+
+        ParseTask(Path path, FileChannel channel, long[] bounds, Chunk[] results, int from, int to) {
+            this.path = path;
+            this.channel = channel;
+            this.bounds = bounds;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ParseTask(path, channel, bounds, results, from, middle),
+                        new ParseTask(path, channel, bounds, results, middle, to));
+                return;
+            }
+            try {
+                results[from] = parse(path, read(channel, bounds[from], bounds[from + 1]));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Hasil parsing satu rentang, disimpan per kolom sampai digabung ke store.
+     */
+    private static final class Chunk {
+        final List<String> errors = new ArrayList<>();
+        private int count;
+        private String[] ids = new String[256];
+        private String[] memberIds = new String[256];
+        private String[] isbns = new String[256];
+        private String[] statuses = new String[256];
+        private int[] days = new int[256 * 3];
+        private double[] fines = new double[256];
+
+        void add(String id, String memberId, String isbn, int borrowDay, int dueDay, int returnDay, String status,
+                double fine) {
+            if (count == ids.length) {
+                int capacity = count * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                memberIds = Arrays.copyOf(memberIds, capacity);
+                isbns = Arrays.copyOf(isbns, capacity);
+                statuses = Arrays.copyOf(statuses, capacity);
+                days = Arrays.copyOf(days, capacity * 3);
+                fines = Arrays.copyOf(fines, capacity);
+            }
+            ids[count] = id;
+            memberIds[count] = memberId;
+            isbns[count] = isbn;
+            statuses[count] = status;
+            days[count * 3] = borrowDay;
+            days[count * 3 + 1] = dueDay;
+            days[count * 3 + 2] = returnDay;
+            fines[count] = fine;
+            count++;
+        }
+
+        int appendTo(TransactionStore store) {
+            for (int i = 0; i < count; i++) {
+                store.add(ids[i], memberIds[i], isbns[i], days[i * 3], days[i * 3 + 1], days[i * 3 + 2], statuses[i],
+                        fines[i]);
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.perpustakaan.model;
+
+import java.util.Arrays;
+
+/**
+ * Indeks ID transaksi (tanpa membedakan huruf besar/kecil) ke nomor baris
+ * {@link TransactionStore}, berupa tabel hash open addressing di atas array int
+ * agar jutaan transaksi tidak membutuhkan satu objek entri per baris.
+ *
+ * Slot berisi nomor baris, EMPTY, atau DELETED (bekas baris yang ID-nya diganti).
+ * Hash setiap baris disimpan di array terpisah sehingga tabel bisa diperbesar
+ * tanpa membaca ulang ID dari store. Perubahan dilakukan di bawah lock
+ * LibraryManager; tabel baru selalu diisi penuh sebelum dipasang sehingga
+ * pembaca tanpa lock paling buruk hanya melihat keadaan lama.
+ */
+final class TransactionIdIndex {
+
+    private static final int EMPTY = -1;
+    private static final int DELETED = -2;
+
+    private volatile int[] slots = newSlots(1024);
+    private int[] rowHashes = new int[1024];
+    private boolean[] indexed = new boolean[1024];
+    private int used; // Slot terisi + DELETED
+
+    void add(int row, String transactionId) {
+        if (row >= indexed.length) {
+            int capacity = Math.max(row + 1, indexed.length * 2);
+            rowHashes = Arrays.copyOf(rowHashes, capacity);
+            indexed = Arrays.copyOf(indexed, capacity);
+        }
+        if (transactionId == null) {
+            indexed[row] = false; // ID null tidak pernah dicari
+            return;
+        }
+        if ((used + 1) * 4L > slots.length * 3L) {
+            rehash();
+        }
+        int hash = mix(CaseInsensitiveIndex.foldedHash(transactionId));
+        rowHashes[row] = hash;
+        indexed[row] = true;
+        int[] table = slots;
+        int mask = table.length - 1;
+        for (int slot = hash & mask;; slot = (slot + 1) & mask) {
+            if (table[slot] == EMPTY) {
+                table[slot] = row;
+                used++;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Dipanggil sebelum ID baris diganti.
+     */
+    void remove(int row) {
+        if (row >= indexed.length || !indexed[row]) {
+            return;
+        }
+        int[] table = slots;
+        int mask = table.length - 1;
+        for (int slot = rowHashes[row] & mask; table[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (table[slot] == row) {
+                table[slot] = DELETED;
+                break;
+            }
+        }
+        indexed[row] = false;
+    }
+
+    /**
+     * @return baris pertama (nomor terkecil) dengan ID tersebut, atau -1.
+     */
+    int find(String transactionId, TransactionStore store) {
+        int size = store.size();
+        int[] table = slots;
+        int mask = table.length - 1;
+        int found = -1;
+        for (int slot = mix(CaseInsensitiveIndex.foldedHash(transactionId)) & mask; table[slot] != EMPTY;
+                slot = (slot + 1) & mask) {
+            int row = table[slot];
+            if (row >= 0 && row < size && (found < 0 || row < found)
+                    && store.transactionIdEqualsIgnoreCase(row, transactionId)) {
+                found = row;
+            }
+        }
+        return found;
+    }
+
+    private void rehash() {
+        int live = 0;
+        for (boolean isIndexed : indexed) {
+            if (isIndexed) {
+                live++;
+            }
+        }
+        int capacity = slots.length;
+        while ((live + 1) * 2L > capacity) {
+            capacity *= 2;
+        }
+        int[] table = newSlots(capacity);
+        int mask = capacity - 1;
+        for (int row = 0; row < indexed.length; row++) {
+            if (indexed[row]) {
+                int slot = rowHashes[row] & mask;
+                while (table[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = row;
+            }
+        }
+        used = live;
+        slots = table;
+    }
+
+    private static int[] newSlots(int capacity) {
+        int[] table = new int[capacity];
+        Arrays.fill(table, EMPTY);
+        return table;
+    }
+
+    private static int mix(int hash) {
+        // Sebar bit tinggi ke bawah; ID seperti "TRX-000123" berbeda hanya di karakter akhir.
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
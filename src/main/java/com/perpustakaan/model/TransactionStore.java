@@ -0,0 +1,812 @@
+package com.perpustakaan.model;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * Penyimpanan riwayat transaksi di luar heap (off-heap) memakai Foreign Memory API.
+ *
+ * Setiap transaksi adalah satu nomor baris di {@link TransactionColumns}, yang menyimpan
+ * atributnya per kolom di dalam potongan (chunk) MemorySegment: ID transaksi (hingga 15
+ * karakter ASCII inline, atau kode kamus), kode anggota, kode ISBN, tanggal pinjam,
+ * jatuh tempo dan kembali (epoch day, NO_DATE jika belum), kode status dan denda
+ * dalam sen. ID anggota, ISBN dan status yang berulang disimpan sekali di kamus on-heap
+ * dan kolom hanya menyimpan kodenya. ID transaksi, pinjaman yang masih terbuka (juga
+ * per jatuh tempo) dan riwayat per anggota
+ * diindeks di {@link TransactionIdIndex}, {@link OpenLoanIndex}, {@link DueDateIndex} dan
+ * {@link MemberHistoryIndex}, tanggal pinjam dan kembali di dua {@link DayRowIndex};
+ * statistik bulanan dan rollup per jurusan/pengarang dijaga di {@link MonthlyStatsIndex}
+ * dan {@link CirculationCube}, dan buku/anggota terpopuler di {@link BorrowTrends}. Objek {@link Transaction} untuk pemakai store dibuat
+ * sebagai {@link TransactionView} yang membaca/menulis langsung ke baris ini.
+ *
+ * Indeks inti (ID, pinjaman terbuka, jatuh tempo, riwayat anggota) diperbarui sejak
+ * baris pertama karena dibutuhkan peminjaman dan pengembalian. Struktur analitik
+ * (statistik bulanan dan kubus rollup, indeks tanggal pinjam/kembali, tren, dan
+ * co-borrow) baru dibangun dari seluruh baris saat pertama kali diminta, lalu
+ * diperbarui per baris seperti indeks lainnya; memuat data saat start tidak membayar
+ * biaya struktur yang belum dipakai.
+ *
+ * Penambahan dan perubahan baris dilakukan di bawah lock LibraryManager; memori
+ * dilepas otomatis oleh GC ketika store tidak lagi dipakai.
+ */
+final class TransactionStore {
+
+    static final int NO_DATE = Integer.MIN_VALUE;
+    static final int NO_CODE = -1;
+
+    private static final int MAX_INLINE_ID = TransactionColumns.ID_SIZE - 1;
+    private static final byte ID_IN_DICTIONARY = -1;
+    private static final byte ID_NULL = -2;
+
+    private volatile int size;
+
+    // Kamus hanya bertambah, sehingga kode yang sudah ada tetap berlaku (dipakai bersama oleh salinan)
+    private final StringDictionary memberIds;
+    private final StringDictionary isbns;
+    private final StringDictionary statuses;
+    private final StringDictionary longIds; // ID yang tidak muat inline
+    private final TransactionColumns columns;
+    private final TransactionIdIndex idIndex = new TransactionIdIndex();
+    private final OpenLoanIndex openLoans = new OpenLoanIndex();
+    private final DueDateIndex dueDates = new DueDateIndex();
+    private final MemberHistoryIndex memberHistory;
+    private final MonthlyStatsIndex monthlyStats = new MonthlyStatsIndex();
+    private final CirculationCube circulation = new CirculationCube();
+    private final BorrowTrends trends = new BorrowTrends();
+    private final CoBorrowIndex coBorrows = new CoBorrowIndex();
+    private final DayRowIndex borrowDates = new DayRowIndex();
+    private final DayRowIndex returnDates = new DayRowIndex(); // Hanya baris "Returned"
+
+    // Struktur analitik yang sudah dibangun (lihat ensureBuilt)
+    private static final int STATS = 1;      // monthlyStats dan circulation
+    private static final int DATES = 2;      // borrowDates dan returnDates
+    private static final int TRENDS = 4;
+    private static final int CO_BORROWS = 8;
+    private int built;
+
+    TransactionStore() {
+        this(new TransactionColumns(), new StringDictionary(), new StringDictionary(), new StringDictionary(),
+                new StringDictionary());
+    }
+
+    private TransactionStore(TransactionColumns columns, StringDictionary memberIds, StringDictionary isbns,
+            StringDictionary statuses, StringDictionary longIds) {
+        this.columns = columns;
+        this.memberHistory = new MemberHistoryIndex(columns);
+        this.memberIds = memberIds;
+        this.isbns = isbns;
+        this.statuses = statuses;
+        this.longIds = longIds;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Salinan baris 0 sampai rowCount-1 untuk ditulis ke disk di luar lock: memori kolom
+     * disalin (memcpy), kamus dipakai bersama. Hanya untuk dibaca; indeks salinan kosong.
+     */
+    TransactionStore copyOf(int rowCount) {
+        TransactionStore copy = new TransactionStore(columns.copyOf(rowCount), memberIds, isbns, statuses, longIds);
+        copy.size = rowCount;
+        return copy;
+    }
+
+    /**
+     * @return kolom laporan; baca {@link #size()} lebih dulu lalu query sampai batas itu.
+     */
+    TransactionColumns columns() {
+        return columns;
+    }
+
+    /**
+     * Menyalin transaksi ke baris baru.
+     *
+     * @return nomor baris transaksi tersebut.
+     */
+    int add(Transaction transaction) {
+        return add(transaction.getTransactionId(), transaction.getMemberId(), transaction.getIsbn(),
+                toDay(transaction.getBorrowDate()), toDay(transaction.getDueDate()),
+                toDay(transaction.getActualReturnDate()), transaction.getStatus(), transaction.getFine());
+    }
+
+    /**
+     * Menambah baris baru langsung dari nilai kolomnya (tanggal dalam epoch day).
+     *
+     * @return nomor baris transaksi tersebut.
+     */
+    int add(String transactionId, String memberId, String isbn, int borrowDay, int dueDay, int returnDay,
+            String status, double fine) {
+        int row = size;
+        columns.ensureCapacity(row + 1);
+        setTransactionId(row, transactionId);
+        setMemberId(row, memberId);
+        setIsbn(row, isbn);
+        setBorrowDay(row, borrowDay);
+        setDueDay(row, dueDay);
+        setReturnDay(row, returnDay);
+        setStatus(row, status);
+        setFine(row, fine);
+        size = row + 1;
+        indexOpenLoan(row);
+        memberHistory.add(memberCode(row), row);
+        indexStats(row);
+        if (isBuilt(DATES)) {
+            borrowDates.add(borrowDay, row);
+        }
+        indexReturnDate(row);
+        if (isBuilt(TRENDS)) {
+            trends.offer(borrowDay, memberId, isbn);
+        }
+        if (isBuilt(CO_BORROWS)) {
+            coBorrows.offer(memberCode(row), isbnCode(row));
+        }
+        return row;
+    }
+
+    TransactionView view(int row) {
+        return new TransactionView(this, row);
+    }
+
+    /**
+     * @return daftar view yang selalu mengikuti isi store (ukuran ikut bertambah).
+     */
+    List<Transaction> asList() {
+        return new AbstractList<>() {
+            @Override
+            public Transaction get(int index) {
+                return view(checkRow(index, size));
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * @return daftar read-only yang membuat view baris-baris tersebut hanya saat dibaca.
+     */
+    List<Transaction> lazyViews(int[] rows) {
+        return new AbstractList<>() {
+            @Override
+            public Transaction get(int index) {
+                return view(rows[checkRow(index, rows.length)]);
+            }
+
+            @Override
+            public int size() {
+                return rows.length;
+            }
+        };
+    }
+
+    /**
+     * @return view untuk baris-baris tersebut, dengan urutan yang sama.
+     */
+    List<Transaction> views(int[] rows) {
+        List<Transaction> result = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            result.add(view(row));
+        }
+        return result;
+    }
+
+    private static int checkRow(int index, int limit) {
+        if (index < 0 || index >= limit) {
+            throw new IndexOutOfBoundsException("Baris " + index + " di luar batas " + limit);
+        }
+        return index;
+    }
+
+    // =================================================================================
+    // Akses kolom
+    // =================================================================================
+
+    String transactionId(int row) {
+        MemorySegment chunk = columns.idChunk(row);
+        long base = columns.idOffset(row);
+        byte length = chunk.get(ValueLayout.JAVA_BYTE, base);
+        if (length == ID_IN_DICTIONARY) {
+            return longIds.get(chunk.get(ValueLayout.JAVA_INT, base + 4));
+        }
+        if (length == ID_NULL) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        MemorySegment.copy(chunk, ValueLayout.JAVA_BYTE, base + 1, bytes, 0, length);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    void setTransactionId(int row, String transactionId) {
+        if (row < size) {
+            idIndex.remove(row);
+        }
+        writeTransactionId(row, transactionId);
+        idIndex.add(row, transactionId);
+    }
+
+    /**
+     * @return baris pertama dengan ID tersebut (tanpa membedakan huruf besar/kecil), atau -1.
+     */
+    int findRow(String transactionId) {
+        return transactionId == null ? -1 : idIndex.find(transactionId, this);
+    }
+
+    private void writeTransactionId(int row, String transactionId) {
+        MemorySegment chunk = columns.idChunk(row);
+        long base = columns.idOffset(row);
+        if (transactionId == null) {
+            chunk.set(ValueLayout.JAVA_BYTE, base, ID_NULL);
+            return;
+        }
+        if (transactionId.length() > MAX_INLINE_ID || !isAscii(transactionId)) {
+            chunk.set(ValueLayout.JAVA_BYTE, base, ID_IN_DICTIONARY);
+            chunk.set(ValueLayout.JAVA_INT, base + 4, longIds.codeOf(transactionId));
+            return;
+        }
+        chunk.set(ValueLayout.JAVA_BYTE, base, (byte) transactionId.length());
+        for (int i = 0; i < transactionId.length(); i++) {
+            chunk.set(ValueLayout.JAVA_BYTE, base + 1 + i, (byte) transactionId.charAt(i));
+        }
+    }
+
+    /**
+     * Membandingkan ID transaksi tanpa membuat String (seperti equalsIgnoreCase).
+     */
+    boolean transactionIdEqualsIgnoreCase(int row, String transactionId) {
+        MemorySegment chunk = columns.idChunk(row);
+        long base = columns.idOffset(row);
+        byte length = chunk.get(ValueLayout.JAVA_BYTE, base);
+        if (length == ID_IN_DICTIONARY || !isAscii(transactionId)) {
+            return transactionId.equalsIgnoreCase(transactionId(row));
+        }
+        if (length != transactionId.length()) {
+            return false; // Termasuk ID null (ID_NULL)
+        }
+        for (int i = 0; i < length; i++) {
+            int stored = chunk.get(ValueLayout.JAVA_BYTE, base + 1 + i);
+            if (toUpperAscii(stored) != toUpperAscii(transactionId.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Menulis satu baris sebagai record CSV transactions.csv, langsung dari kolomnya.
+     */
+    void writeCsvRecord(int row, CsvWriter out) throws IOException {
+        MemorySegment chunk = columns.idChunk(row);
+        long base = columns.idOffset(row);
+        byte length = chunk.get(ValueLayout.JAVA_BYTE, base);
+        if (length >= 0) {
+            out.writeAscii(chunk, base + 1, length);
+        } else {
+            out.writeString(transactionId(row));
+        }
+        out.writeString(memberId(row));
+        out.writeString(isbn(row));
+        out.writeDate(borrowDay(row));
+        out.writeDate(dueDay(row));
+        out.writeDate(returnDay(row));
+        out.writeString(status(row));
+        out.writeCents(fineCents(row));
+        out.endRecord();
+    }
+
+    int memberCode(int row) {
+        return columns.memberCode(row);
+    }
+
+    String memberId(int row) {
+        return memberIds.get(memberCode(row));
+    }
+
+    void setMemberId(int row, String memberId) {
+        int code = memberIds.codeOf(memberId);
+        if (row < size && code == memberCode(row)) {
+            return;
+        }
+        unindexOpenLoan(row);
+        unindexHistory(row);
+        unindexStats(row);
+        circulation.forget(row);
+        columns.setMemberCode(row, code);
+        indexOpenLoan(row);
+        indexHistory(row);
+        indexStats(row);
+    }
+
+    int isbnCode(int row) {
+        return columns.isbnCode(row);
+    }
+
+    String isbn(int row) {
+        return isbns.get(isbnCode(row));
+    }
+
+    void setIsbn(int row, String isbn) {
+        int code = isbns.codeOf(isbn);
+        if (row < size && code == isbnCode(row)) {
+            return;
+        }
+        unindexOpenLoan(row);
+        unindexStats(row);
+        circulation.forget(row);
+        columns.setIsbnCode(row, code);
+        indexOpenLoan(row);
+        indexStats(row);
+    }
+
+    int borrowDay(int row) {
+        return columns.borrowDay(row);
+    }
+
+    void setBorrowDay(int row, int epochDay) {
+        if (row < size && epochDay == borrowDay(row)) {
+            return; // Tanpa perubahan (misalnya replay jurnal): indeks tidak perlu disentuh
+        }
+        unindexHistory(row);
+        unindexStats(row);
+        if (row < size && isBuilt(DATES)) {
+            borrowDates.remove(borrowDay(row), row);
+        }
+        columns.setBorrowDay(row, epochDay);
+        indexHistory(row);
+        indexStats(row);
+        if (row < size && isBuilt(DATES)) {
+            borrowDates.add(epochDay, row);
+        }
+    }
+
+    int dueDay(int row) {
+        return columns.dueDay(row);
+    }
+
+    void setDueDay(int row, int epochDay) {
+        if (row < size && epochDay == dueDay(row)) {
+            return;
+        }
+        unindexOpenLoan(row);
+        columns.setDueDay(row, epochDay);
+        indexOpenLoan(row);
+    }
+
+    int returnDay(int row) {
+        return columns.returnDay(row);
+    }
+
+    void setReturnDay(int row, int epochDay) {
+        if (row < size && epochDay == returnDay(row)) {
+            return;
+        }
+        unindexStats(row);
+        unindexReturnDate(row);
+        columns.setReturnDay(row, epochDay);
+        indexStats(row);
+        indexReturnDate(row);
+    }
+
+    int statusCode(int row) {
+        return columns.statusCode(row);
+    }
+
+    String status(int row) {
+        return statuses.get(statusCode(row));
+    }
+
+    void setStatus(int row, String status) {
+        int code = statuses.codeOf(status);
+        if (code > Byte.MAX_VALUE) {
+            throw new IllegalStateException("Terlalu banyak jenis status transaksi: " + status);
+        }
+        if (code != NO_CODE) {
+            columns.defineStatus(code, status);
+        }
+        if (row < size && code == statusCode(row)) {
+            return;
+        }
+        unindexOpenLoan(row);
+        unindexStats(row);
+        unindexReturnDate(row);
+        columns.setStatusCode(row, code);
+        indexOpenLoan(row);
+        indexStats(row);
+        indexReturnDate(row);
+    }
+
+    /**
+     * @return true jika status baris adalah "Borrowed" atau "Overdue" (tanpa membedakan huruf besar).
+     */
+    boolean isOpen(int row) {
+        return columns.isOpenStatus(statusCode(row));
+    }
+
+    boolean isReturned(int row) {
+        return columns.isReturnedStatus(statusCode(row));
+    }
+
+    /**
+     * @return true jika anggota masih meminjam buku tersebut (pencarian indeks, bukan pemindaian riwayat).
+     *         Boleh dipanggil tanpa lock LibraryManager.
+     */
+    boolean hasOpenLoan(String memberId, String isbn) {
+        int memberCode = memberIds.find(memberId);
+        int isbnCode = isbns.find(isbn);
+        return memberCode != NO_CODE && isbnCode != NO_CODE && openLoans.contains(memberCode, isbnCode);
+    }
+
+    /**
+     * @return nomor baris yang statusnya masih dipinjam ("Borrowed"/"Overdue"), urut menaik.
+     */
+    int[] openRows() {
+        return openLoans.rows();
+    }
+
+    // Baris yang sedang ditambahkan (row == size) baru diindeks setelah semua kolomnya terisi.
+    private void indexOpenLoan(int row) {
+        if (row < size && isOpen(row)) {
+            openLoans.add(row, memberCode(row), isbnCode(row));
+            dueDates.add(row, dueDay(row), !columns.isOverdueStatus(statusCode(row)));
+        }
+    }
+
+    private void unindexOpenLoan(int row) {
+        if (row < size && isOpen(row)) {
+            openLoans.remove(row, memberCode(row), isbnCode(row));
+            dueDates.remove(row, dueDay(row));
+        }
+    }
+
+    /**
+     * @return pinjaman terbuka yang jatuh tempo sebelum hari tersebut, urut menurut jatuh tempo.
+     */
+    int[] openRowsDueBefore(int epochDay) {
+        return dueDates.dueBefore(epochDay);
+    }
+
+    /**
+     * @return pinjaman terbuka yang jatuh tempo di antara kedua hari (inklusif), urut menurut jatuh tempo.
+     */
+    int[] openRowsDueBetween(int fromDay, int toDay) {
+        return dueDates.dueBetween(fromDay, toDay);
+    }
+
+    /**
+     * @return pinjaman berstatus "Borrowed" yang jatuh tempo sebelum hari tersebut.
+     */
+    int[] borrowedRowsDueBefore(int epochDay) {
+        return dueDates.pendingBefore(epochDay);
+    }
+
+    /**
+     * @return baris dengan tanggal pinjam di antara kedua hari (inklusif), urut menurut tanggal.
+     */
+    int[] rowsBorrowedBetween(int fromDay, int toDay) {
+        ensureBuilt(DATES);
+        return borrowDates.rowsBetween(fromDay, toDay);
+    }
+
+    /**
+     * @return baris "Returned" dengan tanggal kembali di antara kedua hari (inklusif), urut menurut tanggal.
+     */
+    int[] rowsReturnedBetween(int fromDay, int toDay) {
+        ensureBuilt(DATES);
+        return returnDates.rowsBetween(fromDay, toDay);
+    }
+
+    private void indexReturnDate(int row) {
+        if (row < size && isBuilt(DATES) && isReturned(row)) {
+            returnDates.add(returnDay(row), row);
+        }
+    }
+
+    private void unindexReturnDate(int row) {
+        if (row < size && isBuilt(DATES) && isReturned(row)) {
+            returnDates.remove(returnDay(row), row);
+        }
+    }
+
+    /**
+     * @return jumlah transaksi anggota tersebut.
+     */
+    int historyCount(String memberId) {
+        return memberHistory.count(memberIds.find(memberId));
+    }
+
+    /**
+     * @return nomor baris satu halaman riwayat anggota, urut dari tanggal pinjam terbaru.
+     */
+    int[] historyNewestFirst(String memberId, int offset, int limit) {
+        return memberHistory.newestFirst(memberIds.find(memberId), offset, limit);
+    }
+
+    private void indexHistory(int row) {
+        if (row < size) {
+            memberHistory.add(memberCode(row), row);
+        }
+    }
+
+    private void unindexHistory(int row) {
+        if (row < size) {
+            memberHistory.remove(memberCode(row), row);
+        }
+    }
+
+    long fineCents(int row) {
+        return columns.fineCents(row);
+    }
+
+    double fine(int row) {
+        return fineCents(row) / 100.0;
+    }
+
+    void setFine(int row, double fine) {
+        long cents = Math.round(fine * 100);
+        if (row < size && cents == fineCents(row)) {
+            return;
+        }
+        unindexStats(row);
+        columns.setFineCents(row, cents);
+        indexStats(row);
+    }
+
+    /**
+     * @return statistik bulanan dari view yang selalu terbarui, urut menurut bulan.
+     */
+    List<MonthlyStat> monthlyStatistics() {
+        ensureBuilt(STATS);
+        return monthlyStats.statistics();
+    }
+
+    /**
+     * @return statistik bulanan yang dihitung ulang dari seluruh baris secara paralel.
+     */
+    List<MonthlyStat> recomputeMonthlyStatistics() {
+        return columns.monthlyStatisticsParallel(size, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Mengatur cara membaca jurusan anggota dan pengarang buku untuk rollup sirkulasi;
+     * dipanggil sebelum baris pertama dimuat.
+     */
+    void setRollupResolvers(Function<String, String> majorOfMember, Function<String, String> authorOfIsbn) {
+        circulation.setResolvers(majorOfMember, authorOfIsbn);
+    }
+
+    /**
+     * Membaca ulang jurusan untuk semua baris anggota ini setelah anggota ditambah,
+     * diubah atau dihapus. ID dicocokkan tanpa membedakan huruf besar/kecil, sama
+     * seperti resolver di LibraryManager.
+     */
+    void reattributeMember(String memberId) {
+        if (!isBuilt(STATS) || memberId == null) {
+            return;
+        }
+        for (int code : memberIds.codesIgnoringCase(memberId)) {
+            for (int row : memberHistory.newestFirst(code, 0, Integer.MAX_VALUE)) {
+                reattribute(row);
+            }
+        }
+    }
+
+    /**
+     * Membaca ulang pengarang untuk semua baris ISBN ini setelah buku ditambah, diubah
+     * atau dihapus. Tidak ada indeks per ISBN, jadi kolom ISBN dipindai; perubahan
+     * katalog jarang dibanding peminjaman.
+     */
+    void reattributeIsbn(String isbn) {
+        int code = isbns.find(isbn);
+        if (!isBuilt(STATS) || code == NO_CODE) {
+            return;
+        }
+        for (int row = 0; row < size; row++) {
+            if (isbnCode(row) == code) {
+                reattribute(row);
+            }
+        }
+    }
+
+    private void reattribute(int row) {
+        boolean returned = isReturned(row);
+        circulation.remove(row, borrowDay(row), returnDay(row), returned, fineCents(row));
+        circulation.forget(row);
+        circulation.add(row, memberId(row), isbn(row), borrowDay(row), returnDay(row), returned, fineCents(row));
+    }
+
+    /**
+     * @return jumlah peminjaman dan denda per periode, dari kubus yang selalu terbarui.
+     */
+    List<RollupRow> rollup(LocalDate from, LocalDate to, TimeGrain grain, RollupGroup group, String majorFilter,
+            String authorFilter) {
+        ensureBuilt(STATS);
+        return circulation.query(from, to, grain, group, majorFilter, authorFilter);
+    }
+
+    /**
+     * @return persentil lama peminjaman per bulan kembali, dari sketsa yang selalu terbarui.
+     */
+    List<LoanDurationStat> loanDurations(YearMonth from, YearMonth to, boolean byMajor) {
+        ensureBuilt(STATS);
+        return circulation.loanDurations(from, to, byMajor);
+    }
+
+    /**
+     * @return buku/anggota terpopuler sepanjang waktu dan per periode berjalan.
+     */
+    BorrowTrends trends() {
+        ensureBuilt(TRENDS);
+        return trends;
+    }
+
+    /**
+     * @return ISBN lain yang paling sering dipinjam bersama buku ini, tanpa buku yang
+     *         pernah dipinjam memberId (boleh null) menurut seluruh riwayatnya, paling
+     *         banyak limit.
+     */
+    List<String> alsoBorrowed(String isbn, String memberId, int limit) {
+        ensureBuilt(CO_BORROWS);
+        int[] borrowed = borrowedIsbnCodes(memberIds.find(memberId));
+        List<String> result = new ArrayList<>();
+        for (int code : coBorrows.alsoBorrowed(isbns.find(isbn), CoBorrowIndex.MAX_NEIGHBOURS)) {
+            if (result.size() == limit) {
+                break;
+            }
+            if (Arrays.binarySearch(borrowed, code) < 0) {
+                result.add(isbns.get(code));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return kode ISBN semua buku dalam riwayat anggota (dari indeks riwayat), terurut.
+     */
+    private int[] borrowedIsbnCodes(int memberCode) {
+        int[] rows = memberHistory.newestFirst(memberCode, 0, Integer.MAX_VALUE);
+        int[] codes = new int[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            codes[i] = isbnCode(rows[i]);
+        }
+        Arrays.sort(codes);
+        return codes;
+    }
+
+    private void indexStats(int row) {
+        if (row < size && isBuilt(STATS)) {
+            boolean returned = isReturned(row);
+            monthlyStats.add(borrowDay(row), returnDay(row), returned, fineCents(row));
+            circulation.add(row, memberId(row), isbn(row), borrowDay(row), returnDay(row), returned, fineCents(row));
+        }
+    }
+
+    private void unindexStats(int row) {
+        if (row < size && isBuilt(STATS)) {
+            boolean returned = isReturned(row);
+            monthlyStats.remove(borrowDay(row), returnDay(row), returned, fineCents(row));
+            circulation.remove(row, borrowDay(row), returnDay(row), returned, fineCents(row));
+        }
+    }
+
+    private boolean isBuilt(int structure) {
+        return (built & structure) != 0;
+    }
+
+    /**
+     * Membangun struktur analitik dari seluruh baris saat pertama kali diminta. Setelah
+     * itu struktur tersebut diperbarui oleh setter dan {@link #add} seperti indeks inti.
+     * Hasilnya sama dengan jika struktur diperbarui sejak baris pertama, kecuali tren dan
+     * co-borrow (yang hanya mencatat baris baru) juga melihat koreksi anggota/ISBN yang
+     * terjadi sebelum dibangun.
+     */
+    private void ensureBuilt(int structure) {
+        if (isBuilt(structure)) {
+            return;
+        }
+        built |= structure; // Hook indeks di bawah ini sekarang aktif untuk struktur ini
+        for (int row = 0; row < size; row++) {
+            switch (structure) {
+                case STATS -> indexStats(row);
+                case DATES -> {
+                    borrowDates.add(borrowDay(row), row);
+                    indexReturnDate(row);
+                }
+                case TRENDS -> trends.offer(borrowDay(row), memberId(row), isbn(row));
+                default -> coBorrows.offer(memberCode(row), isbnCode(row));
+            }
+        }
+    }
+
+    /**
+     * @return epoch day untuk tanggal yang disimpan; ArithmeticException jika di luar
+     *         jangkauan int (tanggal seperti itu tidak boleh masuk ke kolom).
+     */
+    static int toDay(LocalDate date) {
+        return date == null ? NO_DATE : Math.toIntExact(date.toEpochDay());
+    }
+
+    /**
+     * Seperti {@link #toDay(LocalDate)} untuk batas rentang query: tanggal di luar
+     * jangkauan int (misalnya LocalDate.MIN/MAX) dijepit ke hari terkecil/terbesar,
+     * tanpa menyentuh {@link #NO_DATE}.
+     */
+    static int toBoundDay(LocalDate date) {
+        if (date == null) {
+            return NO_DATE;
+        }
+        long epochDay = date.toEpochDay();
+        return (int) Math.max(NO_DATE + 1L, Math.min(Integer.MAX_VALUE, epochDay));
+    }
+
+    static LocalDate toDate(int epochDay) {
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0x7F) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int toUpperAscii(int c) {
+        return (c >= 'a' && c <= 'z') ? c - ('a' - 'A') : c;
+    }
+
+    /**
+     * Kamus String <-> kode int untuk nilai yang berulang. Kode NO_CODE berarti null.
+     */
+    private static final class StringDictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        synchronized int codeOf(String value) {
+            if (value == null) {
+                return NO_CODE;
+            }
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                values.add(value);
+                codes.put(value, code);
+            }
+            return code;
+        }
+
+        synchronized int find(String value) {
+            Integer code = value == null ? null : codes.get(value);
+            return code == null ? NO_CODE : code;
+        }
+
+        synchronized List<Integer> codesIgnoringCase(String value) {
+            List<Integer> result = new ArrayList<>();
+            for (int code = 0; code < values.size(); code++) {
+                if (values.get(code).equalsIgnoreCase(value)) {
+                    result.add(code);
+                }
+            }
+            return result;
+        }
+
+        synchronized String get(int code) {
+            return code == NO_CODE ? null : values.get(code);
+        }
+    }
+}
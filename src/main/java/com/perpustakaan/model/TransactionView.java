@@ -0,0 +1,120 @@
+package com.perpustakaan.model;
+
+import java.time.LocalDate;
+
+/**
+ * Transaction "flyweight": tidak menyimpan data sendiri, melainkan membaca dan
+ * menulis satu baris di {@link TransactionStore}. Perubahan lewat setter langsung
+ * terlihat oleh semua view lain untuk baris yang sama.
+ */
+final class TransactionView extends Transaction {
+    private final TransactionStore store;
+    private final int row;
+
+    TransactionView(TransactionStore store, int row) {
+        this.store = store;
+        this.row = row;
+    }
+
+    int getRow() {
+        return row;
+    }
+
+    @Override
+    public String getTransactionId() {
+        return store.transactionId(row);
+    }
+
+    @Override
+    public void setTransactionId(String transactionId) {
+        store.setTransactionId(row, transactionId);
+    }
+
+    @Override
+    public String getMemberId() {
+        return store.memberId(row);
+    }
+
+    @Override
+    public void setMemberId(String memberId) {
+        store.setMemberId(row, memberId);
+    }
+
+    @Override
+    public String getIsbn() {
+        return store.isbn(row);
+    }
+
+    @Override
+    public void setIsbn(String isbn) {
+        store.setIsbn(row, isbn);
+    }
+
+    @Override
+    public LocalDate getBorrowDate() {
+        return TransactionStore.toDate(store.borrowDay(row));
+    }
+
+    @Override
+    public void setBorrowDate(LocalDate borrowDate) {
+        store.setBorrowDay(row, TransactionStore.toDay(borrowDate));
+        // Sama seperti Transaction: jatuh tempo ikut dihitung ulang
+        if (borrowDate != null) {
+            store.setDueDay(row, TransactionStore.toDay(borrowDate.plusDays(7)));
+        }
+    }
+
+    @Override
+    public LocalDate getDueDate() {
+        return TransactionStore.toDate(store.dueDay(row));
+    }
+
+    @Override
+    public void setDueDate(LocalDate dueDate) {
+        store.setDueDay(row, TransactionStore.toDay(dueDate));
+    }
+
+    @Override
+    public LocalDate getActualReturnDate() {
+        return TransactionStore.toDate(store.returnDay(row));
+    }
+
+    @Override
+    public void setActualReturnDate(LocalDate actualReturnDate) {
+        store.setReturnDay(row, TransactionStore.toDay(actualReturnDate));
+    }
+
+    @Override
+    public String getStatus() {
+        return store.status(row);
+    }
+
+    @Override
+    public void setStatus(String status) {
+        store.setStatus(row, status);
+    }
+
+    @Override
+    public double getFine() {
+        return store.fine(row);
+    }
+
+    @Override
+    public void setFine(double fine) {
+        store.setFine(row, fine);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof TransactionView)) {
+            return false;
+        }
+        TransactionView view = (TransactionView) other;
+        return view.store == store && view.row == row;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(store) * 31 + row;
+    }
+}
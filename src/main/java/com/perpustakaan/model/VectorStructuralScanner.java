@@ -0,0 +1,68 @@
+package com.perpustakaan.model;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Versi {@link StructuralScanner} dengan Vector API: satu iterasi memuat satu
+ * vektor byte (32 byte untuk AVX2, 64 byte untuk AVX-512), membandingkannya
+ * dengan karakter yang dicari, lalu mengambil posisi pertama dari mask hasil.
+ * Sisa buffer yang lebih pendek dari satu vektor diperiksa secara skalar.
+ *
+ * Hanya dibuat oleh {@link StructuralScanner#get()} ketika modul jdk.incubator.vector tersedia.
+ */
+final class VectorStructuralScanner extends StructuralScanner {
+
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+    private static final int MIN_VECTOR_BYTES = 32;
+
+    @Override
+    boolean isUsable() {
+        // Tanpa SIMD yang lebar, vektor diemulasikan dan lebih lambat daripada loop biasa.
+        return SPECIES.vectorByteSize() >= MIN_VECTOR_BYTES;
+    }
+
+    @Override
+    int indexOf(byte[] buffer, int from, int to, byte a) {
+        int i = from;
+        int bound = to - SPECIES.length();
+        for (; i <= bound; i += SPECIES.length()) {
+            VectorMask<Byte> hits = ByteVector.fromArray(SPECIES, buffer, i).eq(a);
+            if (hits.anyTrue()) {
+                return i + hits.firstTrue();
+            }
+        }
+        for (; i < to; i++) {
+            if (buffer[i] == a) {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    @Override
+    int indexOfEither(byte[] buffer, int from, int to, byte a, byte b) {
+        int i = from;
+        int bound = to - SPECIES.length();
+        for (; i <= bound; i += SPECIES.length()) {
+            ByteVector chunk = ByteVector.fromArray(SPECIES, buffer, i);
+            VectorMask<Byte> hits = chunk.eq(a).or(chunk.eq(b));
+            if (hits.anyTrue()) {
+                return i + hits.firstTrue();
+            }
+        }
+        for (; i < to; i++) {
+            byte value = buffer[i];
+            if (value == a || value == b) {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    @Override
+    String name() {
+        return "vektor " + SPECIES.vectorBitSize() + "-bit";
+    }
+}
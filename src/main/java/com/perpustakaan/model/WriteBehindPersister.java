@@ -0,0 +1,330 @@
+package com.perpustakaan.model;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tahap persistensi write-behind dengan group commit.
+ *
+ * Perubahan (record jurnal atau tanda "file kotor") dikumpulkan dalam batch.
+ * Batch diambil di bawah lock pemilik (LibraryManager) agar salinan data yang
+ * akan ditulis konsisten, lalu ditulis di luar lock tersebut. Batch selalu
+ * ditulis berurutan sesuai nomor urutnya, siapa pun thread yang menulisnya.
+ *
+ * @param <S> tipe salinan data (snapshot) yang disiapkan pemilik untuk ditulis.
+ */
+class WriteBehindPersister<S> {
+
+    static final class Batch<S> {
+        final long sequence;
+        final long upToOperation;
+        final List<byte[]> records;
+        int dirtyMask;
+        boolean checkpoint;
+        S snapshot; // Diisi oleh Flusher.prepare() bila diperlukan
+
+        Batch(long sequence, long upToOperation, List<byte[]> records, int dirtyMask, boolean checkpoint) {
+            this.sequence = sequence;
+            this.upToOperation = upToOperation;
+            this.records = records;
+            this.dirtyMask = dirtyMask;
+            this.checkpoint = checkpoint;
+        }
+    }
+
+    interface Flusher<S> {
+        /**
+         * Dipanggil di bawah lock pemilik: siapkan salinan data untuk batch ini.
+         */
+        void prepare(Batch<S> batch);
+
+        /**
+         * Dipanggil di luar lock pemilik: tulis batch ke disk beserta fsync.
+         */
+        void write(Batch<S> batch) throws IOException;
+    }
+
+    private final DurabilityPolicy policy;
+    private final Object ownerLock;
+    private final Flusher<S> flusher;
+
+    // Dijaga oleh ownerLock
+    private List<byte[]> pendingRecords = new ArrayList<>();
+    private int pendingDirtyMask;
+    private boolean pendingCheckpoint;
+    private int pendingOperations;
+    private long submittedOperations;
+    private long nextSequence;
+
+    // Dijaga oleh writeMonitor
+    private final Object writeMonitor = new Object();
+    private long nextSequenceToWrite;
+    private long durableOperations;
+    private long failedWrites;
+    private long writtenBatches;
+    private Batch<S> carryOver; // Batch yang gagal ditulis, dicoba lagi bersama batch berikutnya
+
+    private final Thread worker;
+    private volatile boolean closed;
+
+    WriteBehindPersister(DurabilityPolicy policy, Object ownerLock, Flusher<S> flusher) {
+        this.policy = policy;
+        this.ownerLock = ownerLock;
+        this.flusher = flusher;
+        if (policy.getKind() == DurabilityPolicy.Kind.SYNCHRONOUS) {
+            this.worker = null;
+        } else {
+            this.worker = new Thread(this::runWorker, "perpustakaan-persister");
+            this.worker.setDaemon(true);
+            this.worker.start();
+            // Pastikan sisa perubahan tertulis saat JVM berhenti (misalnya Platform.exit()).
+            Runtime.getRuntime().addShutdownHook(new Thread(this::close, "perpustakaan-persister-shutdown"));
+        }
+    }
+
+    DurabilityPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Memasukkan record ke batch berikutnya tanpa menulis atau menunggu: dipanggil di
+     * bawah lock pemilik, lalu {@link #commitEnqueued()} dipanggil setelah lock itu
+     * dilepas agar beberapa thread bisa berbagi satu penulisan (group commit).
+     */
+    void enqueue(byte[] record) {
+        synchronized (ownerLock) {
+            pendingRecords.add(record);
+            pendingOperations++;
+            submittedOperations++;
+        }
+    }
+
+    void enqueueDirty(int dirtyMask) {
+        synchronized (ownerLock) {
+            pendingDirtyMask |= dirtyMask;
+            pendingOperations++;
+            submittedOperations++;
+        }
+    }
+
+    /**
+     * Menjalankan kebijakan durabilitas untuk perubahan yang sudah di-enqueue; pada
+     * kebijakan sinkron menunggu hingga perubahan tersebut tersimpan permanen.
+     */
+    void commitEnqueued() {
+        afterSubmit();
+    }
+
+    /**
+     * Meminta checkpoint pada flush berikutnya. Tidak memicu flush dengan sendirinya.
+     */
+    void requestCheckpoint() {
+        synchronized (ownerLock) {
+            pendingCheckpoint = true;
+        }
+    }
+
+    private void afterSubmit() {
+        switch (policy.getKind()) {
+            case SYNCHRONOUS:
+                flush();
+                break;
+            case EVERY_N_OPERATIONS:
+                boolean full;
+                synchronized (ownerLock) {
+                    full = pendingOperations >= policy.getAmount();
+                }
+                if (full) {
+                    synchronized (this) {
+                        notifyAll();
+                    }
+                }
+                break;
+            default:
+                // EVERY_N_MILLIS: ditangani oleh timer worker
+                break;
+        }
+    }
+
+    /**
+     * Menulis semua perubahan yang sudah diserahkan sebelum pemanggilan ini dan
+     * menunggu hingga tersimpan permanen.
+     *
+     * @return false jika ada penulisan yang gagal selama menunggu.
+     */
+    boolean flush() {
+        long target;
+        synchronized (ownerLock) {
+            target = submittedOperations;
+        }
+        Batch<S> batch = takeBatch(hasCarryOver());
+        if (batch != null) {
+            writeInOrder(batch);
+        }
+        return awaitDurable(target, Long.MAX_VALUE);
+    }
+
+    /**
+     * Menunggu (tanpa memaksa flush) hingga semua perubahan yang sudah diserahkan
+     * tersimpan permanen oleh worker.
+     */
+    boolean awaitFlushed(long timeout, TimeUnit unit) {
+        long target;
+        synchronized (ownerLock) {
+            target = submittedOperations;
+        }
+        return awaitDurable(target, unit.toMillis(timeout));
+    }
+
+    /**
+     * Menghentikan worker setelah menulis sisa perubahan.
+     */
+    void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (worker != null) {
+            synchronized (this) {
+                notifyAll();
+            }
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+    }
+
+    long writtenBatchCount() {
+        synchronized (writeMonitor) {
+            return writtenBatches;
+        }
+    }
+
+    private boolean hasCarryOver() {
+        synchronized (writeMonitor) {
+            return carryOver != null;
+        }
+    }
+
+    /**
+     * @param force buat batch walaupun kosong (untuk mencoba ulang batch yang gagal).
+     */
+    private Batch<S> takeBatch(boolean force) {
+        synchronized (ownerLock) {
+            if (!force && pendingRecords.isEmpty() && pendingDirtyMask == 0 && !pendingCheckpoint) {
+                return null;
+            }
+            Batch<S> batch = new Batch<>(nextSequence++, submittedOperations, pendingRecords,
+                    pendingDirtyMask, pendingCheckpoint);
+            pendingRecords = new ArrayList<>();
+            pendingDirtyMask = 0;
+            pendingCheckpoint = false;
+            pendingOperations = 0;
+            flusher.prepare(batch);
+            return batch;
+        }
+    }
+
+    private void writeInOrder(Batch<S> batch) {
+        Batch<S> toWrite;
+        boolean interrupted = false;
+        synchronized (writeMonitor) {
+            // Batch tidak boleh dilewati: tunggu giliran walaupun thread diinterupsi.
+            while (nextSequenceToWrite != batch.sequence) {
+                try {
+                    writeMonitor.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            toWrite = mergeCarryOver(batch);
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        boolean success;
+        try {
+            flusher.write(toWrite);
+            success = true;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error menyimpan data (batch " + batch.sequence + "): " + e.getMessage());
+            success = false;
+        }
+
+        synchronized (writeMonitor) {
+            if (success) {
+                durableOperations = Math.max(durableOperations, batch.upToOperation);
+                writtenBatches++;
+            } else {
+                carryOver = toWrite;
+                failedWrites++;
+            }
+            nextSequenceToWrite++;
+            writeMonitor.notifyAll();
+        }
+    }
+
+    private Batch<S> mergeCarryOver(Batch<S> batch) {
+        if (carryOver == null) {
+            return batch;
+        }
+        Batch<S> failed = carryOver;
+        carryOver = null;
+        List<byte[]> records = new ArrayList<>(failed.records);
+        records.addAll(batch.records);
+        Batch<S> merged = new Batch<>(batch.sequence, batch.upToOperation, records,
+                failed.dirtyMask | batch.dirtyMask, batch.checkpoint);
+        merged.snapshot = batch.snapshot != null ? batch.snapshot : failed.snapshot;
+        // Checkpoint lama hanya boleh diulang jika snapshot-nya mencakup record batch ini.
+        if (failed.checkpoint && batch.snapshot != null) {
+            merged.checkpoint = true;
+        }
+        return merged;
+    }
+
+    private boolean awaitDurable(long target, long timeoutMillis) {
+        long deadline = timeoutMillis == Long.MAX_VALUE ? Long.MAX_VALUE : System.currentTimeMillis() + timeoutMillis;
+        synchronized (writeMonitor) {
+            long failuresAtStart = failedWrites;
+            while (durableOperations < target) {
+                if (failedWrites != failuresAtStart) {
+                    return false;
+                }
+                long remaining = deadline == Long.MAX_VALUE ? 0 : deadline - System.currentTimeMillis();
+                if (deadline != Long.MAX_VALUE && remaining <= 0) {
+                    return false;
+                }
+                try {
+                    writeMonitor.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private void runWorker() {
+        long interval = policy.getKind() == DurabilityPolicy.Kind.EVERY_N_MILLIS ? policy.getAmount() : 0;
+        while (!closed) {
+            synchronized (this) {
+                try {
+                    wait(interval);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            Batch<S> batch = takeBatch(hasCarryOver());
+            if (batch != null) {
+                writeInOrder(batch);
+            }
+        }
+    }
+}
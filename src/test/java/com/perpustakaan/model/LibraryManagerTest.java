@@ -7,10 +7,20 @@ import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 class LibraryManagerTest {
 
@@ -23,6 +33,8 @@ class LibraryManagerTest {
     private static final String BOOKS_TEST_FILE = DATA_FOLDER_PATH + "/books.csv";
     private static final String MEMBERS_TEST_FILE = DATA_FOLDER_PATH + "/members.csv";
     private static final String TRANSACTIONS_TEST_FILE = DATA_FOLDER_PATH + "/transactions.csv";
+    private static final String JOURNAL_TEST_FILE = DATA_FOLDER_PATH + "/journal.log";
+    private static final String SNAPSHOT_TEST_FILE = DATA_FOLDER_PATH + "/library.snap";
 
     /**
      * Metode setUp dijalankan sebelum setiap metode tes.
@@ -39,6 +51,8 @@ class LibraryManagerTest {
         Files.deleteIfExists(Paths.get(BOOKS_TEST_FILE));
         Files.deleteIfExists(Paths.get(MEMBERS_TEST_FILE));
         Files.deleteIfExists(Paths.get(TRANSACTIONS_TEST_FILE));
+        Files.deleteIfExists(Paths.get(JOURNAL_TEST_FILE));
+        Files.deleteIfExists(Paths.get(SNAPSHOT_TEST_FILE));
 
         // Pastikan direktori 'data' ada (constructor LibraryManager juga akan melakukan
         // ini)
@@ -118,6 +132,27 @@ class LibraryManagerTest {
         assertFalse(libraryManager.deleteBook("ISBNNONEXIST"), "deleteBook seharusnya false jika buku tidak ada.");
     }
 
+    @Test
+    void testSearchBooks_PrefixDiacriticsAndIncrementalUpdates() {
+        Book novel = new Book("978-602-03-1234-5", "Bumi Manusia", "Pramoedya Ananta Toer", 2);
+        Book textbook = new Book("978-979-29-0001-1", "Pemrograman Java Dasar", "Abdul Kadir", 1);
+        libraryManager.addBook(novel);
+        libraryManager.addBook(textbook);
+
+        assertEquals(List.of(novel), libraryManager.searchBooks("prám"), "Diakritik dan huruf besar diabaikan.");
+        assertEquals(List.of(textbook), libraryManager.searchBooks("java pemro"));
+        assertEquals(List.of(novel), libraryManager.searchBooks("97860203"), "ISBN tanpa tanda hubung.");
+        assertEquals(2, libraryManager.searchBooks("  ").size(), "Query kosong menampilkan semua buku.");
+        assertTrue(libraryManager.searchBooks("java bumi").isEmpty());
+
+        libraryManager.updateBook(new Book("978-602-03-1234-5", "Anak Semua Bangsa", "Pramoedya Ananta Toer", 2));
+        assertTrue(libraryManager.searchBooks("bumi").isEmpty());
+        assertEquals(List.of(novel), libraryManager.searchBooks("bangsa"));
+
+        libraryManager.deleteBook("978-979-29-0001-1");
+        assertTrue(libraryManager.searchBooks("kadir").isEmpty());
+    }
+
     // =================================================================================
     // Tes untuk CRUD Anggota (Member)
     // =================================================================================
@@ -213,6 +248,48 @@ class LibraryManagerTest {
         assertFalse(libraryManager.deleteMember("MNOTEXIST"), "deleteMember seharusnya false jika anggota tidak ada.");
     }
 
+    @Test
+    void testMemberIndex_CaseInsensitiveAndFollowsEmailEdits() {
+        Member member = new Member("MIDX01", "Anggota Indeks", "TI", "Indeks@Example.com", "pass");
+        libraryManager.addMember(member);
+        assertSame(member, libraryManager.findMemberById("midx01"));
+        assertSame(member, libraryManager.findMemberByEmail("indeks@example.COM"));
+
+        // Seperti MemberFormController: objek diubah langsung lalu updateMember dipanggil
+        member.setEmail("baru@example.com");
+        assertTrue(libraryManager.updateMember(member));
+        assertNull(libraryManager.findMemberByEmail("indeks@example.com"), "Email lama seharusnya tidak ditemukan lagi.");
+        assertSame(member, libraryManager.findMemberByEmail("BARU@example.com"));
+
+        assertTrue(libraryManager.deleteMember("MIDX01"));
+        assertNull(libraryManager.findMemberById("MIDX01"));
+        assertNull(libraryManager.findMemberByEmail("baru@example.com"));
+    }
+
+    @Test
+    void testSearchMembers_TypoTolerantAndRanked() {
+        Member budi = new Member("M100", "Budi Santoso", "Teknik Informatika", "budi.s@example.com", "pass");
+        Member budiman = new Member("M101", "Budiman Hartono", "Hukum", "budiman@example.com", "pass");
+        Member siti = new Member("M102", "Siti Rahayu", "Kedokteran", "siti@example.com", "pass");
+        libraryManager.addMember(budi);
+        libraryManager.addMember(budiman);
+        libraryManager.addMember(siti);
+
+        List<Member> typo = libraryManager.searchMembers("santosa", 10);
+        assertEquals(budi, typo.get(0), "Nama salah ketik tetap ditemukan.");
+        assertFalse(typo.contains(siti));
+        assertEquals(List.of(siti), libraryManager.searchMembers("rahayu kedokteran", 10));
+        assertEquals(3, libraryManager.searchMembers("", 10).size(), "Query kosong menampilkan semua anggota.");
+
+        siti.setFullName("Siti Nurhaliza");
+        assertTrue(libraryManager.updateMember(siti));
+        assertFalse(libraryManager.searchMembers("rahayu", 10).contains(siti));
+        assertEquals(siti, libraryManager.searchMembers("nurhaliza", 10).get(0));
+
+        assertTrue(libraryManager.deleteMember("M100"));
+        assertFalse(libraryManager.searchMembers("budi santoso", 10).contains(budi));
+    }
+
     // =================================================================================
     // Tes untuk Logika Transaksi (borrowBook, returnBook)
     // =================================================================================
@@ -295,6 +372,19 @@ class LibraryManagerTest {
                 "Peminjaman kedua buku yang sama oleh member yang sama sebelum dikembalikan seharusnya gagal.");
     }
 
+    @Test
+    void testBorrowBook_AllowedAgainAfterReturn() {
+        libraryManager.addMember(new Member("MREBORROW01", "Pinjam Ulang", "Hukum", "ulang@example.com", "pass"));
+        libraryManager.addBook(new Book("ISBNREBORROW01", "Buku Pinjam Ulang", "Author", 2));
+
+        assertTrue(libraryManager.borrowBook("MREBORROW01", "ISBNREBORROW01"));
+        String transactionId = libraryManager.getTransactionsByMemberId("MREBORROW01").get(0).getTransactionId();
+        assertTrue(libraryManager.returnBook(transactionId));
+        assertTrue(libraryManager.borrowBook("MREBORROW01", "ISBNREBORROW01"),
+                "Setelah dikembalikan, buku yang sama boleh dipinjam lagi.");
+        assertFalse(libraryManager.borrowBook("MREBORROW01", "ISBNREBORROW01"));
+    }
+
     @Test
     void testReturnBook_Successful_WithFine() {
         // Setup member dan buku
@@ -414,4 +504,965 @@ class LibraryManagerTest {
         assertFalse(libraryManager.returnBook(transaction.getTransactionId()),
                 "Pengembalian kedua untuk transaksi yang sama seharusnya gagal.");
     }
-}
\ No newline at end of file
+
+    // =================================================================================
+    // Tes untuk mode persistensi JOURNAL
+    // =================================================================================
+
+    @Test
+    void testJournalMode_ReplaysCirculationAfterRestart() throws IOException {
+        libraryManager.addMember(new Member("MJOURNAL01", "Peminjam Jurnal", "TI", "jurnal@example.com", "pass"));
+        libraryManager.addBook(new Book("ISBNJOURNAL01", "Buku Jurnal", "Author Jurnal", 2));
+
+        LibraryManager journaled = new LibraryManager(PersistenceMode.JOURNAL);
+        assertTrue(journaled.borrowBook("MJOURNAL01", "ISBNJOURNAL01"));
+        String transactionId = journaled.getTransactionsByMemberId("MJOURNAL01").get(0).getTransactionId();
+        assertTrue(journaled.returnBook(transactionId));
+        assertTrue(journaled.borrowBook("MJOURNAL01", "ISBNJOURNAL01"));
+        journaled.close();
+
+        assertTrue(Files.size(Paths.get(JOURNAL_TEST_FILE)) > 0, "Perubahan seharusnya tercatat di jurnal.");
+
+        LibraryManager restarted = new LibraryManager(PersistenceMode.JOURNAL);
+        assertEquals(1, restarted.findBookByIsbn("ISBNJOURNAL01").getQuantity(),
+                "Kuantitas buku seharusnya dipulihkan dari jurnal.");
+        List<Transaction> history = restarted.getTransactionsByMemberId("MJOURNAL01");
+        assertEquals(2, history.size(), "Kedua transaksi seharusnya dipulihkan dari jurnal.");
+        assertEquals("Returned", restarted.findTransactionById(transactionId).getStatus());
+        restarted.close();
+    }
+
+    @Test
+    void testJournalMode_CheckpointFoldsJournalIntoCsv() throws IOException {
+        LibraryManager journaled = new LibraryManager(PersistenceMode.JOURNAL);
+        journaled.addMember(new Member("MJOURNAL02", "Peminjam Checkpoint", "SI", "checkpoint@example.com", "pass"));
+        journaled.addBook(new Book("ISBNJOURNAL02", "Buku Checkpoint", "Author Checkpoint", 1));
+        assertTrue(journaled.borrowBook("MJOURNAL02", "ISBNJOURNAL02"));
+
+        journaled.checkpoint();
+        assertEquals(0, Files.size(Paths.get(JOURNAL_TEST_FILE)), "Jurnal seharusnya kosong setelah checkpoint.");
+        journaled.close();
+
+        LibraryManager csvOnly = new LibraryManager();
+        assertEquals(0, csvOnly.findBookByIsbn("ISBNJOURNAL02").getQuantity());
+        assertEquals(1, csvOnly.getTransactionsByMemberId("MJOURNAL02").size());
+    }
+
+    @Test
+    void testDayRowIndex_BucketsKeepDayThenRowOrder() {
+        DayRowIndex index = new DayRowIndex();
+        index.add(20, 5);
+        index.add(10, 7);
+        index.add(20, 2);
+        index.add(10, 3);
+        index.add(20, 2); // Ganda diabaikan
+        assertArrayEquals(new int[] { 3, 7, 2, 5 }, index.rowsBetween(Integer.MIN_VALUE + 1, Integer.MAX_VALUE));
+
+        index.remove(10, 3);
+        index.remove(10, 7);
+        index.remove(20, 9); // Tidak ada
+        assertArrayEquals(new int[] { 2, 5 }, index.rowsBetween(0, 20));
+        assertArrayEquals(new int[0], index.rowsBetween(11, 19));
+    }
+
+    @Test
+    void testTransactionStoreCopy_UnaffectedByLaterChanges() {
+        TransactionStore store = new TransactionStore();
+        for (int i = 0; i < 20000; i++) { // Lebih dari satu chunk
+            store.add(new Transaction("TCOPY" + i, "MCOPY", "ISBNCOPY", LocalDate.of(2025, 1, 1)));
+        }
+        TransactionStore copy = store.copyOf(store.size());
+        store.setStatus(19999, "Returned");
+        store.setBorrowDay(0, TransactionStore.toDay(LocalDate.of(2025, 2, 1)));
+        store.add(new Transaction("TCOPYNEW", "MCOPY", "ISBNCOPY", LocalDate.of(2025, 1, 1)));
+
+        assertEquals(20000, copy.size());
+        assertEquals("Borrowed", copy.asList().get(19999).getStatus());
+        assertEquals(LocalDate.of(2025, 1, 1), copy.asList().get(0).getBorrowDate());
+        assertEquals("TCOPY19999", copy.asList().get(19999).getTransactionId());
+    }
+
+    @Test
+    void testJournalMode_GarbageLengthTailIsTruncated() throws IOException {
+        LibraryManager journaled = new LibraryManager(PersistenceMode.JOURNAL);
+        journaled.addBook(new Book("ISBNJOURNAL04", "Buku Ekor Rusak", "Author", 2));
+        journaled.close();
+        long validSize = Files.size(Paths.get(JOURNAL_TEST_FILE));
+        // Prefiks panjang raksasa dari record yang robek
+        Files.write(Paths.get(JOURNAL_TEST_FILE), new byte[] { 0x7F, (byte) 0xFF, (byte) 0xFF, (byte) 0xF0, 1, 2 },
+                StandardOpenOption.APPEND);
+
+        LibraryManager restarted = new LibraryManager(PersistenceMode.JOURNAL);
+        assertEquals(2, restarted.findBookByIsbn("ISBNJOURNAL04").getQuantity());
+        restarted.close();
+        assertEquals(validSize, Files.size(Paths.get(JOURNAL_TEST_FILE)), "Ekor rusak seharusnya dipotong.");
+    }
+
+    @Test
+    void testJournalMode_FailedCheckpointKeepsCsvAndJournal() throws IOException {
+        LibraryManager journaled = new LibraryManager(PersistenceMode.JOURNAL);
+        journaled.addMember(new Member("MJOURNAL03", "Peminjam Gagal", "SI", "gagal@example.com", "pass"));
+        journaled.addBook(new Book("ISBNJOURNAL03", "Buku Checkpoint Gagal", "Author", 2));
+        assertTrue(journaled.borrowBook("MJOURNAL03", "ISBNJOURNAL03"));
+        byte[] booksBefore = Files.readAllBytes(Paths.get(BOOKS_TEST_FILE));
+
+        // File sementara tidak bisa dibuat: penulisan ulang books.csv gagal di tengah checkpoint
+        Path blockedTemp = Paths.get(BOOKS_TEST_FILE + ".tmp");
+        Files.createDirectories(blockedTemp);
+        try {
+            journaled.checkpoint();
+            assertArrayEquals(booksBefore, Files.readAllBytes(Paths.get(BOOKS_TEST_FILE)),
+                    "books.csv lama seharusnya tetap utuh.");
+            assertTrue(Files.size(Paths.get(JOURNAL_TEST_FILE)) > 0, "Jurnal tidak boleh dikosongkan.");
+            journaled.close();
+        } finally {
+            Files.delete(blockedTemp);
+        }
+
+        LibraryManager restarted = new LibraryManager(PersistenceMode.JOURNAL);
+        assertEquals(1, restarted.findBookByIsbn("ISBNJOURNAL03").getQuantity());
+        assertEquals(1, restarted.getTransactionsByMemberId("MJOURNAL03").size());
+        restarted.close();
+    }
+
+    @Test
+    void testWriteBehind_FlushPersistsBatchedChanges() {
+        LibraryManager writeBehind = new LibraryManager(PersistenceMode.JOURNAL, DurabilityPolicy.everyOperations(1000));
+        writeBehind.addMember(new Member("MBATCH01", "Peminjam Batch", "TI", "batch@example.com", "pass"));
+        writeBehind.addBook(new Book("ISBNBATCH01", "Buku Batch", "Author Batch", 3));
+        assertTrue(writeBehind.borrowBook("MBATCH01", "ISBNBATCH01"));
+
+        assertTrue(writeBehind.flush(), "flush seharusnya berhasil menulis semua perubahan.");
+        assertTrue(writeBehind.awaitPersisted(1, TimeUnit.SECONDS));
+        writeBehind.close();
+
+        LibraryManager restarted = new LibraryManager(PersistenceMode.JOURNAL);
+        assertNotNull(restarted.findMemberById("MBATCH01"));
+        assertEquals(2, restarted.findBookByIsbn("ISBNBATCH01").getQuantity());
+        assertEquals(1, restarted.getTransactionsByMemberId("MBATCH01").size());
+        restarted.close();
+    }
+
+    @Test
+    void testSnapshot_RestartLoadsSameDataAsCsv() throws IOException {
+        LibraryManager journaled = new LibraryManager(PersistenceMode.JOURNAL);
+        journaled.addMember(new Member("MSNAP01", "Peminjam Snapshot", "Matematika", "snap@example.com", "pass"));
+        journaled.addBook(new Book("ISBNSNAP01", "Buku, Snapshot", "Author Snapshot", 2));
+        assertTrue(journaled.borrowBook("MSNAP01", "ISBNSNAP01"));
+        journaled.checkpoint();
+        journaled.close();
+        assertTrue(Files.exists(Paths.get(SNAPSHOT_TEST_FILE)), "Checkpoint seharusnya menulis snapshot biner.");
+
+        Files.delete(Paths.get(JOURNAL_TEST_FILE));
+        LibraryManager fromSnapshot = new LibraryManager();
+        assertEquals("Buku, Snapshot", fromSnapshot.findBookByIsbn("ISBNSNAP01").getTitle());
+        assertEquals(1, fromSnapshot.findBookByIsbn("ISBNSNAP01").getQuantity());
+        assertEquals("Matematika", fromSnapshot.findMemberById("MSNAP01").getMajor());
+        Transaction transaction = fromSnapshot.getTransactionsByMemberId("MSNAP01").get(0);
+        assertEquals(LocalDate.now().plusDays(7), transaction.getDueDate());
+        assertNull(transaction.getActualReturnDate());
+        assertEquals("Borrowed", transaction.getStatus());
+    }
+
+    @Test
+    void testSnapshot_SameSizeCsvEditWithOldMtimeIsDetected() throws IOException {
+        LibraryManager journaled = new LibraryManager(PersistenceMode.JOURNAL);
+        journaled.addBook(new Book("ISBNSNAP02", "Judul Lama", "Author Snapshot", 2));
+        journaled.checkpoint();
+        journaled.close();
+        Files.delete(Paths.get(JOURNAL_TEST_FILE));
+
+        // Editan manual dengan ukuran sama, lalu waktu modifikasi dikembalikan.
+        Path booksCsv = Paths.get(BOOKS_TEST_FILE);
+        FileTime modified = Files.getLastModifiedTime(booksCsv);
+        String content = Files.readString(booksCsv);
+        Files.writeString(booksCsv, content.replace("Judul Lama", "Judul Baru"));
+        Files.setLastModifiedTime(booksCsv, modified);
+
+        LibraryManager restarted = new LibraryManager();
+        assertEquals("Judul Baru", restarted.findBookByIsbn("ISBNSNAP02").getTitle(),
+                "Snapshot usang seharusnya terdeteksi dari isi CSV.");
+    }
+
+    @Test
+    void testGetMonthlyStatistics_CountsBorrowsReturnsAndFines() {
+        libraryManager.addMember(new Member("MSTAT01", "Peminjam Statistik", "Fisika", "stat@example.com", "pass"));
+        libraryManager.addBook(new Book("ISBNSTAT01", "Buku Statistik", "Author Statistik", 2));
+        libraryManager.addBook(new Book("ISBNSTAT02", "Buku Statistik 2", "Author Statistik", 2));
+        assertTrue(libraryManager.borrowBook("MSTAT01", "ISBNSTAT01"));
+        assertTrue(libraryManager.borrowBook("MSTAT01", "ISBNSTAT02"));
+
+        Transaction late = libraryManager.getAllTransactions().get(0);
+        late.setBorrowDate(LocalDate.now().minusDays(9)); // Terlambat 2 hari
+        assertTrue(libraryManager.returnBook(late.getTransactionId()));
+
+        List<MonthlyStat> stats = libraryManager.getMonthlyStatistics();
+        int borrows = 0;
+        int returns = 0;
+        double fines = 0;
+        for (MonthlyStat stat : stats) {
+            borrows += stat.getTotalBorrows();
+            returns += stat.getTotalReturns();
+            fines += stat.getTotalFines();
+        }
+        assertEquals(2, borrows);
+        assertEquals(1, returns);
+        assertEquals(2000.0, fines, 0.01);
+    }
+
+    @Test
+    void testMonthlyStatistics_MaterializedViewMatchesFullRecompute() {
+        TransactionStore store = new TransactionStore();
+        fillAndEditStore(store, true);
+
+        assertSameStatistics(store.columns().monthlyStatistics(store.size()), store.monthlyStatistics());
+    }
+
+    @Test
+    void testAnalytics_LazyBuildMatchesIncrementalMaintenance() {
+        TransactionStore incremental = new TransactionStore();
+        TransactionStore lazy = new TransactionStore();
+        fillAndEditStore(incremental, true);
+        fillAndEditStore(lazy, false);
+
+        assertSameStatistics(incremental.monthlyStatistics(), lazy.monthlyStatistics());
+        int from = (int) LocalDate.of(2024, 1, 1).toEpochDay();
+        int to = from + 450;
+        assertArrayEquals(sorted(incremental.rowsBorrowedBetween(from, to)), sorted(lazy.rowsBorrowedBetween(from, to)));
+        assertArrayEquals(sorted(incremental.rowsReturnedBetween(from, to)), sorted(lazy.rowsReturnedBetween(from, to)));
+    }
+
+    /**
+     * Mengisi store lalu mengoreksi baris secara acak; jika buildFirst, struktur
+     * analitik dibangun dulu sehingga koreksi dipelihara per baris.
+     */
+    private static void fillAndEditStore(TransactionStore store, boolean buildFirst) {
+        java.util.Random random = new java.util.Random(17);
+        int firstDay = (int) LocalDate.of(2024, 1, 1).toEpochDay();
+        if (buildFirst) {
+            store.monthlyStatistics();
+            store.rowsBorrowedBetween(firstDay, firstDay);
+        }
+        for (int i = 0; i < 2000; i++) {
+            int borrowDay = firstDay + random.nextInt(400);
+            store.add("TXM" + i, "M" + (i % 50), "ISBN" + (i % 30), borrowDay, borrowDay + 7,
+                    TransactionStore.NO_DATE, "Borrowed", 0.0);
+        }
+        // Pengembalian, koreksi tanggal dan denda setelah baris masuk view
+        for (int i = 0; i < 3000; i++) {
+            int row = random.nextInt(store.size());
+            switch (random.nextInt(4)) {
+                case 0 -> {
+                    store.setReturnDay(row, store.borrowDay(row) + random.nextInt(40));
+                    store.setStatus(row, "Returned");
+                }
+                case 1 -> store.setBorrowDay(row, firstDay + random.nextInt(400));
+                case 2 -> store.setFine(row, random.nextInt(5) * 1000.0);
+                default -> store.setStatus(row, random.nextBoolean() ? "Overdue" : "returned");
+            }
+        }
+    }
+
+    private static int[] sorted(int[] rows) {
+        int[] copy = rows.clone();
+        java.util.Arrays.sort(copy);
+        return copy;
+    }
+
+    @Test
+    void testMonthlyStatistics_ParallelRecomputeMatchesSequential() {
+        TransactionStore store = new TransactionStore();
+        java.util.Random random = new java.util.Random(18);
+        int firstDay = (int) LocalDate.of(2020, 1, 1).toEpochDay();
+        for (int i = 0; i < 300_000; i++) {
+            int borrowDay = firstDay + random.nextInt(1500);
+            boolean returned = random.nextInt(3) > 0;
+            store.add("TXP" + i, "M" + (i % 500), "ISBN" + (i % 300), borrowDay, borrowDay + 7,
+                    returned ? borrowDay + random.nextInt(20) : TransactionStore.NO_DATE,
+                    returned ? "Returned" : "Borrowed", returned ? random.nextInt(4) * 1000.0 : 0.0);
+        }
+        java.util.concurrent.ForkJoinPool pool = new java.util.concurrent.ForkJoinPool(4);
+        try {
+            List<MonthlyStat> sequential = store.columns().monthlyStatistics(store.size());
+            assertSameStatistics(sequential, store.columns().monthlyStatisticsParallel(store.size(), pool));
+            assertSameStatistics(sequential, store.monthlyStatistics());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void assertSameStatistics(List<MonthlyStat> expected, List<MonthlyStat> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getMonthYear(), actual.get(i).getMonthYear());
+            assertEquals(expected.get(i).getTotalBorrows(), actual.get(i).getTotalBorrows());
+            assertEquals(expected.get(i).getTotalReturns(), actual.get(i).getTotalReturns());
+            assertEquals(expected.get(i).getTotalFines(), actual.get(i).getTotalFines(), 0.001);
+        }
+    }
+
+    @Test
+    void testDateRangeQueries_FollowBorrowAndReturnDateEdits() {
+        libraryManager.addMember(new Member("MRANGE01", "Peminjam Rentang", "Sejarah", "range@example.com", "pass"));
+        for (int i = 0; i < 4; i++) {
+            libraryManager.addBook(new Book("ISBNRANGE0" + i, "Buku Rentang " + i, "Author", 1));
+            assertTrue(libraryManager.borrowBook("MRANGE01", "ISBNRANGE0" + i));
+        }
+        List<Transaction> all = libraryManager.getAllTransactions();
+        all.get(0).setBorrowDate(LocalDate.of(2025, 2, 28));
+        all.get(1).setBorrowDate(LocalDate.of(2025, 5, 31));
+        all.get(2).setBorrowDate(LocalDate.of(2025, 3, 1));
+        all.get(3).setBorrowDate(LocalDate.of(2025, 6, 1));
+
+        List<Transaction> springLoans = libraryManager.getTransactionsBorrowedBetween(
+                LocalDate.of(2025, 3, 1), LocalDate.of(2025, 5, 31));
+        assertEquals(2, springLoans.size());
+        assertEquals("ISBNRANGE02", springLoans.get(0).getIsbn(), "Urut menurut tanggal pinjam.");
+        assertEquals("ISBNRANGE01", springLoans.get(1).getIsbn());
+        assertTrue(libraryManager.getTransactionsBorrowedBetween(
+                LocalDate.of(2025, 5, 31), LocalDate.of(2025, 3, 1)).isEmpty());
+
+        assertTrue(libraryManager.returnBook(all.get(3).getTransactionId()));
+        List<Transaction> returnedToday = libraryManager.getTransactionsReturnedBetween(LocalDate.now(), LocalDate.now());
+        assertEquals(1, returnedToday.size());
+        assertEquals("ISBNRANGE03", returnedToday.get(0).getIsbn());
+
+        all.get(3).setActualReturnDate(LocalDate.of(2025, 6, 2)); // Koreksi tanggal kembali
+        assertTrue(libraryManager.getTransactionsReturnedBetween(LocalDate.now(), LocalDate.now()).isEmpty());
+        assertEquals(1, libraryManager.getTransactionsReturnedBetween(
+                LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 30)).size());
+    }
+
+    @Test
+    void testDateRangeQueries_AcceptMinAndMaxDateBounds() {
+        libraryManager.addMember(new Member("MBOUND01", "Joko", "Sejarah", "joko@example.com", "pass"));
+        libraryManager.addBook(new Book("ISBNBOUND01", "Buku Batas 1", "Author", 1));
+        libraryManager.addBook(new Book("ISBNBOUND02", "Buku Batas 2", "Author", 1));
+        assertTrue(libraryManager.borrowBook("MBOUND01", "ISBNBOUND01"));
+        assertTrue(libraryManager.borrowBook("MBOUND01", "ISBNBOUND02"));
+        List<Transaction> all = libraryManager.getAllTransactions();
+        all.get(0).setBorrowDate(LocalDate.now().minusDays(3));
+        assertTrue(libraryManager.returnBook(all.get(0).getTransactionId()));
+
+        assertEquals(all.size(), libraryManager.getTransactionsBorrowedBetween(LocalDate.MIN, LocalDate.MAX).size());
+        assertEquals(1, libraryManager.getTransactionsReturnedBetween(LocalDate.MIN, LocalDate.MAX).size());
+        assertTrue(libraryManager.getTransactionsBorrowedBetween(LocalDate.MAX, LocalDate.MAX).isEmpty());
+        assertEquals(1, libraryManager.getOverdue(LocalDate.MAX).size(), "Semua pinjaman terbuka sudah lewat.");
+        assertTrue(libraryManager.getOverdue(LocalDate.MIN).isEmpty());
+        assertEquals(0, libraryManager.updateOverdueStatuses(LocalDate.MIN));
+
+        List<RollupRow> rollup = libraryManager.getCirculationRollup(LocalDate.MIN, LocalDate.MAX, TimeGrain.YEAR,
+                RollupGroup.NONE, null, null);
+        assertEquals(all.size(), rollup.stream().mapToLong(RollupRow::getTotalBorrows).sum());
+        List<LoanDurationStat> durations = libraryManager.getLoanDurationPercentiles(
+                YearMonth.from(LocalDate.MIN), YearMonth.from(LocalDate.MAX), false);
+        assertEquals(1, durations.size());
+        assertEquals(3, durations.get(0).getP50Days());
+
+        // Tanggal di luar jangkauan epoch day int ditolak, bukan disimpan terbungkus.
+        assertThrows(ArithmeticException.class, () -> all.get(1).setDueDate(LocalDate.MAX));
+        assertEquals(LocalDate.now().plusDays(7), all.get(1).getDueDate());
+    }
+
+    @Test
+    void testCirculationRollup_SlicesByMajorAuthorAndTime() {
+        libraryManager.addMember(new Member("MCUBE01", "Ani", "Fisika", "ani@example.com", "pass"));
+        libraryManager.addMember(new Member("MCUBE02", "Bima", "Sejarah", "bima@example.com", "pass"));
+        libraryManager.addBook(new Book("ISBNCUBE01", "Mekanika", "Halliday", 5));
+        libraryManager.addBook(new Book("ISBNCUBE02", "Nusantara", "Vlekke", 5));
+        assertTrue(libraryManager.borrowBook("MCUBE01", "ISBNCUBE01"));
+        assertTrue(libraryManager.borrowBook("MCUBE01", "ISBNCUBE02"));
+        assertTrue(libraryManager.borrowBook("MCUBE02", "ISBNCUBE02"));
+        List<Transaction> all = libraryManager.getAllTransactions();
+        all.get(0).setBorrowDate(LocalDate.of(2025, 1, 15));
+        all.get(1).setBorrowDate(LocalDate.of(2025, 2, 3));
+        all.get(2).setBorrowDate(LocalDate.now().minusDays(9)); // Terlambat 2 hari saat dikembalikan
+        assertTrue(libraryManager.returnBook(all.get(2).getTransactionId()));
+
+        LocalDate from = LocalDate.of(2025, 1, 1);
+        LocalDate to = LocalDate.of(2025, 2, 28);
+        List<RollupRow> monthly = libraryManager.getCirculationRollup(from, to, TimeGrain.MONTH, RollupGroup.NONE,
+                null, null);
+        assertEquals(2, monthly.size());
+        assertEquals(LocalDate.of(2025, 1, 1), monthly.get(0).getPeriodStart());
+        assertEquals(1, monthly.get(0).getTotalBorrows());
+        assertEquals(RollupRow.ALL, monthly.get(0).getMajor());
+
+        List<RollupRow> byAuthor = libraryManager.getCirculationRollup(from, to, TimeGrain.YEAR, RollupGroup.AUTHOR,
+                "fisika", null);
+        assertEquals(2, byAuthor.size());
+        assertEquals("Halliday", byAuthor.get(0).getAuthor());
+        assertEquals("fisika", byAuthor.get(0).getMajor(), "Filter tampil di kolom dimensi yang tidak dikelompokkan.");
+        assertEquals("Vlekke", byAuthor.get(1).getAuthor());
+
+        LocalDate today = LocalDate.now();
+        List<RollupRow> cells = libraryManager.getCirculationRollup(today.minusDays(30), today, TimeGrain.DAY,
+                RollupGroup.MAJOR_AND_AUTHOR, null, null);
+        assertEquals(2, cells.size(), "Hari pinjam dan hari kembali (denda).");
+        RollupRow returnDay = cells.get(1);
+        assertEquals(today, returnDay.getPeriodStart());
+        assertEquals("Sejarah", returnDay.getMajor());
+        assertEquals("Vlekke", returnDay.getAuthor());
+        assertEquals(0, returnDay.getTotalBorrows());
+        assertEquals(2000.0, returnDay.getTotalFines(), 0.01);
+
+        // Koreksi tanggal pinjam memindahkan hitungan antar periode
+        all.get(0).setBorrowDate(LocalDate.of(2025, 2, 1));
+        monthly = libraryManager.getCirculationRollup(from, to, TimeGrain.MONTH, RollupGroup.MAJOR, null, null);
+        assertEquals(1, monthly.size());
+        assertEquals("Fisika", monthly.get(0).getMajor());
+        assertEquals(2, monthly.get(0).getTotalBorrows());
+    }
+
+    @Test
+    void testCirculationRollup_FollowsMemberAndBookUpdatesAcrossRestart() {
+        libraryManager.addMember(new Member("MCUBE10", "Pindah Jurusan", "Kimia", "pindah@example.com", "pass"));
+        libraryManager.addBook(new Book("ISBNCUBE10", "Buku Atribusi", "Pengarang Lama", 1));
+        assertTrue(libraryManager.borrowBook("MCUBE10", "ISBNCUBE10"));
+        LocalDate today = LocalDate.now();
+        List<RollupRow> before = libraryManager.getCirculationRollup(today, today, TimeGrain.DAY,
+                RollupGroup.MAJOR_AND_AUTHOR, null, null);
+        assertEquals(1, before.size());
+        assertEquals("Kimia", before.get(0).getMajor());
+
+        libraryManager.updateMember(new Member("MCUBE10", "Pindah Jurusan", "Farmasi", "pindah@example.com", null));
+        libraryManager.updateBook(new Book("ISBNCUBE10", "Buku Atribusi", "Pengarang Baru", 0));
+        List<RollupRow> after = libraryManager.getCirculationRollup(today, today, TimeGrain.DAY,
+                RollupGroup.MAJOR_AND_AUTHOR, null, null);
+        assertEquals(1, after.size());
+        assertEquals("Farmasi", after.get(0).getMajor());
+        assertEquals("Pengarang Baru", after.get(0).getAuthor());
+
+        List<RollupRow> restarted = new LibraryManager().getCirculationRollup(today, today, TimeGrain.DAY,
+                RollupGroup.MAJOR_AND_AUTHOR, null, null);
+        assertEquals(1, restarted.size());
+        assertEquals("Farmasi", restarted.get(0).getMajor());
+        assertEquals("Pengarang Baru", restarted.get(0).getAuthor());
+
+        libraryManager.deleteMember("MCUBE10");
+        List<RollupRow> deleted = libraryManager.getCirculationRollup(today, today, TimeGrain.DAY,
+                RollupGroup.MAJOR, null, null);
+        assertEquals(CirculationCube.UNKNOWN, deleted.get(0).getMajor());
+    }
+
+    @Test
+    void testDurationHistogram_CapsLongLoansInOverflowBucket() {
+        DurationHistogram durations = new DurationHistogram();
+        durations.add(5, 1);
+        durations.add(Integer.MAX_VALUE, 1); // Tanggal kembali salah ketik
+        durations.add(DurationHistogram.MAX_DAYS + 1, 1);
+
+        assertEquals(3, durations.count());
+        assertEquals(2, durations.overflowCount());
+        assertEquals(5, durations.percentile(0.3));
+        assertEquals(DurationHistogram.MAX_DAYS + 1, durations.percentile(0.99));
+
+        durations.add(Integer.MAX_VALUE, -1);
+        assertEquals(1, durations.overflowCount());
+    }
+
+    @Test
+    void testLoanDurationPercentiles_PerMonthAndMajorWithoutHistoryScan() throws IOException {
+        libraryManager.addMember(new Member("MDUR01", "Citra", "Biologi", "citra@example.com", "pass"));
+        libraryManager.addMember(new Member("MDUR02", "Dodi", "Kimia", "dodi@example.com", "pass"));
+        for (int i = 0; i < 10; i++) {
+            libraryManager.addBook(new Book("ISBNDUR0" + i, "Buku Durasi " + i, "Author", 2));
+            String memberId = i < 8 ? "MDUR01" : "MDUR02";
+            assertTrue(libraryManager.borrowBook(memberId, "ISBNDUR0" + i));
+        }
+        List<Transaction> all = libraryManager.getAllTransactions();
+        for (int i = 0; i < 10; i++) {
+            all.get(i).setBorrowDate(LocalDate.now().minusDays(i + 1)); // Lama pinjam 1..10 hari
+            assertTrue(libraryManager.returnBook(all.get(i).getTransactionId()));
+        }
+
+        YearMonth thisMonth = YearMonth.now();
+        List<LoanDurationStat> overall = libraryManager.getLoanDurationPercentiles(thisMonth, thisMonth, false);
+        assertEquals(1, overall.size());
+        assertEquals(10, overall.get(0).getReturnedLoans());
+        assertEquals(5, overall.get(0).getP50Days());
+        assertEquals(9, overall.get(0).getP90Days());
+        assertEquals(10, overall.get(0).getP99Days());
+
+        List<LoanDurationStat> perMajor = libraryManager.getLoanDurationPercentiles(thisMonth, thisMonth, true);
+        assertEquals(2, perMajor.size());
+        assertEquals("Biologi", perMajor.get(0).getMajor());
+        assertEquals(8, perMajor.get(0).getP99Days());
+        assertEquals("Kimia", perMajor.get(1).getMajor());
+        assertEquals(9, perMajor.get(1).getP50Days());
+
+        // Sketsa dibentuk ulang dari data yang tersimpan
+        libraryManager.flush();
+        LibraryManager reloaded = new LibraryManager();
+        assertEquals(5, reloaded.getLoanDurationPercentiles(thisMonth, thisMonth, false).get(0).getP50Days());
+        assertTrue(reloaded.getLoanDurationPercentiles(thisMonth.minusMonths(1), thisMonth.minusMonths(1), false)
+                .isEmpty());
+    }
+
+    @Test
+    void testSpaceSaving_TopKWithinErrorBoundsOfExactCounts() {
+        SpaceSaving sketch = new SpaceSaving(200);
+        java.util.Map<String, Long> exact = new java.util.HashMap<>();
+        java.util.Random random = new java.util.Random(22);
+        int total = 100_000;
+        for (int i = 0; i < total; i++) {
+            // Distribusi mirip Zipf: beberapa ISBN sangat populer, ekor panjang jarang
+            String isbn = "ISBN" + (int) Math.floor(Math.pow(5000, random.nextDouble()));
+            sketch.offer(isbn);
+            exact.merge(isbn, 1L, Long::sum);
+        }
+        List<HeavyHitter> top = sketch.top(20);
+        assertEquals(20, top.size());
+        for (HeavyHitter hitter : top) {
+            long actual = exact.getOrDefault(hitter.getKey(), 0L);
+            assertTrue(hitter.getCount() >= actual && hitter.getCount() - hitter.getMaxError() <= actual,
+                    hitter.getKey());
+        }
+        List<String> exactTop = exact.entrySet().stream()
+                .sorted(java.util.Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(10).map(java.util.Map.Entry::getKey).toList();
+        List<String> sketchTop = top.stream().map(HeavyHitter::getKey).toList();
+        assertTrue(sketchTop.containsAll(exactTop), "10 teratas yang sebenarnya ada di 20 teratas sketsa.");
+    }
+
+    @Test
+    void testTopBooksAndMembers_AllTimeAndCurrentWindows() {
+        libraryManager.addMember(new Member("MTOP01", "Eka", "Hukum", "eka@example.com", "pass"));
+        libraryManager.addMember(new Member("MTOP02", "Fajar", "Hukum", "fajar@example.com", "pass"));
+        libraryManager.addBook(new Book("ISBNTOP01", "Buku Laris", "Author", 5));
+        libraryManager.addBook(new Book("ISBNTOP02", "Buku Biasa", "Author", 5));
+        assertTrue(libraryManager.borrowBook("MTOP01", "ISBNTOP01"));
+        assertTrue(libraryManager.borrowBook("MTOP02", "ISBNTOP01"));
+        assertTrue(libraryManager.borrowBook("MTOP01", "ISBNTOP02"));
+
+        List<HeavyHitter> topBooks = libraryManager.getTopBooks(TimeGrain.WEEK, 1);
+        assertEquals(1, topBooks.size());
+        assertEquals("ISBNTOP01", topBooks.get(0).getKey());
+        assertEquals("Buku Laris", topBooks.get(0).getLabel());
+        assertEquals(2, topBooks.get(0).getCount());
+        assertEquals(0, topBooks.get(0).getMaxError());
+
+        List<HeavyHitter> topMembers = libraryManager.getTopMembers(2);
+        assertEquals("MTOP01", topMembers.get(0).getKey());
+        assertEquals("Eka", topMembers.get(0).getLabel());
+        assertEquals(2, topMembers.get(0).getCount());
+        assertEquals(3, libraryManager.getTopBooks(TimeGrain.SEMESTER, 10).stream()
+                .mapToLong(HeavyHitter::getCount).sum());
+    }
+
+    @Test
+    void testSearchBooksRanked_RelevanceAndPopularityWithinLimit() {
+        libraryManager.addMember(new Member("MRANK01", "Gita", "Hukum", "gita@example.com", "pass"));
+        libraryManager.addMember(new Member("MRANK02", "Hana", "Hukum", "hana@example.com", "pass"));
+        libraryManager.addBook(new Book("ISBNRANK01", "Algoritma Dasar", "Author", 5));
+        libraryManager.addBook(new Book("ISBNRANK02", "Algoritma Lanjut", "Author", 5));
+        libraryManager.addBook(new Book("ISBNRANK03", "Algo", "Author", 5));
+        libraryManager.addBook(new Book("ISBNRANK04", "Kalkulus", "Algoritmawan", 5));
+        assertTrue(libraryManager.borrowBook("MRANK01", "ISBNRANK02"));
+        assertTrue(libraryManager.borrowBook("MRANK02", "ISBNRANK02"));
+
+        List<Book> ranked = libraryManager.searchBooksRanked("algo", 10);
+        assertEquals(4, ranked.size());
+        assertEquals("ISBNRANK03", ranked.get(0).getIsbn()); // Kata judul yang sama persis
+        assertEquals("ISBNRANK02", ranked.get(1).getIsbn()); // Lebih sering dipinjam
+        assertEquals("ISBNRANK01", ranked.get(2).getIsbn());
+        assertEquals("ISBNRANK04", ranked.get(3).getIsbn()); // Hanya cocok di pengarang
+
+        List<Book> top = libraryManager.searchBooksRanked("algo", 2);
+        assertEquals(ranked.subList(0, 2), top);
+        assertEquals("ISBNRANK02", libraryManager.searchBooksRanked("", 1).get(0).getIsbn());
+        assertTrue(libraryManager.searchBooksRanked("tidakada", 10).isEmpty());
+    }
+
+    @Test
+    void testSearchBooks_BlankQueryReturnsWholeCatalogBeyondRankedLimit() {
+        libraryManager.addMember(new Member("MBLANK01", "Indra", "Hukum", "indra@example.com", "pass"));
+        for (int i = 0; i < 250; i++) {
+            libraryManager.addBook(new Book(String.format("ISBNBLANK%03d", i), "Katalog " + i, "Author", 5));
+        }
+        assertTrue(libraryManager.borrowBook("MBLANK01", "ISBNBLANK000"));
+
+        int catalogSize = libraryManager.getAllBooks().size();
+        assertEquals(200, libraryManager.searchBooksRanked("", 200).size());
+        List<Book> all = libraryManager.searchBooks(null);
+        assertEquals(catalogSize, all.size(), "Query kosong menampilkan seluruh katalog.");
+        assertEquals(catalogSize, libraryManager.searchBooks("   ").size());
+        assertTrue(all.stream().anyMatch(book -> book.getIsbn().equals("ISBNBLANK249")),
+                "Buku yang belum pernah dipinjam tetap tampil.");
+    }
+
+    @Test
+    void testAlsoBorrowed_CountsMembersWhoBorrowedBothBooks() {
+        for (int i = 1; i <= 3; i++) {
+            libraryManager.addMember(new Member("MCO0" + i, "Anggota " + i, "Hukum", "co" + i + "@example.com", "pass"));
+            libraryManager.addBook(new Book("ISBNCO0" + i, "Buku " + i, "Author", 5));
+        }
+        libraryManager.addBook(new Book("ISBNCO04", "Buku 4", "Author", 5));
+        assertTrue(libraryManager.borrowBook("MCO01", "ISBNCO01"));
+        assertTrue(libraryManager.borrowBook("MCO01", "ISBNCO02"));
+        assertTrue(libraryManager.borrowBook("MCO02", "ISBNCO01"));
+        assertTrue(libraryManager.borrowBook("MCO02", "ISBNCO02"));
+        assertTrue(libraryManager.borrowBook("MCO02", "ISBNCO03"));
+        assertTrue(libraryManager.borrowBook("MCO03", "ISBNCO04"));
+
+        List<Book> suggestions = libraryManager.getAlsoBorrowed("ISBNCO01", null, 5);
+        assertEquals(List.of("ISBNCO02", "ISBNCO03"), suggestions.stream().map(Book::getIsbn).toList());
+        // Buku yang sudah dipinjam anggota tidak disarankan lagi
+        assertTrue(libraryManager.getAlsoBorrowed("ISBNCO01", "MCO02", 5).isEmpty());
+        assertEquals(1, libraryManager.getAlsoBorrowed("ISBNCO01", null, 1).size());
+        assertTrue(libraryManager.getAlsoBorrowed("ISBNCO04", null, 5).isEmpty());
+    }
+
+    @Test
+    void testAlsoBorrowed_ExcludesBooksFromWholeMemberHistory() {
+        TransactionStore store = new TransactionStore();
+        int day = (int) LocalDate.of(2025, 1, 1).toEpochDay();
+        store.add("TXH0", "MHIST", "ISBNOLD", day, day + 7, day + 1, "Returned", 0.0);
+        for (int i = 0; i < CoBorrowIndex.MAX_HISTORY_PER_MEMBER; i++) {
+            store.add("TXH" + (i + 1), "MHIST", "ISBNFILL" + i, day + i + 1, day + i + 8, day + i + 2, "Returned", 0.0);
+        }
+        store.add("TXO1", "MOTHER", "ISBNSEEN", day, day + 7, TransactionStore.NO_DATE, "Borrowed", 0.0);
+        store.add("TXO2", "MOTHER", "ISBNOLD", day, day + 7, TransactionStore.NO_DATE, "Borrowed", 0.0);
+
+        assertEquals(List.of("ISBNOLD"), store.alsoBorrowed("ISBNSEEN", null, 5));
+        assertTrue(store.alsoBorrowed("ISBNSEEN", "MHIST", 5).isEmpty(),
+                "Buku di luar 50 pinjaman terakhir tetap dianggap pernah dipinjam.");
+    }
+
+    @Test
+    void testCoBorrowIndex_PrunesToStrongestNeighbours() {
+        CoBorrowIndex index = new CoBorrowIndex();
+        int member = 0;
+        // Buku 0 dipinjam bersama buku 1 oleh 3 anggota, lalu dengan banyak buku lain sekali saja
+        for (int i = 0; i < 3; i++, member++) {
+            index.offer(member, 0);
+            index.offer(member, 1);
+        }
+        for (int other = 2; other < 2 + 3 * CoBorrowIndex.MAX_NEIGHBOURS; other++, member++) {
+            index.offer(member, 0);
+            index.offer(member, other);
+        }
+        int[] neighbours = index.alsoBorrowed(0, Integer.MAX_VALUE);
+        assertTrue(neighbours.length <= 2 * CoBorrowIndex.MAX_NEIGHBOURS);
+        assertEquals(1, neighbours[0]);
+        assertEquals(0, index.alsoBorrowed(1, 1)[0]);
+    }
+
+    @Test
+    void testStripedLocking_ConcurrentCirculationKeepsInvariants() throws Exception {
+        LibraryManager striped = new LibraryManager(PersistenceMode.JOURNAL, DurabilityPolicy.synchronous(),
+                LockingMode.STRIPED);
+        int memberCount = 12;
+        int bookCount = 4;
+        for (int i = 0; i < memberCount; i++) {
+            striped.addMember(new Member("MSTRIPE" + i, "Anggota " + i, "TI", "stripe" + i + "@example.com", "pass"));
+        }
+        for (int i = 0; i < bookCount; i++) {
+            striped.addBook(new Book("ISBNSTRIPE" + i, "Buku " + i, "Author", 3));
+        }
+
+        int threads = 8;
+        ExecutorService desks = Executors.newFixedThreadPool(threads + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        // Katalog berubah selagi peminjaman membaca indeks buku/anggota tanpa lock global
+        results.add(desks.submit(() -> {
+            start.await();
+            for (int i = 0; i < 200; i++) {
+                assertTrue(striped.addMember(new Member("MSTRIPENEW" + i, "Baru " + i, "TI",
+                        "stripenew" + i + "@example.com", "pass")));
+                assertTrue(striped.addBook(new Book("ISBNSTRIPENEW" + i, "Buku Baru " + i, "Author", 1)));
+            }
+            return null;
+        }));
+        for (int t = 0; t < threads; t++) {
+            int seed = t;
+            results.add(desks.submit(() -> {
+                start.await();
+                for (int i = 0; i < 100; i++) {
+                    String memberId = "MSTRIPE" + ((seed * 7 + i) % memberCount);
+                    String isbn = "ISBNSTRIPE" + ((seed + i * 3) % bookCount);
+                    if (!striped.borrowBook(memberId, isbn) && i % 2 == 0) {
+                        for (Transaction loan : striped.getTransactionsByMemberId(memberId)) {
+                            if (!"Returned".equals(loan.getStatus())) {
+                                striped.returnBook(loan.getTransactionId()); // Boleh kalah dari meja lain
+                            }
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(60, TimeUnit.SECONDS);
+        }
+        desks.shutdown();
+
+        for (int i = 0; i < bookCount; i++) {
+            String isbn = "ISBNSTRIPE" + i;
+            long open = striped.getBorrowedBooksReport().stream().filter(loan -> loan.getIsbn().equals(isbn)).count();
+            int quantity = striped.findBookByIsbn(isbn).getQuantity();
+            assertTrue(quantity >= 0, "Stok tidak boleh negatif.");
+            assertEquals(3, quantity + open, "Stok + pinjaman terbuka harus sama dengan stok awal.");
+        }
+        for (int i = 0; i < memberCount; i++) {
+            long distinctOpen = striped.getTransactionsByMemberId("MSTRIPE" + i).stream()
+                    .filter(loan -> !"Returned".equals(loan.getStatus())).map(Transaction::getIsbn).distinct().count();
+            long open = striped.getTransactionsByMemberId("MSTRIPE" + i).stream()
+                    .filter(loan -> !"Returned".equals(loan.getStatus())).count();
+            assertEquals(distinctOpen, open, "Anggota tidak boleh meminjam buku yang sama dua kali.");
+        }
+        striped.close();
+
+        LibraryManager restarted = new LibraryManager(PersistenceMode.JOURNAL);
+        for (int i = 0; i < bookCount; i++) {
+            String isbn = "ISBNSTRIPE" + i;
+            long open = restarted.getBorrowedBooksReport().stream().filter(loan -> loan.getIsbn().equals(isbn)).count();
+            assertEquals(3, restarted.findBookByIsbn(isbn).getQuantity() + open, "Jurnal harus memuat urutan yang benar.");
+        }
+        restarted.close();
+    }
+
+    @Test
+    void testCsv_QuotedFieldsSurviveReload() throws IOException {
+        libraryManager.addBook(new Book("ISBNCSV01", "Laskar Pelangi, Edisi \"Khusus\"", "Hirata, Andrea", 3));
+        libraryManager.addMember(new Member("MCSV01", "Budi, S.Kom", "Teknik Informatika", "csv@example.com", "p,w"));
+        Files.deleteIfExists(Paths.get(SNAPSHOT_TEST_FILE)); // Paksa memuat dari CSV
+
+        LibraryManager reloaded = new LibraryManager();
+        Book book = reloaded.findBookByIsbn("ISBNCSV01");
+        assertNotNull(book);
+        assertEquals("Laskar Pelangi, Edisi \"Khusus\"", book.getTitle());
+        assertEquals("Hirata, Andrea", book.getAuthor());
+        assertEquals(3, book.getQuantity());
+        Member member = reloaded.findMemberById("MCSV01");
+        assertEquals("Budi, S.Kom", member.getFullName());
+        assertEquals("csv@example.com", member.getEmail());
+        assertEquals("p,w", member.getPassword());
+    }
+
+    @Test
+    void testCsv_TransactionsRoundTripThroughSave() throws IOException {
+        libraryManager.addMember(new Member("MCSV02", "Peminjam CSV", "Biologi", "csv2@example.com", "pass"));
+        libraryManager.addBook(new Book("ISBNCSV02", "Buku CSV", "Author CSV", 1));
+        assertTrue(libraryManager.borrowBook("MCSV02", "ISBNCSV02"));
+        Transaction transaction = libraryManager.getTransactionsByMemberId("MCSV02").get(0);
+        transaction.setBorrowDate(LocalDate.now().minusDays(12)); // Terlambat 5 hari
+        assertTrue(libraryManager.returnBook(transaction.getTransactionId()));
+        Files.deleteIfExists(Paths.get(SNAPSHOT_TEST_FILE));
+
+        Transaction reloaded = new LibraryManager().findTransactionById(transaction.getTransactionId());
+        assertNotNull(reloaded);
+        assertEquals("MCSV02", reloaded.getMemberId());
+        assertEquals(LocalDate.now().minusDays(12), reloaded.getBorrowDate());
+        assertEquals(LocalDate.now().minusDays(5), reloaded.getDueDate());
+        assertEquals(LocalDate.now(), reloaded.getActualReturnDate());
+        assertEquals("Returned", reloaded.getStatus());
+        assertEquals(5000.0, reloaded.getFine(), 0.001);
+    }
+
+    @Test
+    void testCsv_InlineIdWithNewlineIsQuoted() throws IOException {
+        libraryManager.addMember(new Member("MCSV03", "Peminjam CSV", "Biologi", "csv3@example.com", "pass"));
+        libraryManager.addBook(new Book("ISBNCSV03", "Buku CSV", "Author CSV", 1));
+        assertTrue(libraryManager.borrowBook("MCSV03", "ISBNCSV03"));
+        libraryManager.getTransactionsByMemberId("MCSV03").get(0).setTransactionId("TX\nCSV\r3");
+        assertTrue(libraryManager.returnBook("TX\nCSV\r3")); // Menyimpan ulang transactions.csv
+        Files.deleteIfExists(Paths.get(SNAPSHOT_TEST_FILE));
+
+        LibraryManager reloaded = new LibraryManager();
+        assertEquals(libraryManager.getAllTransactions().size(), reloaded.getAllTransactions().size());
+        Transaction transaction = reloaded.findTransactionById("TX\nCSV\r3");
+        assertNotNull(transaction, "ID dengan baris baru harus dikutip agar record tidak terpecah.");
+        assertEquals("Returned", transaction.getStatus());
+    }
+
+    @Test
+    void testParallelLoad_KeepsFileOrderAcrossChunks() throws IOException {
+        StringBuilder csv = new StringBuilder(TransactionCsvLoader.HEADER + "\n");
+        for (int i = 0; i < 500; i++) {
+            if (i % 97 == 0) {
+                csv.append("RUSAK,baris\n"); // Dilewati dan dilaporkan, tidak menggeser urutan
+            }
+            csv.append("TXP").append(i).append(",M").append(i % 5).append(",\"ISBN,\n").append(i % 3)
+                    .append("\",2025-03-01,2025-03-08,,Borrowed,0.0\n");
+        }
+        Files.writeString(Paths.get(TRANSACTIONS_TEST_FILE), csv);
+
+        TransactionStore store = new TransactionStore();
+        assertEquals(500, TransactionCsvLoader.load(Paths.get(TRANSACTIONS_TEST_FILE), store, 256));
+        assertEquals(500, store.size());
+        for (int i = 0; i < 500; i++) {
+            assertEquals("TXP" + i, store.transactionId(i));
+            assertEquals("ISBN,\n" + (i % 3), store.isbn(i));
+        }
+    }
+
+    @Test
+    void testParallelLoad_StrayQuoteInUnquotedFieldMatchesSequentialLoad() throws IOException {
+        StringBuilder csv = new StringBuilder(TransactionCsvLoader.HEADER + "\n");
+        csv.append("12\"3,M0,ISBN0,2025-03-01,2025-03-08,,Borrowed,0.0\n"); // Kutip di tengah field: literal
+        for (int i = 0; i < 300; i++) {
+            csv.append("TXQ").append(i).append(",M").append(i % 5).append(", \"IS\"\"BN,\n").append(i % 3)
+                    .append("\",2025-03-01,2025-03-08,,Borrowed,0.0\n");
+        }
+        Files.writeString(Paths.get(TRANSACTIONS_TEST_FILE), csv);
+
+        TransactionStore sequential = new TransactionStore();
+        TransactionStore parallel = new TransactionStore();
+        assertEquals(301, TransactionCsvLoader.load(Paths.get(TRANSACTIONS_TEST_FILE), sequential, Long.MAX_VALUE));
+        assertEquals(301, TransactionCsvLoader.load(Paths.get(TRANSACTIONS_TEST_FILE), parallel, 64));
+        assertEquals("12\"3", parallel.transactionId(0));
+        for (int row = 0; row < 301; row++) {
+            assertEquals(sequential.transactionId(row), parallel.transactionId(row));
+            assertEquals(sequential.isbn(row), parallel.isbn(row));
+        }
+        assertEquals("IS\"BN,\n2", parallel.isbn(300));
+    }
+
+    @Test
+    void testStructuralScanner_MatchesScalarScan() {
+        StructuralScanner scalar = StructuralScanner.scalar();
+        StructuralScanner best = StructuralScanner.get(); // Versi vektor jika modulnya dimuat
+        java.util.Random random = new java.util.Random(42);
+        byte[] data = new byte[1000];
+        byte[] alphabet = "ab,\"\n ".getBytes();
+        for (int i = 0; i < data.length; i++) {
+            data[i] = random.nextInt(10) == 0 ? alphabet[random.nextInt(alphabet.length)] : (byte) 'x';
+        }
+        for (int from = 0; from < data.length; from += 7) {
+            for (int to : new int[] { from, from + 1, Math.min(data.length, from + 40), data.length }) {
+                assertEquals(scalar.indexOf(data, from, to, (byte) '"'), best.indexOf(data, from, to, (byte) '"'),
+                        best.name());
+                assertEquals(scalar.indexOfEither(data, from, to, (byte) ',', (byte) '\n'),
+                        best.indexOfEither(data, from, to, (byte) ',', (byte) '\n'), best.name());
+            }
+        }
+    }
+
+    @Test
+    void testFindTransactionById_IndexIsCaseInsensitiveAndFollowsIdChanges() {
+        TransactionStore store = new TransactionStore();
+        for (int i = 0; i < 5000; i++) {
+            store.add("TRX-" + i, "M1", "ISBN1", 0, 7, TransactionStore.NO_DATE, "Borrowed", 0.0);
+        }
+        store.add("Transaksi-Dengan-ID-Panjang", "M1", "ISBN1", 0, 7, TransactionStore.NO_DATE, "Borrowed", 0.0);
+        store.add("trx-42", "M2", "ISBN2", 0, 7, TransactionStore.NO_DATE, "Borrowed", 0.0); // ID ganda
+
+        assertEquals(42, store.findRow("trx-42"), "Baris pertama dengan ID tersebut yang ditemukan.");
+        assertEquals(4999, store.findRow("TRX-4999"));
+        assertEquals(5000, store.findRow("TRANSAKSI-dengan-id-panjang"));
+        assertEquals(-1, store.findRow("TRX-5000"));
+
+        store.setTransactionId(42, "TRX-GANTI");
+        assertEquals(5001, store.findRow("TRX-42"));
+        assertEquals(42, store.findRow("trx-ganti"));
+    }
+
+    @Test
+    void testGetTransactionsByMemberId_NewestFirstWithPaging() {
+        libraryManager.addMember(new Member("MHIST01", "Riwayat", "TI", "riwayat@example.com", "pass"));
+        for (int i = 0; i < 5; i++) {
+            libraryManager.addBook(new Book("ISBNHIST0" + i, "Buku " + i, "Author", 1));
+            assertTrue(libraryManager.borrowBook("MHIST01", "ISBNHIST0" + i));
+        }
+        // Pindahkan pinjaman pertama ke masa lalu dan yang kedua ke masa depan
+        List<Transaction> all = libraryManager.getTransactionsByMemberId("MHIST01");
+        Transaction first = all.get(0);
+        first.setBorrowDate(LocalDate.now().minusDays(30));
+        Transaction last = all.get(4);
+        last.setBorrowDate(LocalDate.now().plusDays(1));
+
+        List<String> isbns = new java.util.ArrayList<>();
+        for (Transaction t : libraryManager.getTransactionsByMemberId("MHIST01")) {
+            isbns.add(t.getIsbn());
+        }
+        // Tanggal sama tetap dalam urutan aslinya
+        assertEquals(List.of("ISBNHIST04", "ISBNHIST01", "ISBNHIST02", "ISBNHIST03", "ISBNHIST00"), isbns);
+
+        assertEquals(5, libraryManager.getTransactionCountByMemberId("MHIST01"));
+        List<Transaction> page = libraryManager.getTransactionsByMemberId("MHIST01", 1, 2);
+        assertEquals(2, page.size());
+        assertEquals("ISBNHIST01", page.get(0).getIsbn());
+        assertEquals("ISBNHIST02", page.get(1).getIsbn());
+        assertThrows(UnsupportedOperationException.class, () -> page.remove(0));
+        assertTrue(libraryManager.getTransactionsByMemberId("MHIST01", 5, 10).isEmpty());
+        assertTrue(libraryManager.getTransactionsByMemberId("MTIDAKADA").isEmpty());
+    }
+
+    @Test
+    void testGetBorrowedBooksReport_OnlyOpenLoansInTransactionOrder() {
+        libraryManager.addMember(new Member("MREPORT01", "Laporan", "TI", "laporan@example.com", "pass"));
+        for (int i = 0; i < 3; i++) {
+            libraryManager.addBook(new Book("ISBNREPORT0" + i, "Buku Laporan " + i, "Author", 1));
+            assertTrue(libraryManager.borrowBook("MREPORT01", "ISBNREPORT0" + i));
+        }
+        assertEquals(3, libraryManager.getBorrowedBooksReport().size());
+
+        Transaction middle = libraryManager.getBorrowedBooksReport().get(1);
+        assertTrue(libraryManager.returnBook(middle.getTransactionId()));
+
+        List<Transaction> report = libraryManager.getBorrowedBooksReport();
+        assertEquals(2, report.size());
+        assertEquals("ISBNREPORT00", report.get(0).getIsbn());
+        assertEquals("ISBNREPORT02", report.get(1).getIsbn());
+    }
+
+    @Test
+    void testDueDateIndex_OverdueAndDueSoonWithExplicitStatusUpdate() {
+        libraryManager.addMember(new Member("MDUE01", "Jatuh Tempo", "TI", "tempo@example.com", "pass"));
+        for (int i = 0; i < 3; i++) {
+            libraryManager.addBook(new Book("ISBNDUE0" + i, "Buku Tempo " + i, "Author", 1));
+            assertTrue(libraryManager.borrowBook("MDUE01", "ISBNDUE0" + i));
+        }
+        List<Transaction> loans = libraryManager.getBorrowedBooksReport();
+        loans.get(0).setDueDate(LocalDate.now().minusDays(3)); // Sudah lewat
+        loans.get(1).setDueDate(LocalDate.now().plusDays(2));  // Segera
+        // loans.get(2): jatuh tempo default 7 hari lagi
+
+        long batchesBefore = libraryManager.writtenBatchCount();
+        List<Transaction> overdue = libraryManager.getOverdue(LocalDate.now());
+        libraryManager.getBorrowedBooksReport();
+        libraryManager.getDueWithin(3);
+        assertEquals(batchesBefore, libraryManager.writtenBatchCount(), "Query tidak boleh menulis ke disk.");
+        assertEquals(1, overdue.size());
+        assertEquals("ISBNDUE00", overdue.get(0).getIsbn());
+        assertEquals("Borrowed", overdue.get(0).getStatus(), "Query tidak boleh mengubah status.");
+        assertEquals(1, libraryManager.updateOverdueStatuses(LocalDate.now()));
+        assertEquals("Overdue", overdue.get(0).getStatus());
+        assertEquals("Borrowed", loans.get(1).getStatus());
+
+        List<Transaction> dueSoon = libraryManager.getDueWithin(3);
+        assertEquals(1, dueSoon.size());
+        assertEquals("ISBNDUE01", dueSoon.get(0).getIsbn());
+        assertEquals(2, libraryManager.getDueWithin(7).size());
+        assertEquals(3, libraryManager.getOverdue(LocalDate.now().plusDays(8)).size());
+
+        // Sudah Overdue tidak diproses ulang; setelah dikembalikan keluar dari indeks
+        assertEquals(0, libraryManager.updateOverdueStatuses(LocalDate.now()));
+        assertTrue(libraryManager.returnBook(overdue.get(0).getTransactionId()));
+        assertTrue(libraryManager.getOverdue(LocalDate.now()).isEmpty());
+    }
+
+    @Test
+    void testUpdateOverdueStatuses_WritesAllFlippedRowsInOneFlush() {
+        libraryManager.addMember(new Member("MDUE02", "Banyak Terlambat", "TI", "terlambat@example.com", "pass"));
+        for (int i = 0; i < 4; i++) {
+            libraryManager.addBook(new Book("ISBNDUE1" + i, "Buku Terlambat " + i, "Author", 1));
+            assertTrue(libraryManager.borrowBook("MDUE02", "ISBNDUE1" + i));
+        }
+        for (Transaction loan : libraryManager.getTransactionsByMemberId("MDUE02")) {
+            loan.setDueDate(LocalDate.now().minusDays(1));
+        }
+
+        long batchesBefore = libraryManager.writtenBatchCount();
+        assertEquals(4, libraryManager.updateOverdueStatuses(LocalDate.now()));
+        assertEquals(batchesBefore + 1, libraryManager.writtenBatchCount(), "Semua baris seharusnya ditulis sekali.");
+
+        LibraryManager reloaded = new LibraryManager();
+        for (Transaction loan : reloaded.getTransactionsByMemberId("MDUE02")) {
+            assertEquals("Overdue", loan.getStatus());
+        }
+    }
+}